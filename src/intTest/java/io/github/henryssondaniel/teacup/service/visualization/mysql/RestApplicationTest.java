@@ -3,13 +3,25 @@ package io.github.henryssondaniel.teacup.service.visualization.mysql;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.AccountResource;
-import java.util.Collections;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.ProfileWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RateLimitFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RequestReader;
 import org.junit.jupiter.api.Test;
 
 class RestApplicationTest {
   @Test
-  void getClasses() {
-    assertThat(new RestApplication().getClasses())
-        .containsOnlyElementsOf(Collections.singletonList(AccountResource.class));
+  void getSingletons() {
+    assertThat(new RestApplication().getSingletons())
+        .hasAtLeastOneElementOfType(AccountResource.class)
+        .hasAtLeastOneElementOfType(ConcurrencyLimitFilter.class)
+        .hasAtLeastOneElementOfType(DeadlineFilter.class)
+        .hasAtLeastOneElementOfType(EventFilter.class)
+        .hasAtLeastOneElementOfType(MetricsFilter.class)
+        .hasAtLeastOneElementOfType(ProfileWriter.class)
+        .hasAtLeastOneElementOfType(RateLimitFilter.class)
+        .hasAtLeastOneElementOfType(RequestReader.class)
+        .hasSize(8);
+
+    ContextListener.close();
   }
 }
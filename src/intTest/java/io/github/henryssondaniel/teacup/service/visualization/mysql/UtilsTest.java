@@ -3,11 +3,18 @@ package io.github.henryssondaniel.teacup.service.visualization.mysql;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
+import java.sql.SQLException;
 import org.junit.jupiter.api.Test;
 
 class UtilsTest {
   @Test
-  void createMySqlDataSource() {
-    assertThat(Utils.createMySqlDataSource()).isExactlyInstanceOf(MysqlDataSource.class);
+  void createMySqlDataSource() throws SQLException {
+    var dataSource = Utils.createMySqlDataSource();
+
+    assertThat(dataSource).isExactlyInstanceOf(CircuitBreakerDataSource.class);
+    assertThat(dataSource.unwrap(InstrumentedDataSource.class))
+        .isExactlyInstanceOf(InstrumentedDataSource.class);
+    assertThat(dataSource.unwrap(ConnectionPool.class)).isExactlyInstanceOf(ConnectionPool.class);
+    assertThat(dataSource.unwrap(MysqlDataSource.class)).isExactlyInstanceOf(MysqlDataSource.class);
   }
 }
@@ -1,9 +1,18 @@
 package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
 
+import static io.github.henryssondaniel.teacup.service.visualization.mysql.Utils.createMySqlDataSource;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.sun.net.httpserver.HttpPrincipal;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AccountCache;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AuditWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Bulkheads;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.LockoutTable;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
@@ -11,15 +20,24 @@ import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.EventListener;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.AsyncContext;
@@ -56,52 +74,117 @@ import javax.servlet.http.HttpSessionContext;
 import javax.servlet.http.HttpUpgradeHandler;
 import javax.servlet.http.Part;
 import javax.servlet.http.WebConnection;
+import javax.sql.DataSource;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.json.JSONArray;
 import org.junit.jupiter.api.Test;
 
 class AccountResourceTest {
+  private static final int ATTEMPTS = 10;
+  private static final int MAX_UNSUCCESSFUL = 5;
+
+  private static final DataSource DATA_SOURCE = createMySqlDataSource();
+  private static final AccountResource ACCOUNT_RESOURCE =
+      new AccountResource(
+          new AccountCache(100, 1_000L, Metrics.getInstance()),
+          new AuditWriter(DATA_SOURCE, 100, 10, 100L, 100L),
+          new Bulkheads(DATA_SOURCE, ATTEMPTS, Metrics.getInstance()),
+          DATA_SOURCE,
+          new EmailFilter(DATA_SOURCE, 100, 0.01, 0L, 0L),
+          new HashingExecutor(2, 100, 2),
+          new HashingExecutor(1, 100, 1),
+          new LockoutTable(1_000L),
+          Metrics.getInstance());
+
   @Test
-  void changePassword() {
-    try (var response =
-        new AccountResource()
-            .changePassword(
-                "{\"authorized\": true, \"email\": \"\", \"password\": \"\"}",
-                new TestHttpServletRequest())) {
-      assertThat(response).isNotNull();
-    }
+  void changePassword() throws ExecutionException, InterruptedException, TimeoutException {
+    var testAsyncResponse = new TestAsyncResponse();
+    ACCOUNT_RESOURCE.changePassword(
+        new ChangePasswordRequest(true, "", ""), new TestHttpServletRequest(), testAsyncResponse);
+
+    assertThat(testAsyncResponse.get()).isNotNull();
   }
 
   @Test
-  void login() {
-    try (var response =
-        new AccountResource()
-            .logIn("{\"email\": \"\", \"password\": \"\"}", new TestHttpServletRequest())) {
-      assertThat(response).isNotNull();
+  void exportAccounts() throws IOException {
+    var byteArrayOutputStream = new ByteArrayOutputStream();
+    ((StreamingOutput) ACCOUNT_RESOURCE.exportAccounts().getEntity()).write(byteArrayOutputStream);
+
+    assertThat(new JSONArray(byteArrayOutputStream.toString(StandardCharsets.UTF_8))).isNotNull();
+  }
+
+  @Test
+  void login() throws ExecutionException, InterruptedException, TimeoutException {
+    var testAsyncResponse = new TestAsyncResponse();
+    ACCOUNT_RESOURCE.logIn(
+        new LogInRequest("", ""), new TestHttpServletRequest(), testAsyncResponse);
+
+    assertThat(testAsyncResponse.get()).isNotNull();
+  }
+
+  @Test
+  void logInConcurrently() throws ExecutionException, InterruptedException, TimeoutException {
+    var email = "concurrent-" + UUID.randomUUID() + "@teacup.test";
+
+    var signUpResponse = new TestAsyncResponse();
+    ACCOUNT_RESOURCE.signUp(
+        new SignUpRequest(email, "", "", "right"), new TestHttpServletRequest(), signUpResponse);
+    assertThat(((Response) signUpResponse.get()).getStatus()).isEqualTo(Status.OK.getStatusCode());
+
+    var testAsyncResponses = new ArrayList<TestAsyncResponse>(ATTEMPTS);
+    var executorService = Executors.newFixedThreadPool(ATTEMPTS);
+
+    try {
+      for (var attempt = 0; attempt < ATTEMPTS; attempt++) {
+        var testAsyncResponse = new TestAsyncResponse();
+        testAsyncResponses.add(testAsyncResponse);
+
+        executorService.execute(
+            () ->
+                ACCOUNT_RESOURCE.logIn(
+                    new LogInRequest(email, "wrong"),
+                    new TestHttpServletRequest(),
+                    testAsyncResponse));
+      }
+
+      var statuses = new ArrayList<Integer>(ATTEMPTS);
+      for (var testAsyncResponse : testAsyncResponses)
+        statuses.add(((Response) testAsyncResponse.get()).getStatus());
+
+      assertThat(statuses)
+          .containsOnly(Status.UNAUTHORIZED.getStatusCode(), Status.NOT_ACCEPTABLE.getStatusCode())
+          .filteredOn(status -> status == Status.UNAUTHORIZED.getStatusCode())
+          .hasSize(MAX_UNSUCCESSFUL);
+    } finally {
+      executorService.shutdown();
     }
   }
 
   @Test
   void recover() {
     try (var response =
-        new AccountResource().recover("{\"email\": \"\"}", new TestHttpServletRequest())) {
+        ACCOUNT_RESOURCE.recover(new EmailRequest(""), new TestHttpServletRequest())) {
       assertThat(response).isNotNull();
     }
   }
 
   @Test
-  void signUp() {
-    try (var response =
-        new AccountResource()
-            .signUp(
-                "{\"email\": \"\", \"firstName\": \"\", \"lastName\": \"\", \"password\": \"\"}",
-                new TestHttpServletRequest())) {
-      assertThat(response).isNotNull();
-    }
+  void signUp() throws ExecutionException, InterruptedException, TimeoutException {
+    var testAsyncResponse = new TestAsyncResponse();
+    ACCOUNT_RESOURCE.signUp(
+        new SignUpRequest("", "", "", ""), new TestHttpServletRequest(), testAsyncResponse);
+
+    assertThat(testAsyncResponse.get()).isNotNull();
   }
 
   @Test
   void verify() {
     try (var response =
-        new AccountResource().verify("{\"email\": \"\"}", new TestHttpServletRequest())) {
+        ACCOUNT_RESOURCE.verify(new EmailRequest(""), new TestHttpServletRequest())) {
       assertThat(response).isNotNull();
     }
   }
@@ -206,6 +289,99 @@ class AccountResourceTest {
     }
   }
 
+  private static final class TestAsyncResponse implements AsyncResponse {
+    private static final Logger LOGGER = Logger.getLogger(TestAsyncResponse.class.getName());
+
+    private final CompletableFuture<Object> completableFuture = new CompletableFuture<>();
+
+    @Override
+    public boolean cancel() {
+      LOGGER.log(Level.FINE, "Cancel");
+      return completableFuture.cancel(false);
+    }
+
+    @Override
+    public boolean cancel(Date retryAfter) {
+      LOGGER.log(Level.FINE, "Cancel");
+      return completableFuture.cancel(false);
+    }
+
+    @Override
+    public boolean cancel(int retryAfter) {
+      LOGGER.log(Level.FINE, "Cancel");
+      return completableFuture.cancel(false);
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+      LOGGER.log(Level.FINE, "Register");
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public Collection<Class<?>> register(Class<?> callback) {
+      LOGGER.log(Level.FINE, "Register");
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+      LOGGER.log(Level.FINE, "Register");
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public Collection<Class<?>> register(Object callback) {
+      LOGGER.log(Level.FINE, "Register");
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isCancelled() {
+      LOGGER.log(Level.FINE, "Is cancelled");
+      return completableFuture.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      LOGGER.log(Level.FINE, "Is done");
+      return completableFuture.isDone();
+    }
+
+    @Override
+    public boolean isSuspended() {
+      LOGGER.log(Level.FINE, "Is suspended");
+      return !completableFuture.isDone();
+    }
+
+    @Override
+    public boolean resume(Object response) {
+      LOGGER.log(Level.FINE, "Resume");
+      return completableFuture.complete(response);
+    }
+
+    @Override
+    public boolean resume(Throwable response) {
+      LOGGER.log(Level.FINE, "Resume");
+      return completableFuture.complete(response);
+    }
+
+    @Override
+    public boolean setTimeout(long time, TimeUnit unit) {
+      LOGGER.log(Level.FINE, "Set timeout");
+      return true;
+    }
+
+    @Override
+    public void setTimeoutHandler(TimeoutHandler handler) {
+      LOGGER.log(Level.FINE, "Set timeout handler");
+    }
+
+    private Object get() throws ExecutionException, InterruptedException, TimeoutException {
+      return completableFuture.get(30L, TimeUnit.SECONDS);
+    }
+  }
+
   private static final class TestDynamic implements FilterRegistration.Dynamic {
     private static final Logger LOGGER = Logger.getLogger(TestDynamic.class.getName());
 
@@ -0,0 +1,51 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.concurrent.TimeUnit;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to hash and to check a password at several BCrypt cost factors. Each step up in cost doubles
+ * the work, and the hashing executor has to be sized for it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 3)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+public class BCryptBenchmark {
+  private static final String PASSWORD = "password";
+
+  @Param({"4", "6", "8", "10", "12"})
+  private int cost;
+
+  private String hash;
+  private String salt;
+
+  @Benchmark
+  public boolean checkpw() {
+    return BCrypt.checkpw(PASSWORD, hash);
+  }
+
+  @Benchmark
+  public String hashpw() {
+    return BCrypt.hashpw(PASSWORD, salt);
+  }
+
+  @Setup
+  public void setup() {
+    salt = BCrypt.gensalt(cost);
+    hash = BCrypt.hashpw(PASSWORD, salt);
+  }
+}
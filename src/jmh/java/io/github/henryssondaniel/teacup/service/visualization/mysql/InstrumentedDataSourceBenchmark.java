@@ -0,0 +1,65 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of the instrumented data source. Each operation borrows a connection, prepares and
+ * executes a query and reads its row, from the stub data source as it is and instrumented, with the
+ * slow statement log disabled (0) and enabled with a threshold that is never reached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class InstrumentedDataSourceBenchmark {
+  private static final String SQL = "SELECT id FROM account WHERE email = ?";
+
+  @Param({"0", "1000"})
+  private long slowThreshold;
+
+  private DataSource instrumented;
+  private DataSource plain;
+
+  @Benchmark
+  public int instrumented() throws SQLException {
+    return query(instrumented);
+  }
+
+  @Benchmark
+  public int plain() throws SQLException {
+    return query(plain);
+  }
+
+  @Setup
+  public void setup() {
+    plain = new StubDataSource(0L, Map.of("id", 1)).create();
+    instrumented = new InstrumentedDataSource(plain, new Metrics(), slowThreshold, 1);
+  }
+
+  private static int query(DataSource dataSource) throws SQLException {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement = connection.prepareStatement(SQL)) {
+      preparedStatement.setString(1, "admin@teacup.com");
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getInt("id") : 0;
+      }
+    }
+  }
+}
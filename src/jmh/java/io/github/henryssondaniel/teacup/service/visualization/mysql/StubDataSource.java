@@ -0,0 +1,135 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+
+/**
+ * In-memory data source for the benchmarks. Every statement waits for the configured latency, to
+ * mimic the round trip to the database, and every query and procedure call returns the same single
+ * row.
+ */
+public final class StubDataSource {
+  private final long latency;
+  private final Map<String, Object> row;
+
+  /**
+   * Constructor.
+   *
+   * @param latency the latency of each statement in nanoseconds
+   * @param row the row returned by the queries, keyed by column label
+   */
+  public StubDataSource(long latency, Map<String, Object> row) {
+    this.latency = latency;
+    this.row = Map.copyOf(row);
+  }
+
+  /**
+   * Creates the data source.
+   *
+   * @return the data source
+   */
+  public DataSource create() {
+    return proxy(
+        DataSource.class,
+        (proxy, method, args) ->
+            "getConnection".equals(method.getName()) ? createConnection() : defaultValue(method));
+  }
+
+  /**
+   * Creates a connection pool of the given size over the data source.
+   *
+   * @param size the minimum and maximum size of the pool
+   * @return the connection pool, which is closed as an {@link AutoCloseable}
+   */
+  public DataSource createPool(int size) {
+    return new ConnectionPool(create(), size, size, 60_000L, 60_000L, 60_000L);
+  }
+
+  private Connection createConnection() {
+    return proxy(
+        Connection.class,
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "createStatement":
+            case "prepareCall":
+            case "prepareStatement":
+              return createStatement();
+            case "getAutoCommit":
+            case "isValid":
+              return true;
+            default:
+              return defaultValue(method);
+          }
+        });
+  }
+
+  private ResultSet createResultSet() {
+    var next = new boolean[] {true};
+
+    return proxy(
+        ResultSet.class,
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getBoolean":
+              return Boolean.TRUE.equals(row.get(args[0]));
+            case "getInt":
+              return args[0] instanceof Integer ? 1 : ((Number) row.get(args[0])).intValue();
+            case "getString":
+              return String.valueOf(row.get(args[0]));
+            case "next":
+              var value = next[0];
+              next[0] = false;
+              return value;
+            default:
+              return defaultValue(method);
+          }
+        });
+  }
+
+  private CallableStatement createStatement() {
+    return proxy(
+        CallableStatement.class,
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "execute":
+              LockSupport.parkNanos(latency);
+              return false;
+            case "executeQuery":
+              LockSupport.parkNanos(latency);
+              return createResultSet();
+            case "executeUpdate":
+              LockSupport.parkNanos(latency);
+              return 1;
+            case "executeBatch":
+              LockSupport.parkNanos(latency);
+              return new int[0];
+            case "getGeneratedKeys":
+              return createResultSet();
+            default:
+              return defaultValue(method);
+          }
+        });
+  }
+
+  private static Object defaultValue(Method method) {
+    var returnType = method.getReturnType();
+
+    if (returnType == boolean.class) return false;
+    if (returnType == int.class) return 0;
+    if (returnType == long.class) return 0L;
+    return null;
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler invocationHandler) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            StubDataSource.class.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+  }
+}
@@ -0,0 +1,169 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AccountCache;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AuditWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Bulkheads;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.LockoutTable;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.StubDataSource;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.Response;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of each endpoint apart from the database. The endpoints run against the stub data source,
+ * which answers every statement with the same row after the configured latency. The passwords are
+ * hashed with the configured cost when they are checked, and with the default cost when they are
+ * stored, like in production. The account ids are cached when the cache size is not 0.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class AccountResourceBenchmark {
+  private static final String EMAIL = "admin@teacup.com";
+  private static final String PASSWORD = "password";
+
+  private final HttpServletRequest forwarded =
+      createHttpServletRequest(Map.of("X-Forwarded-For", "10.0.0.1"));
+  private final HttpServletRequest remote = createHttpServletRequest(Map.of());
+
+  @Param({"0", "1000"})
+  private int cacheSize;
+
+  @Param("4")
+  private int cost;
+
+  @Param("0")
+  private long latency;
+
+  private AccountResource accountResource;
+  private AuditWriter auditWriter;
+  private HashingExecutor hashingExecutor;
+
+  @Benchmark
+  public Response buildResponse() {
+    return Response.ok(new Profile(EMAIL, "first", 1, "last")).build();
+  }
+
+  @Benchmark
+  public Object changePassword() throws ExecutionException, InterruptedException {
+    var benchmarkAsyncResponse = new BenchmarkAsyncResponse();
+    accountResource.changePassword(
+        new ChangePasswordRequest(true, EMAIL, PASSWORD), remote, benchmarkAsyncResponse);
+
+    return benchmarkAsyncResponse.get();
+  }
+
+  @Benchmark
+  public String getIpForwarded() {
+    return AccountResource.getIp(forwarded);
+  }
+
+  @Benchmark
+  public String getIpRemote() {
+    return AccountResource.getIp(remote);
+  }
+
+  @Benchmark
+  public Object logIn() throws ExecutionException, InterruptedException {
+    var benchmarkAsyncResponse = new BenchmarkAsyncResponse();
+    accountResource.logIn(new LogInRequest(EMAIL, PASSWORD), remote, benchmarkAsyncResponse);
+
+    return benchmarkAsyncResponse.get();
+  }
+
+  @Benchmark
+  public Response recover() {
+    return accountResource.recover(new EmailRequest(EMAIL), remote);
+  }
+
+  @Setup
+  public void setup() {
+    var dataSource =
+        new StubDataSource(
+                latency,
+                Map.of(
+                    "email",
+                    EMAIL,
+                    "first_name",
+                    "first",
+                    "id",
+                    1,
+                    "last_name",
+                    "last",
+                    "log_ins",
+                    1,
+                    PASSWORD,
+                    BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost)),
+                    "permitted",
+                    true,
+                    "unsuccessful",
+                    0))
+            .create();
+
+    auditWriter = new AuditWriter(dataSource, 10_000, 100, 1_000L, 100L);
+    hashingExecutor = new HashingExecutor(1, 1_000, 1);
+    var metrics = Metrics.getInstance();
+    accountResource =
+        new AccountResource(
+            new AccountCache(cacheSize, 1_000L, metrics),
+            auditWriter,
+            new Bulkheads(dataSource, 0, metrics),
+            dataSource,
+            new EmailFilter(dataSource, 100, 0.01, 0L, 0L),
+            hashingExecutor,
+            hashingExecutor,
+            new LockoutTable(60_000L),
+            metrics);
+  }
+
+  @Benchmark
+  public Object signUp() throws ExecutionException, InterruptedException {
+    var benchmarkAsyncResponse = new BenchmarkAsyncResponse();
+    accountResource.signUp(
+        new SignUpRequest(EMAIL, "first", "last", PASSWORD), remote, benchmarkAsyncResponse);
+
+    return benchmarkAsyncResponse.get();
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    hashingExecutor.close();
+    auditWriter.close();
+  }
+
+  @Benchmark
+  public Response verify() {
+    return accountResource.verify(new EmailRequest(EMAIL), remote);
+  }
+
+  private static HttpServletRequest createHttpServletRequest(Map<String, String> headers) {
+    return (HttpServletRequest)
+        Proxy.newProxyInstance(
+            AccountResourceBenchmark.class.getClassLoader(),
+            new Class<?>[] {HttpServletRequest.class},
+            (proxy, method, args) ->
+                "getHeader".equals(method.getName()) ? headers.get(args[0]) : "127.0.0.1");
+  }
+}
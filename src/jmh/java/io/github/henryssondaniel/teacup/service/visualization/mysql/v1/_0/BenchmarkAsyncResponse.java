@@ -0,0 +1,72 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+
+/** Async response for the benchmarks, which completes with the response that is resumed. */
+final class BenchmarkAsyncResponse extends CompletableFuture<Object> implements AsyncResponse {
+  @Override
+  public boolean cancel() {
+    return cancel(false);
+  }
+
+  @Override
+  public boolean cancel(int retryAfter) {
+    return cancel();
+  }
+
+  @Override
+  public boolean cancel(Date retryAfter) {
+    return cancel();
+  }
+
+  @Override
+  public boolean isSuspended() {
+    return !isDone();
+  }
+
+  @Override
+  public Collection<Class<?>> register(Class<?> callback) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Collection<Class<?>> register(Object callback) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean resume(Object response) {
+    return complete(response);
+  }
+
+  @Override
+  public boolean resume(Throwable response) {
+    return completeExceptionally(response);
+  }
+
+  @Override
+  public boolean setTimeout(long time, TimeUnit unit) {
+    return true;
+  }
+
+  @Override
+  public void setTimeoutHandler(TimeoutHandler handler) {
+    throw new UnsupportedOperationException();
+  }
+}
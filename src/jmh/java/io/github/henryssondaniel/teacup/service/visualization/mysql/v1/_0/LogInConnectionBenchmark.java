@@ -0,0 +1,129 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AccountCache;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AuditWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Bulkheads;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.LockoutTable;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.StubDataSource;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Log ins per second at a fixed pool size. Each log in goes through {@link AccountResource#logIn}:
+ * the account is read with one connection, the password is checked on a hashing thread without a
+ * connection, and the log ins are updated with a second connection on a writer thread. The
+ * connections come from a pool over the stub data source, which waits for the configured latency on
+ * every statement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Warmup(iterations = 3)
+public class LogInConnectionBenchmark {
+  private static final String EMAIL = "admin@teacup.com";
+  private static final String PASSWORD = "password";
+
+  private final HttpServletRequest httpServletRequest =
+      (HttpServletRequest)
+          Proxy.newProxyInstance(
+              LogInConnectionBenchmark.class.getClassLoader(),
+              new Class<?>[] {HttpServletRequest.class},
+              (proxy, method, args) -> "getHeader".equals(method.getName()) ? null : "127.0.0.1");
+
+  @Param("10")
+  private int cost;
+
+  @Param("4")
+  private int hashingThreads;
+
+  @Param("1000")
+  private long latency;
+
+  @Param("2")
+  private int poolSize;
+
+  private AccountResource accountResource;
+  private AuditWriter auditWriter;
+  private DataSource dataSource;
+  private HashingExecutor hashingExecutor;
+
+  @Benchmark
+  public Object logIn() throws ExecutionException, InterruptedException {
+    var benchmarkAsyncResponse = new BenchmarkAsyncResponse();
+    accountResource.logIn(
+        new LogInRequest(EMAIL, PASSWORD), httpServletRequest, benchmarkAsyncResponse);
+
+    return benchmarkAsyncResponse.get();
+  }
+
+  @Setup
+  public void setup() {
+    dataSource =
+        new StubDataSource(
+                TimeUnit.MICROSECONDS.toNanos(latency),
+                Map.of(
+                    "email",
+                    EMAIL,
+                    "first_name",
+                    "first",
+                    "id",
+                    1,
+                    "last_name",
+                    "last",
+                    "log_ins",
+                    1,
+                    PASSWORD,
+                    BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost)),
+                    "permitted",
+                    true,
+                    "unsuccessful",
+                    0))
+            .createPool(poolSize);
+
+    auditWriter = new AuditWriter(dataSource, 10_000, 100, 1_000L, 100L);
+    hashingExecutor = new HashingExecutor(hashingThreads, 1_000, poolSize);
+    var metrics = Metrics.getInstance();
+    accountResource =
+        new AccountResource(
+            new AccountCache(1_000, 1_000L, metrics),
+            auditWriter,
+            new Bulkheads(dataSource, 0, metrics),
+            dataSource,
+            new EmailFilter(dataSource, 100, 0.01, 0L, 0L),
+            hashingExecutor,
+            hashingExecutor,
+            new LockoutTable(60_000L),
+            metrics);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    hashingExecutor.close();
+    auditWriter.close();
+    ((AutoCloseable) dataSource).close();
+  }
+}
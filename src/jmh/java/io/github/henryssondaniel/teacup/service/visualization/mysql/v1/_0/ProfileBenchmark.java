@@ -0,0 +1,84 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.MediaType;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to write the log in profile to the response stream. The concatenated variant builds the
+ * String like the log in did before the profile writer, without any escaping, and the quoted
+ * variant adds the escaping with {@link JSONObject#quote(String)}. Both leave the encoding to the
+ * container. The writer variant escapes and encodes straight into a buffer of the call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class ProfileBenchmark {
+  private final OutputStream outputStream = OutputStream.nullOutputStream();
+  private final ProfileWriter profileWriter = new ProfileWriter();
+
+  private Profile profile;
+
+  @Benchmark
+  public void concatenated() throws IOException {
+    outputStream.write(
+        ("{\"email\":\""
+                + profile.getEmail()
+                + "\", \"firstName\":\""
+                + profile.getFirstName()
+                + "\", \"id\":\""
+                + profile.getId()
+                + "\", \"lastName\":\""
+                + profile.getLastName()
+                + "\"}")
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  public void quoted() throws IOException {
+    outputStream.write(
+        ("{\"email\":"
+                + JSONObject.quote(profile.getEmail())
+                + ",\"firstName\":"
+                + JSONObject.quote(profile.getFirstName())
+                + ",\"id\":\""
+                + profile.getId()
+                + "\",\"lastName\":"
+                + JSONObject.quote(profile.getLastName())
+                + '}')
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Setup
+  public void setup() {
+    profile = new Profile("daniel.henrysson@teacup.com", "Daniel", 4_711, "Henrysson");
+  }
+
+  @Benchmark
+  public void writer() throws IOException {
+    profileWriter.writeTo(
+        profile,
+        Profile.class,
+        Profile.class,
+        null,
+        MediaType.APPLICATION_JSON_TYPE,
+        null,
+        outputStream);
+  }
+}
@@ -0,0 +1,67 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to read a sign up body. The object variant reads the body into a String and parses it into a
+ * JSONObject, like the endpoints did before the request reader. The reader variant parses the
+ * stream straight into the request type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class RequestBenchmark {
+  private static final byte[] BODY =
+      ("{\"email\":\"admin@teacup.com\", \"firstName\":\"first\", \"lastName\":\"last\","
+              + " \"password\":\"password\"}")
+          .getBytes(StandardCharsets.UTF_8);
+
+  private final MultivaluedMap<String, String> httpHeaders = new MultivaluedHashMap<>();
+  private final RequestReader requestReader = new RequestReader(16_384);
+
+  @Benchmark
+  public SignUpRequest object() throws IOException {
+    var byteArrayOutputStream = new ByteArrayOutputStream();
+    new ByteArrayInputStream(BODY).transferTo(byteArrayOutputStream);
+
+    var jsonObject = new JSONObject(byteArrayOutputStream.toString(StandardCharsets.UTF_8));
+
+    return new SignUpRequest(
+        jsonObject.getString("email"),
+        jsonObject.getString("firstName"),
+        jsonObject.getString("lastName"),
+        jsonObject.getString("password"));
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public Object reader() {
+    return requestReader.readFrom(
+        (Class<Object>) (Class<?>) SignUpRequest.class,
+        SignUpRequest.class,
+        null,
+        MediaType.APPLICATION_JSON_TYPE,
+        httpHeaders,
+        new ByteArrayInputStream(BODY));
+  }
+}
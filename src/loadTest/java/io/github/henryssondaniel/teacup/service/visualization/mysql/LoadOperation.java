@@ -0,0 +1,68 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import org.json.JSONObject;
+
+/**
+ * Operation of the load test. Each operation posts a body to its path under the account resource.
+ * The change password keeps the password of the account, so that the log ins keep succeeding.
+ */
+enum LoadOperation {
+  CHANGE_PASSWORD("changePassword") {
+    @Override
+    String createBody(String email) {
+      return new JSONObject()
+          .put("authorized", true)
+          .put(EMAIL, email)
+          .put(SECRET, SECRET)
+          .toString();
+    }
+  },
+  LOG_IN("logIn") {
+    @Override
+    String createBody(String email) {
+      return new JSONObject().put(EMAIL, email).put(SECRET, SECRET).toString();
+    }
+  },
+  SIGN_UP("signUp") {
+    @Override
+    String createBody(String email) {
+      return new JSONObject()
+          .put(EMAIL, email)
+          .put("firstName", "Load")
+          .put("lastName", "Test")
+          .put(SECRET, SECRET)
+          .toString();
+    }
+  };
+
+  private static final String EMAIL = "email";
+  private static final String SECRET = "password";
+
+  private final String path;
+
+  LoadOperation(String path) {
+    this.path = path;
+  }
+
+  /**
+   * Returns the operation with the path.
+   *
+   * @param path the path
+   * @return the operation
+   */
+  static LoadOperation fromPath(String path) {
+    for (var loadOperation : values()) if (loadOperation.path.equals(path)) return loadOperation;
+    throw new IllegalArgumentException("Unknown operation: " + path);
+  }
+
+  /**
+   * Returns the path of the operation, which is also its name in the mix and in the reports.
+   *
+   * @return the path
+   */
+  String getPath() {
+    return path;
+  }
+
+  abstract String createBody(String email);
+}
@@ -0,0 +1,167 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+
+/**
+ * Report of a load test. The report is written as results.json, for comparing releases by script,
+ * as results.html, for reading, and as one HdrHistogram percentile distribution file per operation,
+ * which the HdrHistogram plotter can draw on top of the files of earlier releases. The latencies
+ * are in milliseconds, and the throughput is in requests per second.
+ */
+final class LoadReport {
+  private static final double MICROSECONDS_PER_MILLISECOND = 1_000.0;
+  private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+  private static final String TOTAL = "total";
+
+  private final Map<String, Object> configuration;
+  private final double duration;
+  private final Map<String, Histogram> histograms = new LinkedHashMap<>(8);
+  private final Map<String, Map<Integer, Long>> statuses = new LinkedHashMap<>(8);
+
+  LoadReport(
+      Map<String, Object> configuration,
+      long duration,
+      Map<LoadOperation, LoadStatistics> statistics) {
+    this.configuration = new LinkedHashMap<>(configuration);
+    this.duration = duration / (double) TimeUnit.SECONDS.toNanos(1L);
+
+    var total = new Histogram(3);
+    Map<Integer, Long> totalStatuses = new TreeMap<>();
+
+    statistics.forEach(
+        (loadOperation, loadStatistics) -> {
+          var histogram = loadStatistics.getHistogram();
+          total.add(histogram);
+          histograms.put(loadOperation.getPath(), histogram);
+
+          var operationStatuses = loadStatistics.getStatuses();
+          operationStatuses.forEach(
+              (status, count) -> totalStatuses.merge(status, count, Long::sum));
+          statuses.put(loadOperation.getPath(), operationStatuses);
+        });
+
+    histograms.put(TOTAL, total);
+    statuses.put(TOTAL, totalStatuses);
+  }
+
+  void write(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Files.writeString(directory.resolve("results.json"), createJson().toString(2));
+    Files.writeString(directory.resolve("results.html"), createHtml());
+
+    for (var entry : histograms.entrySet())
+      try (var printStream =
+          new PrintStream(
+              Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")),
+              false,
+              StandardCharsets.UTF_8)) {
+        entry.getValue().outputPercentileDistribution(printStream, MICROSECONDS_PER_MILLISECOND);
+      }
+  }
+
+  private static void appendCell(StringBuilder stringBuilder, Object value) {
+    stringBuilder.append("<td>").append(escape(String.valueOf(value))).append("</td>");
+  }
+
+  private String createHtml() {
+    var stringBuilder =
+        new StringBuilder(4_096)
+            .append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n")
+            .append("<title>Load test</title>\n<style>")
+            .append("table{border-collapse:collapse;margin-bottom:2em}")
+            .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}")
+            .append("</style>\n</head>\n<body>\n<h1>Load test</h1>\n")
+            .append("<h2>Configuration</h2>\n<table>\n");
+
+    configuration.forEach(
+        (key, value) -> {
+          stringBuilder.append("<tr><th>").append(escape(key)).append("</th>");
+          appendCell(stringBuilder, value);
+          stringBuilder.append("</tr>\n");
+        });
+
+    stringBuilder
+        .append("</table>\n<h2>Results</h2>\n<p>")
+        .append(String.format("%.1f", duration))
+        .append(" seconds. Latencies in milliseconds.</p>\n<table>\n<tr><th>Operation</th>")
+        .append("<th>Requests</th><th>Throughput</th><th>Statuses</th><th>Mean</th>");
+
+    for (var percentile : PERCENTILES)
+      stringBuilder.append("<th>p").append(percentile).append("</th>");
+    stringBuilder.append("<th>Max</th></tr>\n");
+
+    histograms.forEach(
+        (operation, histogram) -> {
+          stringBuilder.append("<tr><th>").append(operation).append("</th>");
+          appendCell(stringBuilder, histogram.getTotalCount());
+          appendCell(stringBuilder, String.format("%.1f", histogram.getTotalCount() / duration));
+          appendCell(stringBuilder, statuses.get(operation));
+          appendCell(stringBuilder, String.format("%.3f", toMilliseconds(histogram.getMean())));
+
+          for (var percentile : PERCENTILES)
+            appendCell(
+                stringBuilder,
+                String.format("%.3f", toMilliseconds(histogram.getValueAtPercentile(percentile))));
+
+          appendCell(stringBuilder, String.format("%.3f", toMilliseconds(histogram.getMaxValue())));
+          stringBuilder.append("</tr>\n");
+        });
+
+    return stringBuilder.append("</table>\n</body>\n</html>\n").toString();
+  }
+
+  private JSONObject createJson() {
+    var operations = new JSONObject();
+
+    histograms.forEach(
+        (operation, histogram) -> {
+          var percentiles = new JSONObject();
+          for (var percentile : PERCENTILES)
+            percentiles.put(
+                Double.toString(percentile),
+                toMilliseconds(histogram.getValueAtPercentile(percentile)));
+
+          operations.put(
+              operation,
+              new JSONObject()
+                  .put("count", histogram.getTotalCount())
+                  .put(
+                      "latency",
+                      new JSONObject()
+                          .put("maximum", toMilliseconds(histogram.getMaxValue()))
+                          .put("mean", toMilliseconds(histogram.getMean()))
+                          .put("minimum", toMilliseconds(histogram.getMinValue()))
+                          .put("percentiles", percentiles)
+                          .put("standardDeviation", toMilliseconds(histogram.getStdDeviation())))
+                  .put("statuses", statuses.get(operation))
+                  .put("throughput", histogram.getTotalCount() / duration));
+        });
+
+    return new JSONObject()
+        .put("configuration", configuration)
+        .put("duration", duration)
+        .put("operations", operations);
+  }
+
+  private static String escape(String value) {
+    return value
+        .replace("&", "&amp;")
+        .replace("<", "&lt;")
+        .replace(">", "&gt;")
+        .replace("\"", "&quot;");
+  }
+
+  private static double toMilliseconds(double microseconds) {
+    return microseconds / MICROSECONDS_PER_MILLISECOND;
+  }
+}
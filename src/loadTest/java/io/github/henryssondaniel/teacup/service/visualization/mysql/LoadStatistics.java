@@ -0,0 +1,52 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and response statuses of one operation. The latencies are recorded in microseconds into
+ * an HdrHistogram recorder, so that the worker threads never block each other, and the interval
+ * histogram is taken when the measurement ends.
+ */
+final class LoadStatistics {
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+  private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>(8);
+
+  /**
+   * Returns the latency histogram since the last reset, and resets it.
+   *
+   * @return the histogram
+   */
+  Histogram getHistogram() {
+    return recorder.getIntervalHistogram();
+  }
+
+  /**
+   * Returns the number of responses by status since the last reset, ordered by status. Failed
+   * requests are counted as status 0.
+   *
+   * @return the statuses
+   */
+  Map<Integer, Long> getStatuses() {
+    Map<Integer, Long> counts = new TreeMap<>();
+    statuses.forEach((status, count) -> counts.put(status, count.sum()));
+
+    return counts;
+  }
+
+  void record(long latency, int status) {
+    recorder.recordValue(latency);
+    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+  }
+
+  void reset() {
+    recorder.reset();
+    statuses.clear();
+  }
+}
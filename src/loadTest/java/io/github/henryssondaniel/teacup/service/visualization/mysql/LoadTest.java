@@ -0,0 +1,253 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.servlet.ServletContainer;
+
+/**
+ * Load test of the REST application. The application is started in an embedded Jetty server against
+ * the MySQL database of the visualization properties. The accounts of the test are signed up first,
+ * and then the worker threads drive a weighted mix of log ins, sign ups and password changes over
+ * HTTP, first for the warm up and then for the measured duration. The latencies and the throughput
+ * of each operation are written as JSON and HTML to the output directory.
+ *
+ * <p>Without a rate, each worker sends the next request as soon as the previous one is answered.
+ * With a rate, the requests are sent on a fixed schedule and the latency is measured from the
+ * scheduled time, so that a stalled server is not hidden by the workers waiting for it.
+ *
+ * <p>The test is configured with the loadTest.* system properties: accounts, duration (seconds),
+ * mix (for example logIn=8,signUp=1,changePassword=1), output, port, rate (requests per second, 0
+ * for none), threads and warmUp (seconds).
+ */
+public final class LoadTest {
+  private static final String DOMAIN = "@teacup.com";
+  private static final Logger LOGGER = Logger.getLogger(LoadTest.class.getName());
+  private static final String PROPERTY = "loadTest.";
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30L);
+
+  private final int accounts;
+  private final Map<String, Object> configuration = new LinkedHashMap<>(16);
+  private final Duration duration;
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  private final LoadOperation[] mix;
+  private final Path output;
+  private final int port;
+  private final long rate;
+  private final String run = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final AtomicLong signUps = new AtomicLong();
+  private final Map<LoadOperation, LoadStatistics> statistics = new EnumMap<>(LoadOperation.class);
+  private final int threads;
+  private final Duration warmUp;
+
+  private URI uri;
+
+  LoadTest(Properties properties) {
+    accounts = Integer.parseInt(getProperty(properties, "accounts", "100"));
+    duration = Duration.ofSeconds(Long.parseLong(getProperty(properties, "duration", "60")));
+    mix = parseMix(getProperty(properties, "mix", "logIn=8,signUp=1,changePassword=1"));
+    output = Path.of(getProperty(properties, "output", "build/reports/loadTest"));
+    port = Integer.parseInt(getProperty(properties, "port", "0"));
+    rate = Long.parseLong(getProperty(properties, "rate", "0"));
+    threads = Integer.parseInt(getProperty(properties, "threads", "16"));
+    warmUp = Duration.ofSeconds(Long.parseLong(getProperty(properties, "warmUp", "10")));
+
+    for (var loadOperation : LoadOperation.values())
+      statistics.put(loadOperation, new LoadStatistics());
+
+    if (accounts < 1 && Arrays.stream(mix).anyMatch(value -> value != LoadOperation.SIGN_UP))
+      throw new IllegalArgumentException("The mix needs accounts");
+  }
+
+  /**
+   * Runs the load test with the system properties.
+   *
+   * @param args not used
+   * @throws Exception if the server could not be started or stopped, or the report not written
+   */
+  public static void main(String... args) throws Exception {
+    new LoadTest(System.getProperties()).run();
+  }
+
+  void run() throws Exception {
+    var server = createServer(port);
+    server.start();
+
+    try {
+      uri =
+          URI.create(
+              "http://localhost:"
+                  + ((ServerConnector) server.getConnectors()[0]).getLocalPort()
+                  + "/api/v1/account/");
+
+      createAccounts();
+
+      LOGGER.log(Level.INFO, "Warm up for " + warmUp);
+      measure(warmUp);
+      statistics.values().forEach(LoadStatistics::reset);
+
+      LOGGER.log(Level.INFO, "Measure for " + duration);
+      var start = System.nanoTime();
+      measure(duration);
+
+      new LoadReport(configuration, System.nanoTime() - start, statistics).write(output);
+      LOGGER.log(Level.INFO, "Wrote the report to " + output.toAbsolutePath());
+    } finally {
+      server.stop();
+    }
+  }
+
+  private void createAccounts() throws ExecutionException, InterruptedException {
+    LOGGER.log(Level.INFO, "Sign up " + accounts + " accounts");
+
+    Collection<Callable<Integer>> callables = new ArrayList<>(accounts);
+    for (var account = 0; account < accounts; account++) {
+      var email = createEmail(account);
+      callables.add(() -> send(LoadOperation.SIGN_UP, email));
+    }
+
+    var executorService = Executors.newFixedThreadPool(threads);
+
+    try {
+      for (var future : executorService.invokeAll(callables))
+        if (future.get() != 200) throw new IllegalStateException("Could not sign up the accounts");
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private String createEmail(int account) {
+    return "load." + run + '.' + account + DOMAIN;
+  }
+
+  private String createEmail(LoadOperation loadOperation) {
+    return loadOperation == LoadOperation.SIGN_UP
+        ? "load." + run + ".s" + signUps.incrementAndGet() + DOMAIN
+        : createEmail(ThreadLocalRandom.current().nextInt(accounts));
+  }
+
+  private static Server createServer(int port) {
+    var servletHolder =
+        new ServletHolder(
+            new ServletContainer(ResourceConfig.forApplicationClass(RestApplication.class)));
+    servletHolder.setAsyncSupported(true);
+
+    var servletContextHandler = new ServletContextHandler();
+    servletContextHandler.addEventListener(new ContextListener());
+    servletContextHandler.addServlet(servletHolder, "/api/*");
+
+    var server = new Server(port);
+    server.setHandler(servletContextHandler);
+
+    return server;
+  }
+
+  private String getProperty(Properties properties, String key, String defaultValue) {
+    var value = properties.getProperty(PROPERTY + key, defaultValue).trim();
+    configuration.put(key, value);
+
+    return value;
+  }
+
+  private void measure(Duration time) throws InterruptedException {
+    var end = System.nanoTime() + time.toNanos();
+    var executorService = Executors.newFixedThreadPool(threads);
+
+    for (var thread = 0; thread < threads; thread++) executorService.execute(() -> work(end));
+
+    executorService.shutdown();
+    if (!executorService.awaitTermination(
+        time.plus(REQUEST_TIMEOUT).toNanos(), TimeUnit.NANOSECONDS)) {
+      LOGGER.log(Level.WARNING, "The workers did not stop in time");
+      executorService.shutdownNow();
+    }
+  }
+
+  private static LoadOperation[] parseMix(String value) {
+    List<LoadOperation> loadOperations = new ArrayList<>(16);
+
+    for (var entry : value.split(",")) {
+      var parts = entry.split("=", 2);
+      var loadOperation = LoadOperation.fromPath(parts[0].trim());
+      var weight = parts.length == 1 ? 1 : Integer.parseInt(parts[1].trim());
+
+      for (var index = 0; index < weight; index++) loadOperations.add(loadOperation);
+    }
+
+    if (loadOperations.isEmpty()) throw new IllegalArgumentException("The mix is empty");
+
+    return loadOperations.toArray(new LoadOperation[0]);
+  }
+
+  private int send(LoadOperation loadOperation, String email) {
+    var status = 0;
+
+    try {
+      status =
+          httpClient
+              .send(
+                  HttpRequest.newBuilder(uri.resolve(loadOperation.getPath()))
+                      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                      .POST(BodyPublishers.ofString(loadOperation.createBody(email)))
+                      .timeout(REQUEST_TIMEOUT)
+                      .build(),
+                  BodyHandlers.discarding())
+              .statusCode();
+    } catch (IOException e) {
+      LOGGER.log(Level.FINE, "The request failed", e);
+    } catch (InterruptedException e) {
+      LOGGER.log(Level.FINE, "Interrupted", e);
+      Thread.currentThread().interrupt();
+    }
+
+    return status;
+  }
+
+  private void work(long end) {
+    var random = ThreadLocalRandom.current();
+    var interval = rate > 0L ? TimeUnit.SECONDS.toNanos(threads) / rate : 0L;
+    var next = System.nanoTime() + (interval > 0L ? random.nextLong(interval) : 0L);
+
+    while (next < end && System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(next - System.nanoTime());
+
+      var loadOperation = mix[random.nextInt(mix.length)];
+      var status = send(loadOperation, createEmail(loadOperation));
+      var now = System.nanoTime();
+
+      statistics.get(loadOperation).record(TimeUnit.NANOSECONDS.toMicros(now - next), status);
+
+      next = interval > 0L ? next + interval : now;
+    }
+  }
+}
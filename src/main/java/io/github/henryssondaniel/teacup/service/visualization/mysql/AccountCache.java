@@ -0,0 +1,177 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the account ids by email. An email never moves to another account, so the ids are kept
+ * until they are evicted, while the emails without an account are kept for the negative time to
+ * live only, since the account can be created by another instance or by an import. The emails are
+ * compared in lower case, like the email index of the database does.
+ *
+ * <p>The cache is split into segments by the hash of the email, and each segment is a least
+ * recently used map with its own lock, so the request threads only wait for each other when they
+ * look up emails of the same segment. The database is read outside the lock. The hits and misses
+ * are counted in the {@link Metrics}.
+ *
+ * @since 1.0
+ */
+public final class AccountCache {
+  private static final String NAME = "account";
+  private static final int SEGMENTS = 16;
+
+  private final Metrics metrics;
+  private final long negativeTtl;
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  /**
+   * Constructor.
+   *
+   * @param maximumSize the maximum number of cached emails, 0 for no cache
+   * @param negativeTtl the time to keep an email without an account in milliseconds
+   * @param metrics the metrics
+   * @since 1.0
+   */
+  public AccountCache(int maximumSize, long negativeTtl, Metrics metrics) {
+    this.metrics = metrics;
+    this.negativeTtl = TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+
+    var segmentSize = (maximumSize + SEGMENTS - 1) / SEGMENTS;
+    for (var index = 0; index < SEGMENTS; index++) segments[index] = new Segment(segmentSize);
+  }
+
+  /**
+   * Returns the id of the account with the email. The id is loaded and cached if the email is not
+   * cached.
+   *
+   * @param email the email
+   * @param loader the loader of the id
+   * @return the id, or empty if there is no account with the email
+   * @throws SQLException if the id could not be loaded
+   * @since 1.0
+   */
+  public OptionalInt getId(String email, Loader loader) throws SQLException {
+    var key = email.toLowerCase(Locale.ROOT);
+    var segment = getSegment(key);
+
+    Cached cached;
+    synchronized (segment) {
+      cached = segment.get(key);
+    }
+
+    var now = System.nanoTime();
+    if (cached != null && (cached.id.isPresent() || now - cached.expiry < 0L)) {
+      metrics.recordCache(NAME, true);
+      return cached.id;
+    }
+
+    metrics.recordCache(NAME, false);
+
+    var id = loader.load(email);
+    var loaded = new Cached(id, now + negativeTtl);
+
+    synchronized (segment) {
+      var current = segment.get(key);
+      if (current == null || current.id.isEmpty()) segment.put(key, loaded);
+    }
+
+    return id;
+  }
+
+  /**
+   * Returns the id of the account with the email if it is cached. The id is never loaded.
+   *
+   * @param email the email
+   * @return the id, or empty if no id is cached for the email
+   * @since 1.0
+   */
+  public OptionalInt getIfPresent(String email) {
+    var key = email.toLowerCase(Locale.ROOT);
+    var segment = getSegment(key);
+
+    synchronized (segment) {
+      var cached = segment.get(key);
+      return cached == null ? OptionalInt.empty() : cached.id;
+    }
+  }
+
+  /**
+   * Caches the id of the account with the email, like when the account is signed up.
+   *
+   * @param email the email
+   * @param id the id of the account
+   * @since 1.0
+   */
+  public void put(String email, int id) {
+    var key = email.toLowerCase(Locale.ROOT);
+    var segment = getSegment(key);
+
+    synchronized (segment) {
+      segment.put(key, new Cached(OptionalInt.of(id), 0L));
+    }
+  }
+
+  int getSize() {
+    var size = 0;
+
+    for (var segment : segments)
+      synchronized (segment) {
+        size += segment.size();
+      }
+
+    return size;
+  }
+
+  private Segment getSegment(String key) {
+    var hash = key.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+  }
+
+  /**
+   * Loader of the id of an account.
+   *
+   * @since 1.0
+   */
+  @FunctionalInterface
+  public interface Loader {
+    /**
+     * Loads the id of the account with the email.
+     *
+     * @param email the email
+     * @return the id, or empty if there is no account with the email
+     * @throws SQLException if the id could not be loaded
+     * @since 1.0
+     */
+    OptionalInt load(String email) throws SQLException;
+  }
+
+  private static final class Cached {
+    private final long expiry;
+    private final OptionalInt id;
+
+    private Cached(OptionalInt id, long expiry) {
+      this.expiry = expiry;
+      this.id = id;
+    }
+  }
+
+  private static final class Segment extends LinkedHashMap<String, Cached> {
+    private static final long serialVersionUID = 1L;
+
+    private final int maximumSize;
+
+    private Segment(int maximumSize) {
+      super(16, 0.75F, true);
+      this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+      return size() > maximumSize;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Write-behind pipeline for the audit tables. The rows are put on a bounded queue and written by a
+ * background thread with one multi-row INSERT per table, when the batch is full or when the flush
+ * interval has passed. Each table is written in its own transaction, so a failing table does not
+ * take the rows of the other tables with it, and a transient error is retried once before the rows
+ * are lost. A full queue makes the caller wait for the offer timeout, and the row is lost if there
+ * is still no room. The remaining rows are written when the writer is closed.
+ *
+ * <p>A verification of an account that is already verified only skips the duplicate row, so a row
+ * that breaks another constraint fails and is counted as lost instead of being dropped silently.
+ * The status history is not written behind: its latest row is the status of the account, so it is
+ * written in the transaction of the sign up, and an account is never without a status.
+ *
+ * @since 1.0
+ */
+public final class AuditWriter implements AutoCloseable {
+  private static final Row CLOSE = new Row(null);
+  private static final Logger LOGGER = Logger.getLogger(AuditWriter.class.getName());
+  private static final long TERMINATION_TIMEOUT = 30L;
+
+  private final int batchSize;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final DataSource dataSource;
+  private final AtomicLong delayed = new AtomicLong(0L);
+  private final ExecutorService executorService =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            var thread = new Thread(runnable, "teacup-mysql-audit");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final long flushInterval;
+  private final AtomicLong lost = new AtomicLong(0L);
+  private final long offerTimeout;
+  private final BlockingQueue<Row> queue;
+  private final AtomicLong written = new AtomicLong(0L);
+
+  /**
+   * Constructor.
+   *
+   * @param dataSource the data source
+   * @param capacity the maximum number of queued rows
+   * @param batchSize the maximum number of rows written at once
+   * @param flushInterval the maximum time in milliseconds a row waits for a full batch
+   * @param offerTimeout the maximum time in milliseconds a caller waits when the queue is full
+   * @since 1.0
+   */
+  public AuditWriter(
+      DataSource dataSource, int capacity, int batchSize, long flushInterval, long offerTimeout) {
+    this.batchSize = batchSize;
+    this.dataSource = dataSource;
+    this.flushInterval = flushInterval;
+    this.offerTimeout = offerTimeout;
+
+    queue = new ArrayBlockingQueue<>(capacity);
+    executorService.execute(this::run);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    LOGGER.log(Level.FINE, "Close");
+
+    closed.set(true);
+    queue.offer(CLOSE);
+    executorService.shutdown();
+
+    if (!executorService.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS))
+      LOGGER.log(Level.WARNING, "The audit rows were not written in time");
+  }
+
+  /**
+   * Returns the number of rows that had to wait for room in the queue.
+   *
+   * @return the number of delayed rows
+   * @since 1.0
+   */
+  public long getDelayed() {
+    return delayed.get();
+  }
+
+  /**
+   * Returns the number of rows that were never written, either because the queue stayed full or
+   * because the INSERT failed, also when it was retried.
+   *
+   * @return the number of lost rows
+   * @since 1.0
+   */
+  public long getLost() {
+    return lost.get();
+  }
+
+  /**
+   * Returns the number of rows that are waiting to be written.
+   *
+   * @return the number of pending rows
+   * @since 1.0
+   */
+  public int getPending() {
+    return queue.size();
+  }
+
+  /**
+   * Returns the number of rows that have been written.
+   *
+   * @return the number of written rows
+   * @since 1.0
+   */
+  public long getWritten() {
+    return written.get();
+  }
+
+  /**
+   * Writes a log in attempt.
+   *
+   * @param ip the IP address
+   * @param logIns the ID of the log ins row
+   * @param successful whether the attempt was successful
+   * @since 1.0
+   */
+  public void logIn(String ip, int logIns, boolean successful) {
+    offer(new Row(Table.LOG_IN, ip, logIns, successful));
+  }
+
+  /**
+   * Writes a recover request.
+   *
+   * @param account the account ID
+   * @param ip the IP address
+   * @since 1.0
+   */
+  public void recover(int account, String ip) {
+    offer(new Row(Table.RECOVER, account, ip));
+  }
+
+  /**
+   * Writes a verification. An account that is already verified keeps its first row.
+   *
+   * @param account the account ID
+   * @param ip the IP address
+   * @since 1.0
+   */
+  public void verified(int account, String ip) {
+    offer(new Row(Table.VERIFIED, account, ip));
+  }
+
+  private void commit(Table table, List<Row> rows) throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+
+      try {
+        write(connection, table, rows);
+        connection.commit();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
+  private void fill(Collection<Row> batch) throws InterruptedException {
+    var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      if (batch.size() >= batchSize || closed.get()) break;
+
+      var row = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (row == null) break;
+
+      batch.add(row);
+    }
+
+    batch.removeIf(row -> row == CLOSE);
+  }
+
+  private void offer(Row row) {
+    if (closed.get()) {
+      LOGGER.log(Level.WARNING, "The audit writer is closed, dropping a row");
+      lost.incrementAndGet();
+    } else if (!queue.offer(row)) {
+      delayed.incrementAndGet();
+
+      try {
+        if (!queue.offer(row, offerTimeout, TimeUnit.MILLISECONDS)) {
+          LOGGER.log(Level.WARNING, "The audit queue is full, dropping a row");
+          lost.incrementAndGet();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        lost.incrementAndGet();
+      }
+    }
+  }
+
+  private void run() {
+    List<Row> batch = new ArrayList<>(batchSize);
+
+    try {
+      while (!closed.get() || !queue.isEmpty()) {
+        fill(batch);
+
+        if (!batch.isEmpty()) {
+          write(batch);
+          batch.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.log(Level.WARNING, "The audit writer was interrupted", e);
+      Thread.currentThread().interrupt();
+
+      lost.addAndGet(batch.size() + (long) queue.size());
+    }
+  }
+
+  private void write(Collection<Row> batch) {
+    LOGGER.log(Level.FINEST, "Write audit rows");
+
+    Map<Table, List<Row>> tables = new EnumMap<>(Table.class);
+    for (var row : batch) tables.computeIfAbsent(row.table, key -> new ArrayList<>(1)).add(row);
+
+    for (var entry : tables.entrySet()) write(entry.getKey(), entry.getValue());
+  }
+
+  private void write(Table table, List<Row> rows) {
+    try {
+      try {
+        commit(table, rows);
+      } catch (SQLTransientException e) {
+        LOGGER.log(Level.FINE, "Retry writing the " + table + " audit rows", e);
+        commit(table, rows);
+      }
+
+      written.addAndGet(rows.size());
+    } catch (SQLException | RuntimeException e) {
+      LOGGER.log(Level.SEVERE, "Could not write " + rows.size() + " " + table + " audit rows", e);
+      lost.addAndGet(rows.size());
+    }
+  }
+
+  private static void write(Connection connection, Table table, List<Row> rows)
+      throws SQLException {
+    var sql = new StringBuilder(table.insert);
+    for (var index = 0; index < rows.size(); index++)
+      sql.append(index == 0 ? " VALUES" : ",").append(table.placeholders);
+    sql.append(table.duplicate);
+
+    try (var preparedStatement = connection.prepareStatement(sql.toString())) {
+      var parameter = 0;
+
+      for (var row : rows)
+        for (var value : row.values) preparedStatement.setObject(++parameter, value);
+
+      preparedStatement.executeUpdate();
+    }
+  }
+
+  private static final class Row {
+    private final Table table;
+    private final Object[] values;
+
+    private Row(Table table, Object... values) {
+      this.table = table;
+
+      this.values = new Object[values.length + 1];
+      System.arraycopy(values, 0, this.values, 0, values.length);
+      this.values[values.length] = new Timestamp(System.currentTimeMillis());
+    }
+  }
+
+  private enum Table {
+    LOG_IN("INSERT INTO `teacup_visualization`.`log_in`(ip, log_ins, successful, time)", 4, ""),
+    RECOVER("INSERT INTO `teacup_visualization`.`recover`(account, ip, time)", 3, ""),
+    VERIFIED(
+        "INSERT INTO `teacup_visualization`.`verified`(account, ip, time)",
+        3,
+        " ON DUPLICATE KEY UPDATE account = account");
+
+    private final String duplicate;
+    private final String insert;
+    private final String placeholders;
+
+    Table(String insert, int columns, String duplicate) {
+      this.duplicate = duplicate;
+      this.insert = insert;
+      placeholders = " (?" + ", ?".repeat(columns - 1) + ')';
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Bulkheads of the database work by endpoint. Each endpoint may hold at most the maximum number of
+ * connections at once, so a slow endpoint cannot take all the connections of the pool. A connection
+ * over the maximum is refused at once with a {@link SQLTransientConnectionException}, and counted
+ * in the {@link Metrics}. The place in the bulkhead is given back when the connection is closed.
+ *
+ * @since 1.0
+ */
+public final class Bulkheads {
+  private static final Logger LOGGER = Logger.getLogger(Bulkheads.class.getName());
+
+  private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>(16);
+  private final DataSource dataSource;
+  private final int maximum;
+  private final Metrics metrics;
+
+  /**
+   * Constructor.
+   *
+   * @param dataSource the data source
+   * @param maximum the maximum number of connections of each endpoint, 0 for no bulkheads
+   * @param metrics the metrics
+   * @since 1.0
+   */
+  public Bulkheads(DataSource dataSource, int maximum, Metrics metrics) {
+    this.dataSource = dataSource;
+    this.maximum = maximum;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns a connection for the database work of the endpoint.
+   *
+   * @param endpoint the endpoint
+   * @return the connection
+   * @throws SQLException if the bulkhead of the endpoint is full or no connection could be acquired
+   * @since 1.0
+   */
+  public Connection getConnection(String endpoint) throws SQLException {
+    if (maximum <= 0) return dataSource.getConnection();
+
+    var bulkhead = bulkheads.get(endpoint);
+    if (bulkhead == null)
+      bulkhead = bulkheads.computeIfAbsent(endpoint, key -> new Semaphore(maximum));
+
+    if (!bulkhead.tryAcquire()) {
+      LOGGER.log(Level.FINE, "The bulkhead of " + endpoint + " is full");
+      metrics.recordBulkheadRejection(endpoint);
+
+      throw new SQLTransientConnectionException("The bulkhead of " + endpoint + " is full");
+    }
+
+    try {
+      return (Connection)
+          Proxy.newProxyInstance(
+              Bulkheads.class.getClassLoader(),
+              new Class<?>[] {Connection.class},
+              new ConnectionHandler(bulkhead, dataSource.getConnection()));
+    } catch (SQLException | RuntimeException e) {
+      bulkhead.release();
+      throw e;
+    }
+  }
+
+  private static final class ConnectionHandler implements InvocationHandler {
+    private final Semaphore bulkhead;
+    private final Connection connection;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private ConnectionHandler(Semaphore bulkhead, Connection connection) {
+      this.bulkhead = bulkhead;
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          try {
+            return invoke(method, args);
+          } finally {
+            if (released.compareAndSet(false, true)) bulkhead.release();
+          }
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Bulkhead " + connection;
+        default:
+          return invoke(method, args);
+      }
+    }
+
+    private Object invoke(Method method, Object... args) throws Throwable {
+      try {
+        return method.invoke(connection, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
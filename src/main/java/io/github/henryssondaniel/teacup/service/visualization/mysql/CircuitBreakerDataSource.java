@@ -0,0 +1,189 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Data source with a circuit breaker. While the breaker is closed, the connections are acquired
+ * from the data source, and the consecutive failures to acquire one are counted. When the failure
+ * threshold is reached, the breaker opens, and every connection is refused at once with a {@link
+ * SQLTransientConnectionException} until the open interval has passed. Then the breaker is half
+ * open: one request probes the data source while the others are still refused, and the breaker
+ * closes if the probe gets a connection and opens again if it does not.
+ *
+ * <p>A broken connection of the {@link ConnectionPool} is discarded and a new one is created for
+ * the next request, so an outage is seen as failures to acquire connections. The state of the
+ * breaker and the refused connections are recorded in the {@link Metrics}. A failure after the
+ * {@link Deadline} of the request has passed is not counted, since the request ran out of time
+ * rather than the data source failing, and neither is a timeout waiting for a connection of an
+ * exhausted pool, since that is load rather than an outage.
+ *
+ * @since 1.0
+ */
+final class CircuitBreakerDataSource implements AutoCloseable, DataSource {
+  private static final Logger LOGGER = Logger.getLogger(CircuitBreakerDataSource.class.getName());
+
+  private final DataSource dataSource;
+  private final AtomicInteger failures = new AtomicInteger(0);
+  private final int failureThreshold;
+  private final Metrics metrics;
+  private final long openInterval;
+  private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+  private volatile long openUntil;
+
+  CircuitBreakerDataSource(
+      DataSource dataSource, Metrics metrics, int failureThreshold, long openInterval) {
+    this.dataSource = dataSource;
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.metrics = metrics;
+    this.openInterval = TimeUnit.MILLISECONDS.toNanos(openInterval);
+
+    metrics.recordCircuit(State.CLOSED);
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (dataSource instanceof AutoCloseable) ((AutoCloseable) dataSource).close();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    var probe = acquire();
+
+    try {
+      var connection = dataSource.getConnection();
+      succeeded(probe);
+
+      return connection;
+    } catch (SQLException | RuntimeException e) {
+      if (probe || isFailure(e)) failed(probe);
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    var probe = acquire();
+
+    try {
+      var connection = dataSource.getConnection(username, password);
+      succeeded(probe);
+
+      return connection;
+    } catch (SQLException | RuntimeException e) {
+      if (probe || isFailure(e)) failed(probe);
+      throw e;
+    }
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || iface.isInstance(dataSource) || dataSource.isWrapperFor(iface);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) return iface.cast(this);
+    return iface.isInstance(dataSource) ? iface.cast(dataSource) : dataSource.unwrap(iface);
+  }
+
+  State getState() {
+    return state.get();
+  }
+
+  private boolean acquire() throws SQLTransientConnectionException {
+    var current = state.get();
+    if (current == State.CLOSED) return false;
+
+    if (current == State.OPEN
+        && System.nanoTime() - openUntil >= 0L
+        && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+      LOGGER.log(Level.INFO, "Probe the data source");
+      metrics.recordCircuit(State.HALF_OPEN);
+
+      return true;
+    }
+
+    metrics.recordCircuitRejection();
+    throw new SQLTransientConnectionException("The circuit breaker is open", "08001");
+  }
+
+  private void failed(boolean probe) {
+    if (probe || failures.incrementAndGet() >= failureThreshold) {
+      openUntil = System.nanoTime() + openInterval;
+
+      if (state.compareAndSet(probe ? State.HALF_OPEN : State.CLOSED, State.OPEN)) {
+        LOGGER.log(Level.WARNING, "The circuit breaker is open");
+        metrics.recordCircuit(State.OPEN);
+      }
+    }
+  }
+
+  private static boolean isFailure(Exception e) {
+    return !(e instanceof ConnectionPool.WaitException) && !Deadline.hasExpired();
+  }
+
+  private void succeeded(boolean probe) {
+    failures.set(0);
+
+    if (probe && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+      LOGGER.log(Level.INFO, "The circuit breaker is closed");
+      metrics.recordCircuit(State.CLOSED);
+    }
+  }
+
+  /**
+   * State of the circuit breaker.
+   *
+   * @since 1.0
+   */
+  enum State {
+    CLOSED("closed"),
+    HALF_OPEN("half_open"),
+    OPEN("open");
+
+    private final String label;
+
+    State(String label) {
+      this.label = label;
+    }
+
+    String getLabel() {
+      return label;
+    }
+  }
+}
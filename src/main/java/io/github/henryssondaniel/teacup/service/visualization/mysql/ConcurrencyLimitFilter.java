@@ -0,0 +1,87 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Sheds the {@link ConcurrencyLimited} requests over the limit of the {@link ConcurrencyLimiter}
+ * with 503 and Retry-After, before any work is done. A request holds its place from when it is
+ * matched until its response is filtered, so the latency of an asynchronous request includes the
+ * time it waits for hashing. The endpoint is named like in the {@link MetricsFilter}.
+ *
+ * <p>A response with a server error shrinks the limit, and a response with 429 from the rate
+ * limiter gives no sample of the latency, since no work was done.
+ *
+ * @since 1.0
+ */
+@ConcurrencyLimited
+@Priority(FilterPriorities.CONCURRENCY_LIMIT)
+@Provider
+public final class ConcurrencyLimitFilter
+    implements ContainerRequestFilter, ContainerResponseFilter {
+  private static final Logger LOGGER = Logger.getLogger(ConcurrencyLimitFilter.class.getName());
+  private static final int RETRY_AFTER = 1;
+  private static final String START = ConcurrencyLimitFilter.class.getName() + ".start";
+
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final Metrics metrics;
+
+  /**
+   * Constructor.
+   *
+   * @param concurrencyLimiter the concurrency limiter
+   * @param metrics the metrics
+   * @since 1.0
+   */
+  public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter, Metrics metrics) {
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext containerRequestContext) {
+    var endpoint = MetricsFilter.getEndpoint(containerRequestContext);
+
+    if (concurrencyLimiter.tryAcquire(endpoint))
+      containerRequestContext.setProperty(START, System.nanoTime());
+    else {
+      LOGGER.log(Level.FINE, "Shed " + endpoint);
+      metrics.recordShed(endpoint);
+
+      containerRequestContext.abortWith(
+          Response.status(Status.SERVICE_UNAVAILABLE)
+              .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER)
+              .build());
+    }
+  }
+
+  @Override
+  public void filter(
+      ContainerRequestContext containerRequestContext,
+      ContainerResponseContext containerResponseContext) {
+    var start = containerRequestContext.getProperty(START);
+
+    if (start != null) {
+      containerRequestContext.removeProperty(START);
+
+      var endpoint = MetricsFilter.getEndpoint(containerRequestContext);
+      var status = containerResponseContext.getStatus();
+
+      if (status == Status.TOO_MANY_REQUESTS.getStatusCode()) concurrencyLimiter.release(endpoint);
+      else
+        concurrencyLimiter.release(
+            endpoint,
+            System.nanoTime() - (long) start,
+            status >= Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import javax.ws.rs.NameBinding;
+
+/**
+ * Binds the {@link ConcurrencyLimitFilter} to the annotated resources and resource methods.
+ *
+ * @since 1.0
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ConcurrencyLimited {}
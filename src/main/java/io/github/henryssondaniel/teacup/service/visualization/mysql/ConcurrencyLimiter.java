@@ -0,0 +1,159 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Adaptive concurrency limiter by endpoint. Each endpoint has its own limit of requests in flight,
+ * so a flood of one endpoint cannot take the threads and the connections of the others.
+ *
+ * <p>The limit follows the gradient of the latency: a short and a long moving average of the
+ * latency are kept, and while the short one stays below twice the long one the limit grows by about
+ * the square root of itself. When the latency rises above that, the limit is first scaled down by
+ * the ratio of the averages, to half of it at most, and a failed request shrinks it by a tenth. The
+ * limit does not grow while less than half of it is used. The long average follows a lasting change
+ * of the latency slowly, so the limit recovers after a slow period.
+ *
+ * @since 1.0
+ */
+public final class ConcurrencyLimiter {
+  private static final double BACKOFF = 0.9;
+  private static final Logger LOGGER = Logger.getLogger(ConcurrencyLimiter.class.getName());
+  private static final double LONG_WINDOW = 100.0;
+  private static final double MINIMUM_GRADIENT = 0.5;
+  private static final double RECOVERY = 0.95;
+  private static final double SHORT_WINDOW = 10.0;
+  private static final double SMOOTHING = 0.2;
+  private static final double TOLERANCE = 2.0;
+
+  private final int initialLimit;
+  private final Map<String, Limit> limits = new ConcurrentHashMap<>(16);
+  private final int maximumLimit;
+  private final Metrics metrics;
+  private final int minimumLimit;
+
+  /**
+   * Constructor.
+   *
+   * @param initialLimit the limit of each endpoint before any request is done
+   * @param minimumLimit the lowest limit
+   * @param maximumLimit the highest limit
+   * @param metrics the metrics
+   * @since 1.0
+   */
+  public ConcurrencyLimiter(int initialLimit, int minimumLimit, int maximumLimit, Metrics metrics) {
+    this.minimumLimit = Math.max(1, minimumLimit);
+    this.maximumLimit = Math.max(this.minimumLimit, maximumLimit);
+    this.initialLimit = Math.min(this.maximumLimit, Math.max(this.minimumLimit, initialLimit));
+    this.metrics = metrics;
+  }
+
+  /**
+   * Releases a request without a sample of the latency, like when it was rejected before any work.
+   *
+   * @param endpoint the endpoint
+   * @since 1.0
+   */
+  public void release(String endpoint) {
+    getLimit(endpoint).inFlight.decrementAndGet();
+  }
+
+  /**
+   * Releases a request and updates the limit of the endpoint from the latency of it.
+   *
+   * @param endpoint the endpoint
+   * @param nanos the latency in nanoseconds
+   * @param failed whether the request failed, like with a server error
+   * @since 1.0
+   */
+  public void release(String endpoint, long nanos, boolean failed) {
+    var limit = getLimit(endpoint);
+    var inFlight = limit.inFlight.getAndDecrement();
+
+    if (limit.update(nanos, failed, inFlight)) {
+      var next = limit.limit;
+      LOGGER.log(Level.FINE, String.format("Limit %s to %d", endpoint, next));
+
+      metrics.recordLimit(endpoint, next);
+    }
+  }
+
+  /**
+   * Acquires a request of the endpoint, unless the limit of it is reached.
+   *
+   * @param endpoint the endpoint
+   * @return false if the limit is reached
+   * @since 1.0
+   */
+  public boolean tryAcquire(String endpoint) {
+    var limit = getLimit(endpoint);
+
+    while (true) {
+      var inFlight = limit.inFlight.get();
+      if (inFlight >= limit.limit) return false;
+      if (limit.inFlight.compareAndSet(inFlight, inFlight + 1)) return true;
+    }
+  }
+
+  private Limit getLimit(String endpoint) {
+    var limit = limits.get(endpoint);
+    if (limit == null)
+      limit =
+          limits.computeIfAbsent(
+              endpoint,
+              key -> {
+                metrics.recordLimit(key, initialLimit);
+                return new Limit(initialLimit);
+              });
+
+    return limit;
+  }
+
+  private final class Limit {
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    private double estimate;
+    private volatile int limit;
+    private double longLatency;
+    private double shortLatency;
+
+    private Limit(int limit) {
+      estimate = limit;
+      this.limit = limit;
+    }
+
+    private synchronized boolean update(long nanos, boolean failed, int inFlight) {
+      if (failed) estimate = Math.max(minimumLimit, estimate * BACKOFF);
+      else {
+        var latency = (double) Math.max(1L, nanos);
+
+        if (longLatency == 0.0) {
+          longLatency = latency;
+          shortLatency = latency;
+        }
+
+        shortLatency += (latency - shortLatency) / SHORT_WINDOW;
+        longLatency += (latency - longLatency) / LONG_WINDOW;
+        if (longLatency > TOLERANCE * shortLatency) longLatency *= RECOVERY;
+
+        var gradient =
+            Math.max(MINIMUM_GRADIENT, Math.min(1.0, TOLERANCE * longLatency / shortLatency));
+        var next = estimate * gradient + Math.sqrt(estimate);
+
+        if (next < estimate || inFlight >= estimate / 2.0)
+          estimate =
+              Math.max(
+                  minimumLimit,
+                  Math.min(maximumLimit, estimate * (1.0 - SMOOTHING) + next * SMOOTHING));
+      }
+
+      var previous = limit;
+      limit = (int) estimate;
+
+      return limit != previous;
+    }
+  }
+}
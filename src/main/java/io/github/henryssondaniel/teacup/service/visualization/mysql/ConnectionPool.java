@@ -0,0 +1,370 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Bounded connection pool. Physical connections are created on demand up to the maximum size,
+ * handed out as proxies that return to the pool when closed, validated on borrow when they have
+ * been idle for a while, and evicted by a background task when idle for too long, but never below
+ * the minimum size. A request does not wait for a connection past its {@link Deadline}.
+ *
+ * <p>A request that waits for a connection wakes up every few milliseconds to try to create one,
+ * since a connection that is discarded or could not be created frees a slot without returning
+ * anything to the idle connections that the request waits on. A request that gives up waiting gets
+ * a {@link WaitException}, which tells an exhausted pool apart from a failing data source.
+ *
+ * @since 1.0
+ */
+final class ConnectionPool implements AutoCloseable, DataSource {
+  private static final String CLOSED = "The connection pool is closed";
+  private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+  private static final int VALIDATION_TIMEOUT = 5;
+  private static final long WAIT_SLICE = TimeUnit.MILLISECONDS.toNanos(10L);
+
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final DataSource dataSource;
+  private final long idleTimeout;
+  private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+  private final int maximum;
+  private final int minimum;
+  private final ScheduledExecutorService scheduledExecutorService =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            var thread = new Thread(runnable, "teacup-mysql-pool");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final AtomicInteger size = new AtomicInteger(0);
+  private final AtomicBoolean started = new AtomicBoolean(false);
+  private final long validationInterval;
+  private final long waitTimeout;
+
+  ConnectionPool(
+      DataSource dataSource,
+      int minimum,
+      int maximum,
+      long idleTimeout,
+      long waitTimeout,
+      long validationInterval) {
+    if (minimum < 0 || maximum < 1 || minimum > maximum)
+      throw new IllegalArgumentException(
+          String.format("Invalid pool size, minimum: %d, maximum: %d", minimum, maximum));
+
+    this.dataSource = dataSource;
+    this.idleTimeout = idleTimeout;
+    this.maximum = maximum;
+    this.minimum = minimum;
+    this.validationInterval = validationInterval;
+    this.waitTimeout = waitTimeout;
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      LOGGER.log(Level.FINE, "Close connection pool");
+
+      scheduledExecutorService.shutdownNow();
+
+      PooledConnection pooledConnection;
+      while ((pooledConnection = idle.pollFirst()) != null) discard(pooledConnection);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Deadline.check();
+    return getConnection(Deadline.getTimeout(waitTimeout));
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLFeatureNotSupportedException("The pool only serves the configured user");
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || iface.isInstance(dataSource) || dataSource.isWrapperFor(iface);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) return iface.cast(this);
+    return iface.isInstance(dataSource) ? iface.cast(dataSource) : dataSource.unwrap(iface);
+  }
+
+  int getIdle() {
+    return idle.size();
+  }
+
+  int getSize() {
+    return size.get();
+  }
+
+  Connection getConnection(long timeout) throws SQLException {
+    LOGGER.log(Level.FINEST, "Get connection");
+
+    if (closed.get()) throw new SQLException(CLOSED);
+    if (started.compareAndSet(false, true)) start();
+
+    var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+    while (true) {
+      var pooledConnection = idle.pollFirst();
+
+      if (pooledConnection == null && reserve()) pooledConnection = create();
+      if (pooledConnection == null) pooledConnection = waitForConnection(deadline);
+
+      if (pooledConnection != null) {
+        if (isValid(pooledConnection))
+          return (Connection)
+              Proxy.newProxyInstance(
+                  ConnectionPool.class.getClassLoader(),
+                  new Class<?>[] {Connection.class},
+                  new ConnectionHandler(pooledConnection));
+
+        discard(pooledConnection);
+      }
+    }
+  }
+
+  void maintain() {
+    LOGGER.log(Level.FINEST, "Maintain connection pool");
+
+    var now = System.nanoTime();
+
+    for (var pooledConnection : idle)
+      if (now - pooledConnection.lastUsed > TimeUnit.MILLISECONDS.toNanos(idleTimeout)
+          && idle.remove(pooledConnection)) {
+        if (shrink()) close(pooledConnection);
+        else idle.offerLast(pooledConnection);
+      }
+
+    try {
+      while (!closed.get() && size.get() < minimum && reserve()) idle.offerLast(create());
+    } catch (SQLException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not fill the connection pool to its minimum size", e);
+    }
+  }
+
+  private static void close(PooledConnection pooledConnection) {
+    try {
+      pooledConnection.connection.close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.FINE, "Could not close the connection", e);
+    }
+  }
+
+  private PooledConnection create() throws SQLException {
+    LOGGER.log(Level.FINER, "Create connection");
+
+    try {
+      return new PooledConnection(dataSource.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      size.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void discard(PooledConnection pooledConnection) {
+    LOGGER.log(Level.FINER, "Discard connection");
+
+    size.decrementAndGet();
+    close(pooledConnection);
+  }
+
+  private boolean isValid(PooledConnection pooledConnection) {
+    try {
+      return System.nanoTime() - pooledConnection.lastUsed
+              < TimeUnit.MILLISECONDS.toNanos(validationInterval)
+          || pooledConnection.connection.isValid(VALIDATION_TIMEOUT);
+    } catch (SQLException e) {
+      LOGGER.log(Level.FINE, "Could not validate the connection", e);
+      return false;
+    }
+  }
+
+  private void release(PooledConnection pooledConnection, boolean broken) {
+    LOGGER.log(Level.FINEST, "Release connection");
+
+    var reusable = !broken && !closed.get() && reset(pooledConnection.connection);
+
+    if (reusable) {
+      pooledConnection.lastUsed = System.nanoTime();
+      idle.offerFirst(pooledConnection);
+
+      if (closed.get() && idle.remove(pooledConnection)) discard(pooledConnection);
+    } else discard(pooledConnection);
+  }
+
+  private boolean reserve() {
+    int current;
+
+    do {
+      current = size.get();
+      if (current >= maximum) return false;
+    } while (!size.compareAndSet(current, current + 1));
+
+    return true;
+  }
+
+  private static boolean reset(Connection connection) {
+    try {
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+
+      return true;
+    } catch (SQLException e) {
+      LOGGER.log(Level.FINE, "Could not reset the connection", e);
+      return false;
+    }
+  }
+
+  private boolean shrink() {
+    int current;
+
+    do {
+      current = size.get();
+      if (current <= minimum) return false;
+    } while (!size.compareAndSet(current, current - 1));
+
+    return true;
+  }
+
+  private void start() {
+    var period = Math.max(1L, Math.min(idleTimeout, 30_000L));
+    scheduledExecutorService.scheduleAtFixedRate(this::maintain, 0L, period, TimeUnit.MILLISECONDS);
+  }
+
+  private PooledConnection waitForConnection(long deadline) throws SQLException {
+    if (closed.get()) throw new SQLException(CLOSED);
+
+    var remaining = deadline - System.nanoTime();
+    if (remaining <= 0L)
+      throw new WaitException(
+          String.format(
+              "Timed out waiting for a connection, size: %d, maximum: %d", size.get(), maximum));
+
+    try {
+      return idle.pollFirst(Math.min(remaining, WAIT_SLICE), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WaitException("Interrupted while waiting for a connection", e);
+    }
+  }
+
+  private final class ConnectionHandler implements InvocationHandler {
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    private final PooledConnection pooledConnection;
+    private boolean broken;
+
+    private ConnectionHandler(PooledConnection pooledConnection) {
+      this.pooledConnection = pooledConnection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (released.compareAndSet(false, true)) release(pooledConnection, broken);
+          return null;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "isClosed":
+          return released.get();
+        case "toString":
+          return "Pooled " + pooledConnection.connection;
+        default:
+          if (released.get()) throw new SQLException("The connection is closed");
+          return invokeConnection(method, args);
+      }
+    }
+
+    private Object invokeConnection(Method method, Object... args) throws Throwable {
+      try {
+        return method.invoke(pooledConnection.connection, args);
+      } catch (InvocationTargetException e) {
+        var cause = e.getCause();
+
+        if (cause instanceof SQLException) {
+          var sqlState = ((SQLException) cause).getSQLState();
+          if (sqlState != null && sqlState.startsWith("08")) broken = true;
+        }
+
+        throw cause;
+      }
+    }
+  }
+
+  private static final class PooledConnection {
+    private final Connection connection;
+    private volatile long lastUsed = System.nanoTime();
+
+    private PooledConnection(Connection connection) {
+      this.connection = connection;
+    }
+  }
+
+  /**
+   * Thrown when a request gives up waiting for a connection of an exhausted pool.
+   *
+   * @since 1.0
+   */
+  static final class WaitException extends SQLTransientConnectionException {
+    private static final long serialVersionUID = 1L;
+
+    private WaitException(String reason) {
+      super(reason);
+    }
+
+    private WaitException(String reason, Throwable cause) {
+      super(reason, cause);
+    }
+  }
+}
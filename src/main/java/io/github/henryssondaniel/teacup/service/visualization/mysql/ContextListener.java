@@ -0,0 +1,42 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Context listener. Closes the resources shared by the REST application, like the connection pool,
+ * when the application is undeployed.
+ *
+ * @since 1.0
+ */
+@WebListener
+public class ContextListener implements ServletContextListener {
+  private static final Deque<AutoCloseable> CLOSEABLES = new ConcurrentLinkedDeque<>();
+  private static final Logger LOGGER = Logger.getLogger(ContextListener.class.getName());
+
+  @Override
+  public void contextDestroyed(ServletContextEvent servletContextEvent) {
+    LOGGER.log(Level.FINE, "Context destroyed");
+    close();
+  }
+
+  static void close() {
+    AutoCloseable closeable;
+
+    while ((closeable = CLOSEABLES.pollFirst()) != null)
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        LOGGER.log(Level.SEVERE, "Could not close " + closeable, e);
+      }
+  }
+
+  static void register(AutoCloseable closeable) {
+    CLOSEABLES.addFirst(closeable);
+  }
+}
@@ -0,0 +1,96 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of a request. The {@link DeadlineFilter} starts a deadline for each {@link TimeLimited}
+ * request, and the deadline is the current deadline of the threads that work on the request, like
+ * the {@link RequestTrace}: the request thread, the hashing thread that the password hashing runs
+ * on, and the writer thread that the writes after it run on.
+ *
+ * <p>The deadline is cleared when the response is filtered and when the work of a hashing or a
+ * writer thread is done, so a pooled thread does not keep the deadline of a request that has ended.
+ *
+ * <p>The {@link ConnectionPool} does not wait for a connection past the current deadline, and the
+ * {@link InstrumentedDataSource} gives each statement the remaining time as its query timeout. Once
+ * the deadline has passed, the work is abandoned with a {@link SQLTimeoutException}.
+ *
+ * @since 1.0
+ */
+final class Deadline {
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+  private static final String EXPIRED = "The deadline of the request has passed";
+
+  private final long end;
+
+  private Deadline(long end) {
+    this.end = end;
+  }
+
+  static void check() throws SQLTimeoutException {
+    var deadline = CURRENT.get();
+    if (deadline != null && deadline.isExpired()) throw new SQLTimeoutException(EXPIRED);
+  }
+
+  static void clear() {
+    CURRENT.remove();
+  }
+
+  static Deadline current() {
+    return CURRENT.get();
+  }
+
+  static long getTimeout(long timeout) {
+    var deadline = CURRENT.get();
+    if (deadline == null) return timeout;
+
+    var millisecond = TimeUnit.MILLISECONDS.toNanos(1L);
+    var remaining = deadline.getRemaining();
+
+    return remaining > 0L ? Math.min(timeout, (remaining + millisecond - 1L) / millisecond) : 0L;
+  }
+
+  static boolean hasExpired() {
+    var deadline = CURRENT.get();
+    return deadline != null && deadline.isExpired();
+  }
+
+  static void setCurrent(Deadline deadline) {
+    if (deadline == null) clear();
+    else CURRENT.set(deadline);
+  }
+
+  static void setQueryTimeout(Statement statement) throws SQLException {
+    var deadline = CURRENT.get();
+
+    if (deadline != null) {
+      var remaining = deadline.getRemaining();
+      if (remaining <= 0L) throw new SQLTimeoutException(EXPIRED);
+
+      var second = TimeUnit.SECONDS.toNanos(1L);
+      statement.setQueryTimeout(
+          (int) Math.min(Integer.MAX_VALUE, (remaining + second - 1L) / second));
+    }
+  }
+
+  static Deadline start(long budget) {
+    var deadline =
+        budget > 0L
+            ? new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget))
+            : null;
+    setCurrent(deadline);
+
+    return deadline;
+  }
+
+  long getRemaining() {
+    return end - System.nanoTime();
+  }
+
+  boolean isExpired() {
+    return getRemaining() <= 0L;
+  }
+}
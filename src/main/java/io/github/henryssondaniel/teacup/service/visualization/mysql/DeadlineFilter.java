@@ -0,0 +1,77 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Starts a deadline for each {@link TimeLimited} request. The budget of an endpoint is the
+ * visualization.mysql.deadline.&lt;endpoint&gt; property in milliseconds, or the default budget,
+ * and 0 means no deadline. The endpoint is named like in the {@link MetricsFilter}.
+ *
+ * <p>The other requests clear the deadline of the request thread, so work that is not time limited,
+ * like an import, does not run into the deadline of an earlier request of the same thread. The
+ * deadline is also cleared when the response is filtered, so the thread does not keep it once the
+ * request has ended.
+ *
+ * @since 1.0
+ */
+@Priority(FilterPriorities.DEADLINE)
+@Provider
+public final class DeadlineFilter implements ContainerRequestFilter, ContainerResponseFilter {
+  private static final Logger LOGGER = Logger.getLogger(DeadlineFilter.class.getName());
+
+  private final long budget;
+  private final Map<String, Long> budgets = new ConcurrentHashMap<>(16);
+
+  @Context private ResourceInfo resourceInfo;
+
+  /**
+   * Constructor.
+   *
+   * @param budget the default budget of each endpoint in milliseconds
+   * @since 1.0
+   */
+  public DeadlineFilter(long budget) {
+    this(budget, null);
+  }
+
+  DeadlineFilter(long budget, ResourceInfo resourceInfo) {
+    this.budget = budget;
+    this.resourceInfo = resourceInfo;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext containerRequestContext) {
+    if (isTimeLimited()) {
+      var endpoint = MetricsFilter.getEndpoint(containerRequestContext);
+
+      LOGGER.log(Level.FINEST, "Deadline " + endpoint);
+      Deadline.start(
+          budgets.computeIfAbsent(endpoint, key -> Utils.getLong("deadline." + key, budget)));
+    } else Deadline.clear();
+  }
+
+  @Override
+  public void filter(
+      ContainerRequestContext containerRequestContext,
+      ContainerResponseContext containerResponseContext) {
+    Deadline.clear();
+  }
+
+  private boolean isTimeLimited() {
+    var method = resourceInfo.getResourceMethod();
+    return method != null
+        && (method.isAnnotationPresent(TimeLimited.class)
+            || method.getDeclaringClass().isAnnotationPresent(TimeLimited.class));
+  }
+}
@@ -0,0 +1,341 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Bloom filter of the emails of the accounts. An email that the filter does not contain has no
+ * account, so the requests for it can be answered without the database. An email that the filter
+ * contains might have an account, with the configured false positive rate.
+ *
+ * <p>The filter is built in the background by a streaming scan of the account table, and every
+ * email is added while it is built, so the sign ups during the scan are not lost. Until the first
+ * scan is done, the filter contains every email. The filter is scalable: when the expected number
+ * of emails is reached, another slice with twice the capacity and half the false positive rate is
+ * added, so the false positive rate of the whole filter stays below the configured one. Each email
+ * takes about 1.2 bytes at a false positive rate of 1 %.
+ *
+ * <p>The accounts that other instances sign up are added by polling the account table for the ids
+ * after the highest id seen, with the poll interval. The last ids are read again, since an account
+ * may be committed after another one with a higher id. A negative is only trusted while the last
+ * poll started within the maximum age, so an instance that cannot poll does not reject the accounts
+ * of the other instances.
+ *
+ * <p>The emails are lower cased for the filter, which matches the case insensitive collation of the
+ * email column for ASCII. The collation is also accent insensitive, so an email that is not ASCII
+ * might match an account with another spelling, and the filter is not asked for it.
+ *
+ * @since 1.0
+ */
+public final class EmailFilter implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(EmailFilter.class.getName());
+  private static final int LOOKBACK = 100;
+  private static final String SELECT =
+      "SELECT id, email FROM `teacup_visualization`.`account` WHERE id > ? ORDER BY id";
+  private static final long RETRY = 10_000L;
+  private static final long TERMINATION_TIMEOUT = 30L;
+
+  private final int capacity;
+  private final DataSource dataSource;
+  private final double falsePositiveRate;
+  private final CompletableFuture<Void> first = new CompletableFuture<>();
+  private final long maximumAge;
+  private final long pollInterval;
+  private final ScheduledExecutorService scheduledExecutorService =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            var thread = new Thread(runnable, "teacup-mysql-email-filter");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private volatile Filter building;
+  private volatile Filter filter;
+  private int lastId;
+  private volatile long polled;
+
+  /**
+   * Constructor.
+   *
+   * @param dataSource the data source
+   * @param capacity the expected number of emails
+   * @param falsePositiveRate the false positive rate, like 0.01
+   * @param pollInterval the time between the polls in milliseconds, 0 for never
+   * @param maximumAge the age of the last poll in milliseconds after which a negative is not
+   *     trusted, 0 for no maximum age
+   * @since 1.0
+   */
+  public EmailFilter(
+      DataSource dataSource,
+      int capacity,
+      double falsePositiveRate,
+      long pollInterval,
+      long maximumAge) {
+    this.capacity = Math.max(1, capacity);
+    this.dataSource = dataSource;
+    this.falsePositiveRate = falsePositiveRate;
+    this.maximumAge = TimeUnit.MILLISECONDS.toNanos(maximumAge);
+    this.pollInterval = pollInterval;
+  }
+
+  /**
+   * Adds an email, like when the account is signed up.
+   *
+   * @param email the email
+   * @since 1.0
+   */
+  public void add(String email) {
+    var key = email.toLowerCase(Locale.ROOT);
+
+    var next = building;
+    if (next != null) next.add(key);
+
+    var current = filter;
+    if (current != null && current != next) current.add(key);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    LOGGER.log(Level.FINE, "Close");
+
+    scheduledExecutorService.shutdownNow();
+
+    if (!scheduledExecutorService.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS))
+      LOGGER.log(Level.WARNING, "The email filter was not built in time");
+  }
+
+  /**
+   * Returns whether the email might have an account. Returns true until the filter is built, while
+   * the last poll is older than the maximum age, and for an email that is not ASCII.
+   *
+   * @param email the email
+   * @return false if the email has no account
+   * @since 1.0
+   */
+  public boolean mightContain(String email) {
+    var current = filter;
+    return current == null
+        || isStale()
+        || !isAscii(email)
+        || current.mightContain(email.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Starts to build the filter in the background.
+   *
+   * @return the stage that completes when the filter is built the first time
+   * @since 1.0
+   */
+  public CompletionStage<Void> start() {
+    schedule(this::build, 0L);
+    return first;
+  }
+
+  private void build() {
+    var next = new Filter(capacity, falsePositiveRate);
+    building = next;
+
+    try {
+      var start = System.nanoTime();
+      lastId = read(next, 0);
+      polled = start;
+      filter = next;
+      first.complete(null);
+
+      LOGGER.log(
+          Level.FINE,
+          String.format(
+              "Built the email filter of %d emails in %d bytes", next.getCount(), next.getBytes()));
+
+      if (pollInterval > 0L) schedule(this::poll, pollInterval);
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not build the email filter", e);
+      schedule(this::build, pollInterval > 0L ? Math.min(pollInterval, RETRY) : RETRY);
+    } finally {
+      building = null;
+    }
+  }
+
+  private static boolean isAscii(CharSequence email) {
+    for (var index = 0; index < email.length(); index++)
+      if (email.charAt(index) > 0x7F) return false;
+
+    return true;
+  }
+
+  private boolean isStale() {
+    return maximumAge > 0L && System.nanoTime() - polled > maximumAge;
+  }
+
+  private void poll() {
+    try {
+      var start = System.nanoTime();
+      lastId = Math.max(lastId, read(filter, Math.max(0, lastId - LOOKBACK)));
+      polled = start;
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not poll the accounts", e);
+    }
+
+    schedule(this::poll, pollInterval);
+  }
+
+  private int read(Filter next, int after) throws SQLException {
+    var id = after;
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                SELECT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+      preparedStatement.setFetchSize(Integer.MIN_VALUE);
+      preparedStatement.setInt(1, after);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          id = Math.max(id, resultSet.getInt(1));
+
+          var email = resultSet.getString(2);
+          if (email != null) next.add(email.toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+
+    return id;
+  }
+
+  private void schedule(Runnable runnable, long delay) {
+    try {
+      scheduledExecutorService.schedule(runnable, delay, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      LOGGER.log(Level.FINE, "The email filter is closed", e);
+    }
+  }
+
+  private static final class Filter {
+    private final double falsePositiveRate;
+
+    private volatile Slice[] slices;
+
+    private Filter(int capacity, double falsePositiveRate) {
+      this.falsePositiveRate = falsePositiveRate;
+      slices = new Slice[] {new Slice(capacity, falsePositiveRate / 2.0)};
+    }
+
+    private void add(String key) {
+      var hash = hash(key);
+      if (mightContain(hash)) return;
+
+      var current = slices;
+      var slice = current[current.length - 1];
+      slice.add(hash);
+
+      if (slice.count.incrementAndGet() == slice.capacity) grow(current);
+    }
+
+    private long getBytes() {
+      return Arrays.stream(slices).mapToLong(slice -> slice.bits.length() * 8L).sum();
+    }
+
+    private long getCount() {
+      return Arrays.stream(slices).mapToLong(slice -> slice.count.get()).sum();
+    }
+
+    private synchronized void grow(Slice[] current) {
+      if (slices == current) {
+        var last = current[current.length - 1];
+        var next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] =
+            new Slice(last.capacity * 2, falsePositiveRate / Math.pow(2.0, current.length + 1.0));
+        slices = next;
+      }
+    }
+
+    private static long hash(String key) {
+      var hash = 0xcbf29ce484222325L;
+
+      for (var index = 0; index < key.length(); index++) {
+        hash ^= key.charAt(index);
+        hash *= 0x100000001b3L;
+      }
+
+      return hash;
+    }
+
+    private boolean mightContain(long hash) {
+      for (var slice : slices) if (slice.mightContain(hash)) return true;
+      return false;
+    }
+
+    private boolean mightContain(String key) {
+      return mightContain(hash(key));
+    }
+  }
+
+  private static final class Slice {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger(0);
+    private final int hashes;
+
+    private Slice(int capacity, double falsePositiveRate) {
+      var size =
+          Math.max(
+              64L,
+              (long)
+                  Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+
+      bits = new AtomicLongArray((int) ((size + 63L) / 64L));
+      bitCount = bits.length() * 64L;
+      this.capacity = capacity;
+      hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+    }
+
+    private void add(long hash) {
+      var first = mix(hash);
+      var second = mix(first) | 1L;
+
+      for (var index = 0; index < hashes; index++) {
+        var bit = Math.floorMod(first + index * second, bitCount);
+        var word = (int) (bit >>> 6);
+        var mask = 1L << bit;
+
+        long value;
+        do {
+          value = bits.get(word);
+          if ((value & mask) != 0L) break;
+        } while (!bits.compareAndSet(word, value, value | mask));
+      }
+    }
+
+    private boolean mightContain(long hash) {
+      var first = mix(hash);
+      var second = mix(first) | 1L;
+
+      for (var index = 0; index < hashes; index++) {
+        var bit = Math.floorMod(first + index * second, bitCount);
+        if ((bits.get((int) (bit >>> 6)) & 1L << bit) == 0L) return false;
+      }
+
+      return true;
+    }
+
+    private static long mix(long value) {
+      var mixed = (value ^ value >>> 30) * 0xbf58476d1ce4e5b9L;
+      mixed = (mixed ^ mixed >>> 27) * 0x94d049bb133111ebL;
+      return mixed ^ mixed >>> 31;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Starts a {@link RequestTrace} for each request while a flight recording is active, and records
+ * the parse and the response phases of it. The trace ends when the response is written, or when the
+ * response is filtered if it has no entity. The trace is removed from the thread when the response
+ * is filtered, since the response is written with the trace of the request context rather than the
+ * one of the thread. The endpoint is named like in the {@link MetricsFilter}.
+ *
+ * @since 1.0
+ */
+@Priority(FilterPriorities.TRACE)
+@Provider
+public final class EventFilter
+    implements ContainerRequestFilter,
+        ContainerResponseFilter,
+        ReaderInterceptor,
+        WriterInterceptor {
+  private static final Logger LOGGER = Logger.getLogger(EventFilter.class.getName());
+  private static final String PARSE = "parse";
+  private static final String RESPONSE = "response";
+  private static final String TRACE = EventFilter.class.getName() + ".trace";
+
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext readerInterceptorContext)
+      throws IOException {
+    var requestTrace = (RequestTrace) readerInterceptorContext.getProperty(TRACE);
+    if (requestTrace == null) return readerInterceptorContext.proceed();
+
+    var phaseEvent = requestTrace.begin();
+
+    try {
+      return readerInterceptorContext.proceed();
+    } finally {
+      requestTrace.commit(phaseEvent, PARSE, null);
+    }
+  }
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext writerInterceptorContext) throws IOException {
+    var requestTrace = (RequestTrace) writerInterceptorContext.getProperty(TRACE);
+
+    if (requestTrace == null) writerInterceptorContext.proceed();
+    else {
+      var phaseEvent = requestTrace.begin();
+
+      try {
+        writerInterceptorContext.proceed();
+      } finally {
+        requestTrace.commit(phaseEvent, RESPONSE, null);
+        requestTrace.end();
+      }
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext containerRequestContext) {
+    var requestTrace = RequestTrace.start(MetricsFilter.getEndpoint(containerRequestContext));
+
+    if (requestTrace != null) {
+      LOGGER.log(Level.FINEST, "Trace");
+      containerRequestContext.setProperty(TRACE, requestTrace);
+    }
+  }
+
+  @Override
+  public void filter(
+      ContainerRequestContext containerRequestContext,
+      ContainerResponseContext containerResponseContext) {
+    var requestTrace = (RequestTrace) containerRequestContext.getProperty(TRACE);
+
+    if (requestTrace != null) {
+      requestTrace.setStatus(containerResponseContext.getStatus());
+      if (!containerResponseContext.hasEntity()) requestTrace.end();
+    }
+
+    RequestTrace.setCurrent(null);
+  }
+}
@@ -0,0 +1,50 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+/**
+ * Priorities of the request filters. The request filters run in the ascending order of their
+ * priorities and the response filters in the descending order, so the trace and the metrics see
+ * every request, including the ones that the rate limit or the concurrency limit reject, and the
+ * rate limit rejects a request before it takes a place in the concurrency limit. The deadline
+ * starts last, so its budget is not spent on a request that is rejected. All of them run before the
+ * authentication filters of {@link javax.ws.rs.Priorities}.
+ *
+ * @since 1.0
+ */
+public enum FilterPriorities {
+  ;
+
+  /**
+   * Priority of the {@link ConcurrencyLimitFilter}.
+   *
+   * @since 1.0
+   */
+  public static final int CONCURRENCY_LIMIT = 400;
+
+  /**
+   * Priority of the {@link DeadlineFilter}.
+   *
+   * @since 1.0
+   */
+  public static final int DEADLINE = 500;
+
+  /**
+   * Priority of the {@link MetricsFilter}.
+   *
+   * @since 1.0
+   */
+  public static final int METRICS = 200;
+
+  /**
+   * Priority of the rate limit filter.
+   *
+   * @since 1.0
+   */
+  public static final int RATE_LIMIT = 300;
+
+  /**
+   * Priority of the {@link EventFilter}.
+   *
+   * @since 1.0
+   */
+  public static final int TRACE = 100;
+}
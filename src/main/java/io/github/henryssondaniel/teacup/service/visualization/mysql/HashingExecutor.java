@@ -0,0 +1,231 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executor for password hashing. The BCrypt work is CPU bound, so it runs on a fixed number of
+ * threads with a bounded queue instead of on the request threads of the container. The queue depth
+ * is tracked per endpoint.
+ *
+ * <p>The database writes that follow the hashing run on their own writer threads, so a slow
+ * database holds the writer threads and not the hashing threads. The writer queue is not bounded,
+ * since each write follows a hashing task that the bounded queue has accepted.
+ *
+ * @since 1.0
+ */
+public final class HashingExecutor implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(HashingExecutor.class.getName());
+  private static final long TERMINATION_TIMEOUT = 30L;
+
+  private final Map<String, QueueDepth> queueDepths = new ConcurrentHashMap<>(8);
+  private final ThreadPoolExecutor threadPoolExecutor;
+  private final ThreadPoolExecutor writer;
+
+  /**
+   * Constructor.
+   *
+   * @param threads the number of threads
+   * @param capacity the maximum number of queued tasks
+   * @param writers the number of threads for the writes after the hashing
+   * @since 1.0
+   */
+  public HashingExecutor(int threads, int capacity, int writers) {
+    threadPoolExecutor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            createThreadFactory("teacup-mysql-hashing-"));
+    writer =
+        new ThreadPoolExecutor(
+            writers,
+            writers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            createThreadFactory("teacup-mysql-writer-"));
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    LOGGER.log(Level.FINE, "Close");
+
+    threadPoolExecutor.shutdown();
+
+    if (!threadPoolExecutor.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS))
+      LOGGER.log(Level.WARNING, "Hashing tasks did not finish in time");
+
+    writer.shutdown();
+
+    if (!writer.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS))
+      LOGGER.log(Level.WARNING, "Writes did not finish in time");
+  }
+
+  /**
+   * Returns the queue depth of each endpoint that has submitted tasks.
+   *
+   * @return the queue depths
+   * @since 1.0
+   */
+  public Map<String, QueueDepth> getQueueDepths() {
+    return Collections.unmodifiableMap(queueDepths);
+  }
+
+  /**
+   * Supplies the value asynchronously. The returned stage completes exceptionally with a {@link
+   * RejectedExecutionException} if the queue is full, or if the deadline of the request has passed
+   * before the task starts. The task runs with the deadline of the request, and the deadline is
+   * cleared from the hashing thread when the task is done.
+   *
+   * @param endpoint the endpoint the task belongs to
+   * @param supplier the supplier
+   * @param <T> the value type
+   * @return the completion stage
+   * @since 1.0
+   */
+  public <T> CompletionStage<T> supply(String endpoint, Supplier<T> supplier) {
+    var deadline = Deadline.current();
+    var queueDepth = queueDepths.computeIfAbsent(endpoint, key -> new QueueDepth());
+    queueDepth.increment();
+
+    try {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            queueDepth.decrement();
+            Deadline.setCurrent(deadline);
+
+            try {
+              if (deadline != null && deadline.isExpired()) {
+                LOGGER.log(Level.FINE, "The deadline has passed, abandoning " + endpoint);
+                throw new RejectedExecutionException("The deadline of the request has passed");
+              }
+
+              return supplier.get();
+            } finally {
+              Deadline.clear();
+            }
+          },
+          threadPoolExecutor);
+    } catch (RejectedExecutionException e) {
+      LOGGER.log(Level.WARNING, "The hashing queue is full, rejecting " + endpoint);
+
+      queueDepth.decrement();
+      queueDepth.rejected.incrementAndGet();
+
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Supplies the value asynchronously like {@link #supply(String, Supplier)}, and applies the
+   * function to it on a writer thread. The function runs with the deadline and the trace of the
+   * request.
+   *
+   * @param endpoint the endpoint the task belongs to
+   * @param supplier the supplier
+   * @param function the function, like a database write
+   * @param <T> the value type
+   * @param <U> the result type
+   * @return the completion stage
+   * @since 1.0
+   */
+  public <T, U> CompletionStage<U> supply(
+      String endpoint, Supplier<T> supplier, Function<? super T, ? extends U> function) {
+    var deadline = Deadline.current();
+    var requestTrace = RequestTrace.current();
+
+    return supply(endpoint, supplier)
+        .thenApplyAsync(
+            value -> {
+              Deadline.setCurrent(deadline);
+              RequestTrace.setCurrent(requestTrace);
+
+              try {
+                return function.apply(value);
+              } finally {
+                Deadline.clear();
+                RequestTrace.setCurrent(null);
+              }
+            },
+            writer);
+  }
+
+  private static ThreadFactory createThreadFactory(String prefix) {
+    var count = new AtomicInteger(0);
+
+    return runnable -> {
+      var thread = new Thread(runnable, prefix + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Queue depth of an endpoint.
+   *
+   * @since 1.0
+   */
+  public static final class QueueDepth {
+    private final AtomicInteger current = new AtomicInteger(0);
+    private final AtomicInteger peak = new AtomicInteger(0);
+    private final AtomicLong rejected = new AtomicLong(0L);
+
+    private QueueDepth() {}
+
+    /**
+     * Returns the number of tasks that are waiting for a thread.
+     *
+     * @return the current depth
+     * @since 1.0
+     */
+    public int getCurrent() {
+      return current.get();
+    }
+
+    /**
+     * Returns the highest number of tasks that have been waiting for a thread at the same time.
+     *
+     * @return the peak depth
+     * @since 1.0
+     */
+    public int getPeak() {
+      return peak.get();
+    }
+
+    /**
+     * Returns the number of tasks that were rejected because the queue was full.
+     *
+     * @return the number of rejected tasks
+     * @since 1.0
+     */
+    public long getRejected() {
+      return rejected.get();
+    }
+
+    private void decrement() {
+      current.decrementAndGet();
+    }
+
+    private void increment() {
+      peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+    }
+  }
+}
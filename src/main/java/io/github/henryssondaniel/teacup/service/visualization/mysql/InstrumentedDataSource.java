@@ -0,0 +1,258 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+/**
+ * Data source that times the JDBC work. The time to acquire a connection is recorded for every
+ * connection, and the prepared statements and calls are recorded by their SQL template: the time to
+ * execute them, and the time to fetch their rows together with the number of rows. The connections,
+ * statements and result sets are proxies, like the connections of the {@link ConnectionPool}, and
+ * plain statements are not recorded since their SQL is not a template. The lists of parameters and
+ * the repeated rows of a multi-row insert are collapsed in the template, like {@code IN (?, ...)}
+ * and {@code VALUES (?, ...), ...}, so a batch of any size is recorded as one statement.
+ *
+ * <p>Statements that take longer than the slow threshold to execute are logged, one in every sample
+ * of them. The log is disabled when the threshold is not positive, which costs one comparison per
+ * statement.
+ *
+ * <p>The prepared statements and calls of a request with a {@link Deadline} get the remaining time
+ * of it as their query timeout when they are executed.
+ *
+ * @since 1.0
+ */
+final class InstrumentedDataSource implements AutoCloseable, DataSource {
+  private static final Logger LOGGER = Logger.getLogger(InstrumentedDataSource.class.getName());
+  private static final Pattern PARAMETERS = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+  private static final Pattern ROWS = Pattern.compile("(\\([^()]*\\))(?:\\s*,\\s*\\1)+");
+  private static final String STATEMENT = "statement";
+
+  private final DataSource dataSource;
+  private final Metrics metrics;
+  private final int slowSample;
+  private final long slowThreshold;
+
+  InstrumentedDataSource(
+      DataSource dataSource, Metrics metrics, long slowThreshold, int slowSample) {
+    this.dataSource = dataSource;
+    this.metrics = metrics;
+    this.slowSample = Math.max(1, slowSample);
+    this.slowThreshold =
+        slowThreshold > 0L ? TimeUnit.MILLISECONDS.toNanos(slowThreshold) : Long.MAX_VALUE;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (dataSource instanceof AutoCloseable) ((AutoCloseable) dataSource).close();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    var start = System.nanoTime();
+
+    try {
+      return proxy(Connection.class, new ConnectionHandler(dataSource.getConnection()));
+    } finally {
+      metrics.recordConnection(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    var start = System.nanoTime();
+
+    try {
+      return proxy(
+          Connection.class, new ConnectionHandler(dataSource.getConnection(username, password)));
+    } finally {
+      metrics.recordConnection(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || iface.isInstance(dataSource) || dataSource.isWrapperFor(iface);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) return iface.cast(this);
+    return iface.isInstance(dataSource) ? iface.cast(dataSource) : dataSource.unwrap(iface);
+  }
+
+  static String normalize(String sql) {
+    var template = sql.indexOf(',') < 0 ? sql : PARAMETERS.matcher(sql).replaceAll("?, ...");
+    return template.indexOf(',') < 0 ? template : ROWS.matcher(template).replaceAll("$1, ...");
+  }
+
+  private static Object invoke(Object target, Method method, Object... args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler invocationHandler) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            InstrumentedDataSource.class.getClassLoader(),
+            new Class<?>[] {type},
+            invocationHandler));
+  }
+
+  private void recordStatement(String sql, long nanos) {
+    metrics.recordStatement(sql, nanos);
+
+    if (nanos > slowThreshold
+        && (slowSample == 1 || ThreadLocalRandom.current().nextInt(slowSample) == 0))
+      LOGGER.log(
+          Level.WARNING,
+          String.format("Slow statement, %d ms: %s", TimeUnit.NANOSECONDS.toMillis(nanos), sql));
+  }
+
+  private final class ConnectionHandler implements InvocationHandler {
+    private final Connection connection;
+
+    private ConnectionHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "prepareCall":
+        case "prepareStatement":
+          return proxy(
+              method.getReturnType(),
+              new StatementHandler(
+                  (String) args[0], InstrumentedDataSource.invoke(connection, method, args)));
+        case "toString":
+          return "Instrumented " + connection;
+        default:
+          return InstrumentedDataSource.invoke(connection, method, args);
+      }
+    }
+  }
+
+  private final class ResultSetHandler implements InvocationHandler {
+    private final ResultSet resultSet;
+    private final String sql;
+    private boolean closed;
+    private long nanos;
+    private long rows;
+
+    private ResultSetHandler(ResultSet resultSet, String sql) {
+      this.resultSet = resultSet;
+      this.sql = sql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!closed) {
+            closed = true;
+            metrics.recordFetch(sql, nanos, rows);
+          }
+
+          return InstrumentedDataSource.invoke(resultSet, method, args);
+        case "next":
+          return next(method);
+        default:
+          return InstrumentedDataSource.invoke(resultSet, method, args);
+      }
+    }
+
+    private Object next(Method method) throws Throwable {
+      var start = System.nanoTime();
+      var next = (Boolean) InstrumentedDataSource.invoke(resultSet, method);
+      nanos += System.nanoTime() - start;
+
+      if (next) rows++;
+
+      return next;
+    }
+  }
+
+  private final class StatementHandler implements InvocationHandler {
+    private final String sql;
+    private final Object statement;
+
+    private StatementHandler(String sql, Object statement) {
+      this.sql = normalize(sql);
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      var name = method.getName();
+
+      if (name.startsWith("execute")) {
+        Deadline.setQueryTimeout((Statement) statement);
+
+        var requestTrace = RequestTrace.current();
+        var phaseEvent = requestTrace == null ? null : requestTrace.begin();
+        var start = System.nanoTime();
+
+        try {
+          return wrap(InstrumentedDataSource.invoke(statement, method, args));
+        } finally {
+          recordStatement(sql, System.nanoTime() - start);
+          if (requestTrace != null) requestTrace.commit(phaseEvent, STATEMENT, sql);
+        }
+      }
+
+      var value = InstrumentedDataSource.invoke(statement, method, args);
+      return "getResultSet".equals(name) ? wrap(value) : value;
+    }
+
+    private Object wrap(Object value) {
+      return value instanceof ResultSet
+          ? proxy(ResultSet.class, new ResultSetHandler((ResultSet) value, sql))
+          : value;
+    }
+  }
+}
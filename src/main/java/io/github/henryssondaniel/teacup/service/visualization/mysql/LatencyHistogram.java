@@ -0,0 +1,90 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed buckets from 100 microseconds to 10 seconds. Each bucket
+ * is an adder, so concurrent records never wait for each other, and the buckets are summed up when
+ * the histogram is written in the Prometheus text format.
+ *
+ * @since 1.0
+ */
+final class LatencyHistogram {
+  private static final long[] BOUNDS = {
+    100_000L,
+    250_000L,
+    500_000L,
+    1_000_000L,
+    2_500_000L,
+    5_000_000L,
+    10_000_000L,
+    25_000_000L,
+    50_000_000L,
+    100_000_000L,
+    250_000_000L,
+    500_000_000L,
+    1_000_000_000L,
+    2_500_000_000L,
+    5_000_000_000L,
+    10_000_000_000L
+  };
+  private static final String[] LABELS = createLabels();
+  private static final double NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+  private final LongAdder[] counts = new LongAdder[BOUNDS.length + 1];
+  private final LongAdder sum = new LongAdder();
+
+  LatencyHistogram() {
+    for (var index = 0; index < counts.length; index++) counts[index] = new LongAdder();
+  }
+
+  void record(long nanos) {
+    var index = 0;
+    while (index < BOUNDS.length && nanos > BOUNDS[index]) index++;
+
+    counts[index].increment();
+    sum.add(nanos);
+  }
+
+  void write(Writer writer, String name, String labels) throws IOException {
+    var count = 0L;
+    var prefix = (labels.isEmpty() ? "" : labels + ',') + "le=\"";
+
+    for (var index = 0; index < counts.length; index++) {
+      count += counts[index].sum();
+      writeSample(writer, name + "_bucket", prefix + LABELS[index] + '"', Long.toString(count));
+    }
+
+    writeSample(writer, name + "_sum", labels, Double.toString(sum.sum() / NANOSECONDS_PER_SECOND));
+    writeSample(writer, name + "_count", labels, Long.toString(count));
+  }
+
+  static void writeSample(Writer writer, String name, String labels, String value)
+      throws IOException {
+    writer.write(name);
+
+    if (!labels.isEmpty()) {
+      writer.write('{');
+      writer.write(labels);
+      writer.write('}');
+    }
+
+    writer.write(' ');
+    writer.write(value);
+    writer.write('\n');
+  }
+
+  private static String[] createLabels() {
+    var labels = new String[BOUNDS.length + 1];
+
+    for (var index = 0; index < BOUNDS.length; index++)
+      labels[index] = BigDecimal.valueOf(BOUNDS[index], 9).stripTrailingZeros().toPlainString();
+    labels[BOUNDS.length] = "+Inf";
+
+    return labels;
+  }
+}
@@ -0,0 +1,85 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Table of the locked accounts by id. An account is locked when it has too many unsuccessful log
+ * ins, and the log ins of a locked account are rejected without the database until the lockout
+ * expires.
+ *
+ * <p>The lockout is kept for the time to live only, since the account can be unlocked by another
+ * instance or directly in the database. An account that is unlocked by this instance is removed
+ * right away. The expired lockouts are removed when they are looked up, and all of them when the
+ * table has grown to the purge size.
+ *
+ * @since 1.0
+ */
+public final class LockoutTable {
+  private static final Logger LOGGER = Logger.getLogger(LockoutTable.class.getName());
+  private static final int PURGE_SIZE = 10_000;
+
+  private final Map<Integer, Long> lockouts = new ConcurrentHashMap<>(16);
+  private final long ttl;
+
+  /**
+   * Constructor.
+   *
+   * @param ttl the time to keep a lockout in milliseconds, 0 for no table
+   * @since 1.0
+   */
+  public LockoutTable(long ttl) {
+    this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+  }
+
+  /**
+   * Returns whether the account is locked.
+   *
+   * @param id the id of the account
+   * @return true if the account is locked and the lockout has not expired
+   * @since 1.0
+   */
+  public boolean isLocked(int id) {
+    var expiry = lockouts.get(id);
+    if (expiry == null) return false;
+
+    if (System.nanoTime() - expiry < 0L) return true;
+
+    lockouts.remove(id, expiry);
+    return false;
+  }
+
+  /**
+   * Locks the account, like when it has too many unsuccessful log ins.
+   *
+   * @param id the id of the account
+   * @since 1.0
+   */
+  public void lock(int id) {
+    if (ttl > 0L) {
+      LOGGER.log(Level.FINE, "Lock " + id);
+
+      var now = System.nanoTime();
+      lockouts.put(id, now + ttl);
+
+      if (lockouts.size() > PURGE_SIZE) lockouts.values().removeIf(expiry -> now - expiry >= 0L);
+    }
+  }
+
+  /**
+   * Unlocks the account, like when an admin unlocks it or the password is changed.
+   *
+   * @param id the id of the account
+   * @since 1.0
+   */
+  public void unlock(int id) {
+    if (lockouts.remove(id) != null) LOGGER.log(Level.FINE, "Unlock " + id);
+  }
+
+  int getSize() {
+    return lockouts.size();
+  }
+}
@@ -0,0 +1,394 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.CircuitBreakerDataSource.State;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the REST application. Each endpoint counts its requests and its error responses by
+ * status, and records the time it spends in the database, on password hashing and on serialization
+ * in {@link LatencyHistogram latency histograms}. Everything is recorded with adders, so the
+ * request threads never wait for each other. The metrics are written in the Prometheus text format.
+ *
+ * <p>The client errors are counted by status, like 401, 406 and 409, and the server errors are
+ * counted together as 5xx.
+ *
+ * <p>The JDBC work is recorded apart from the endpoints: the time to acquire a connection, and the
+ * time to execute each statement and to fetch its rows, keyed by the SQL template. The caches count
+ * their hits and misses.
+ *
+ * <p>The endpoints with a concurrency limit report the current limit, and count the requests that
+ * were shed because the limit was reached.
+ *
+ * <p>The state of the circuit breaker of the data source is reported together with the connections
+ * it refused, and the bulkheads count the connections they refused by endpoint.
+ *
+ * @since 1.0
+ */
+public final class Metrics {
+  private static final String ENDPOINT = "endpoint";
+  private static final Metrics INSTANCE = new Metrics();
+  private static final String PREFIX = "teacup_visualization_";
+  private static final String SQL = "sql";
+
+  private final Map<String, Cache> caches = new ConcurrentHashMap<>(4);
+  private final LongAdder circuitRejections = new LongAdder();
+  private final LatencyHistogram connections = new LatencyHistogram();
+  private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>(16);
+  private final Map<String, Template> templates = new ConcurrentHashMap<>(32);
+
+  private volatile State circuit;
+
+  Metrics() {}
+
+  /**
+   * Returns the metrics that are shared by the resources of the application.
+   *
+   * @return the metrics
+   * @since 1.0
+   */
+  public static Metrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Records the time an endpoint spent in a phase of a request.
+   *
+   * @param endpoint the endpoint
+   * @param phase the phase
+   * @param nanos the time in nanoseconds
+   * @since 1.0
+   */
+  public void record(String endpoint, Phase phase, long nanos) {
+    getEndpoint(endpoint).histograms.get(phase).record(nanos);
+  }
+
+  /**
+   * Records a connection that was refused because the bulkhead of the endpoint was full.
+   *
+   * @param endpoint the endpoint
+   * @since 1.0
+   */
+  public void recordBulkheadRejection(String endpoint) {
+    getEndpoint(endpoint).bulkheadRejections.increment();
+  }
+
+  /**
+   * Records a look up in a cache.
+   *
+   * @param cache the name of the cache
+   * @param hit whether the value was cached
+   * @since 1.0
+   */
+  public void recordCache(String cache, boolean hit) {
+    var counters = caches.get(cache);
+    if (counters == null) counters = caches.computeIfAbsent(cache, key -> new Cache());
+
+    (hit ? counters.hits : counters.misses).increment();
+  }
+
+  /**
+   * Records the time it took to acquire a connection.
+   *
+   * @param nanos the time in nanoseconds
+   * @since 1.0
+   */
+  public void recordConnection(long nanos) {
+    connections.record(nanos);
+  }
+
+  /**
+   * Records the time it took to fetch the rows of a statement, and the number of rows.
+   *
+   * @param sql the SQL template of the statement
+   * @param nanos the time in nanoseconds
+   * @param rows the number of rows
+   * @since 1.0
+   */
+  public void recordFetch(String sql, long nanos, long rows) {
+    var template = getTemplate(sql);
+    template.fetch.record(nanos);
+    template.rows.add(rows);
+  }
+
+  /**
+   * Records the concurrency limit of an endpoint.
+   *
+   * @param endpoint the endpoint
+   * @param limit the limit
+   * @since 1.0
+   */
+  public void recordLimit(String endpoint, int limit) {
+    getEndpoint(endpoint).limit = limit;
+  }
+
+  /**
+   * Records a response of an endpoint.
+   *
+   * @param endpoint the endpoint
+   * @param status the status of the response
+   * @since 1.0
+   */
+  public void recordResponse(String endpoint, int status) {
+    var metrics = getEndpoint(endpoint);
+    metrics.requests.increment();
+
+    if (status >= 500) metrics.serverErrors.increment();
+    else if (status >= 400)
+      metrics.clientErrors.computeIfAbsent(status, key -> new LongAdder()).increment();
+  }
+
+  /**
+   * Records a request that was shed because the concurrency limit of the endpoint was reached.
+   *
+   * @param endpoint the endpoint
+   * @since 1.0
+   */
+  public void recordShed(String endpoint) {
+    getEndpoint(endpoint).shed.increment();
+  }
+
+  /**
+   * Records the time it took to execute a statement.
+   *
+   * @param sql the SQL template of the statement
+   * @param nanos the time in nanoseconds
+   * @since 1.0
+   */
+  public void recordStatement(String sql, long nanos) {
+    getTemplate(sql).execution.record(nanos);
+  }
+
+  /**
+   * Writes the metrics in the Prometheus text format.
+   *
+   * @param writer the writer
+   * @throws IOException if the metrics could not be written
+   * @since 1.0
+   */
+  public void write(Writer writer) throws IOException {
+    Map<String, Endpoint> sorted = new TreeMap<>(endpoints);
+
+    writeHeader(writer, "requests_total", "Requests by endpoint.", "counter");
+    for (var entry : sorted.entrySet())
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "requests_total",
+          createLabels(ENDPOINT, entry.getKey()),
+          Long.toString(entry.getValue().requests.sum()));
+
+    writeHeader(writer, "errors_total", "Error responses by endpoint and status.", "counter");
+    for (var entry : sorted.entrySet()) writeErrors(writer, entry.getKey(), entry.getValue());
+
+    for (var phase : Phase.values()) {
+      var name = phase.label + "_seconds";
+      writeHeader(writer, name, "Time spent on " + phase.label + " by endpoint.", "histogram");
+
+      for (var entry : sorted.entrySet())
+        entry
+            .getValue()
+            .histograms
+            .get(phase)
+            .write(writer, PREFIX + name, createLabels(ENDPOINT, entry.getKey()));
+    }
+
+    writeLimits(writer, sorted);
+    writeCircuit(writer, sorted);
+    writeTemplates(writer);
+    writeCaches(writer);
+  }
+
+  void recordCircuit(State state) {
+    circuit = state;
+  }
+
+  void recordCircuitRejection() {
+    circuitRejections.increment();
+  }
+
+  private static String createLabels(String name, String value) {
+    return name
+        + "=\""
+        + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+        + '"';
+  }
+
+  private Endpoint getEndpoint(String name) {
+    var endpoint = endpoints.get(name);
+    return endpoint == null ? endpoints.computeIfAbsent(name, key -> new Endpoint()) : endpoint;
+  }
+
+  private Template getTemplate(String sql) {
+    var template = templates.get(sql);
+    return template == null ? templates.computeIfAbsent(sql, key -> new Template()) : template;
+  }
+
+  private void writeCaches(Writer writer) throws IOException {
+    writeHeader(writer, "cache_requests_total", "Cache look ups by cache and result.", "counter");
+
+    for (var entry : new TreeMap<>(caches).entrySet()) {
+      var labels = createLabels("cache", entry.getKey()) + ",result=\"";
+
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "cache_requests_total",
+          labels + "hit\"",
+          Long.toString(entry.getValue().hits.sum()));
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "cache_requests_total",
+          labels + "miss\"",
+          Long.toString(entry.getValue().misses.sum()));
+    }
+  }
+
+  private void writeCircuit(Writer writer, Map<String, Endpoint> sorted) throws IOException {
+    writeHeader(writer, "circuit_state", "State of the circuit breaker.", "gauge");
+
+    var current = circuit;
+    if (current != null)
+      for (var state : State.values())
+        LatencyHistogram.writeSample(
+            writer,
+            PREFIX + "circuit_state",
+            createLabels("state", state.getLabel()),
+            state == current ? "1" : "0");
+
+    writeHeader(
+        writer,
+        "circuit_rejections_total",
+        "Connections refused by the circuit breaker.",
+        "counter");
+    LatencyHistogram.writeSample(
+        writer, PREFIX + "circuit_rejections_total", "", Long.toString(circuitRejections.sum()));
+
+    writeHeader(
+        writer, "bulkhead_rejections_total", "Connections refused by the bulkheads.", "counter");
+    for (var entry : sorted.entrySet())
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "bulkhead_rejections_total",
+          createLabels(ENDPOINT, entry.getKey()),
+          Long.toString(entry.getValue().bulkheadRejections.sum()));
+  }
+
+  private static void writeErrors(Writer writer, String name, Endpoint endpoint)
+      throws IOException {
+    var labels = createLabels(ENDPOINT, name) + ",status=\"";
+
+    for (var entry : new TreeMap<>(endpoint.clientErrors).entrySet())
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "errors_total",
+          labels + entry.getKey() + '"',
+          Long.toString(entry.getValue().sum()));
+
+    LatencyHistogram.writeSample(
+        writer,
+        PREFIX + "errors_total",
+        labels + "5xx\"",
+        Long.toString(endpoint.serverErrors.sum()));
+  }
+
+  private static void writeLimits(Writer writer, Map<String, Endpoint> sorted) throws IOException {
+    writeHeader(writer, "concurrency_limit", "Concurrency limit by endpoint.", "gauge");
+    for (var entry : sorted.entrySet())
+      if (entry.getValue().limit > 0)
+        LatencyHistogram.writeSample(
+            writer,
+            PREFIX + "concurrency_limit",
+            createLabels(ENDPOINT, entry.getKey()),
+            Integer.toString(entry.getValue().limit));
+
+    writeHeader(writer, "shed_total", "Requests shed over the concurrency limit.", "counter");
+    for (var entry : sorted.entrySet())
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "shed_total",
+          createLabels(ENDPOINT, entry.getKey()),
+          Long.toString(entry.getValue().shed.sum()));
+  }
+
+  private static void writeHeader(Writer writer, String name, String help, String type)
+      throws IOException {
+    writer.write("# HELP " + PREFIX + name + ' ' + help + '\n');
+    writer.write("# TYPE " + PREFIX + name + ' ' + type + '\n');
+  }
+
+  private void writeTemplates(Writer writer) throws IOException {
+    Map<String, Template> sorted = new TreeMap<>(templates);
+
+    writeHeader(writer, "connection_seconds", "Time spent acquiring connections.", "histogram");
+    connections.write(writer, PREFIX + "connection_seconds", "");
+
+    writeHeader(writer, "statement_seconds", "Time spent executing statements.", "histogram");
+    for (var entry : sorted.entrySet())
+      entry
+          .getValue()
+          .execution
+          .write(writer, PREFIX + "statement_seconds", createLabels(SQL, entry.getKey()));
+
+    writeHeader(writer, "fetch_seconds", "Time spent fetching rows by statement.", "histogram");
+    for (var entry : sorted.entrySet())
+      entry
+          .getValue()
+          .fetch
+          .write(writer, PREFIX + "fetch_seconds", createLabels(SQL, entry.getKey()));
+
+    writeHeader(writer, "rows_total", "Rows fetched by statement.", "counter");
+    for (var entry : sorted.entrySet())
+      LatencyHistogram.writeSample(
+          writer,
+          PREFIX + "rows_total",
+          createLabels(SQL, entry.getKey()),
+          Long.toString(entry.getValue().rows.sum()));
+  }
+
+  /**
+   * Phase of a request.
+   *
+   * @since 1.0
+   */
+  public enum Phase {
+    DATABASE("database"),
+    HASHING("hashing"),
+    SERIALIZATION("serialization");
+
+    private final String label;
+
+    Phase(String label) {
+      this.label = label;
+    }
+  }
+
+  private static final class Cache {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+  }
+
+  private static final class Endpoint {
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final Map<Integer, LongAdder> clientErrors = new ConcurrentHashMap<>(8);
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    private volatile int limit;
+
+    private Endpoint() {
+      for (var phase : Phase.values()) histograms.put(phase, new LatencyHistogram());
+    }
+  }
+
+  private static final class Template {
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LatencyHistogram fetch = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+  }
+}
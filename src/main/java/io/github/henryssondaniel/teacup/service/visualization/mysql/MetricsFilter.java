@@ -0,0 +1,79 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics.Phase;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Records the responses and the serialization time of each endpoint in the {@link Metrics}. The
+ * endpoint is the last segment of the matched path, like logIn, so requests that do not match a
+ * resource are not recorded.
+ *
+ * @since 1.0
+ */
+@Priority(FilterPriorities.METRICS)
+@Provider
+public final class MetricsFilter
+    implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+  private static final String ENDPOINT = MetricsFilter.class.getName() + ".endpoint";
+  private static final Logger LOGGER = Logger.getLogger(MetricsFilter.class.getName());
+
+  private final Metrics metrics;
+
+  /**
+   * Constructor.
+   *
+   * @param metrics the metrics
+   * @since 1.0
+   */
+  public MetricsFilter(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext writerInterceptorContext) throws IOException {
+    var endpoint = writerInterceptorContext.getProperty(ENDPOINT);
+
+    if (endpoint == null) writerInterceptorContext.proceed();
+    else {
+      var start = System.nanoTime();
+
+      try {
+        writerInterceptorContext.proceed();
+      } finally {
+        metrics.record((String) endpoint, Phase.SERIALIZATION, System.nanoTime() - start);
+      }
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext containerRequestContext) {
+    var endpoint = getEndpoint(containerRequestContext);
+
+    LOGGER.log(Level.FINEST, "Filter " + endpoint);
+    containerRequestContext.setProperty(ENDPOINT, endpoint);
+  }
+
+  @Override
+  public void filter(
+      ContainerRequestContext containerRequestContext,
+      ContainerResponseContext containerResponseContext) {
+    var endpoint = containerRequestContext.getProperty(ENDPOINT);
+    if (endpoint != null)
+      metrics.recordResponse((String) endpoint, containerResponseContext.getStatus());
+  }
+
+  static String getEndpoint(ContainerRequestContext containerRequestContext) {
+    var path = containerRequestContext.getUriInfo().getPath();
+    return path.substring(path.lastIndexOf('/') + 1);
+  }
+}
@@ -0,0 +1,54 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Metrics resource. Serves the {@link Metrics} of the application in the Prometheus text format.
+ *
+ * @since 1.0
+ */
+@Path("metrics")
+public class MetricsResource {
+  private static final Logger LOGGER = Logger.getLogger(MetricsResource.class.getName());
+
+  private final Metrics metrics;
+
+  /**
+   * Constructor.
+   *
+   * @since 1.0
+   */
+  public MetricsResource() {
+    this(Metrics.getInstance());
+  }
+
+  MetricsResource(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @GET
+  @Produces("text/plain; version=0.0.4; charset=utf-8")
+  public Response getMetrics() {
+    LOGGER.log(Level.FINE, "Get metrics");
+
+    return Response.ok(
+            (StreamingOutput)
+                outputStream -> {
+                  var writer =
+                      new BufferedWriter(
+                          new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                  metrics.write(writer);
+                  writer.flush();
+                })
+        .build();
+  }
+}
@@ -0,0 +1,48 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Schema migration. The statements of a migration are executed in order, and the migration is
+ * recorded in the schema version table together with the checksum of its statements.
+ *
+ * @since 1.0
+ */
+final class Migration {
+  private final long checksum;
+  private final String description;
+  private final List<String> statements;
+  private final int version;
+
+  Migration(int version, String description, String... statements) {
+    this.description = description;
+    this.statements = List.of(statements);
+    this.version = version;
+
+    var crc32 = new CRC32();
+    for (var statement : statements) {
+      crc32.update(statement.getBytes(StandardCharsets.UTF_8));
+      crc32.update('\n');
+    }
+
+    checksum = crc32.getValue();
+  }
+
+  long getChecksum() {
+    return checksum;
+  }
+
+  String getDescription() {
+    return description;
+  }
+
+  List<String> getStatements() {
+    return statements;
+  }
+
+  int getVersion() {
+    return version;
+  }
+}
@@ -0,0 +1,36 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a phase of a request: parse, statement, hashing or response. The phases
+ * run on the request thread and on the hashing threads, and are joined to their {@link RequestEvent
+ * request} by the request id.
+ *
+ * @since 1.0
+ */
+@Category({"Teacup", "Visualization"})
+@Description("A phase of a request to an endpoint")
+@Label("Request Phase")
+@Name("io.github.henryssondaniel.teacup.visualization.Phase")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+  @Label("Endpoint")
+  String endpoint;
+
+  @Label("Phase")
+  String phase;
+
+  @Description("The id of the request")
+  @Label("Request")
+  long request;
+
+  @Description("The SQL template of a statement")
+  @Label("SQL")
+  String sql;
+}
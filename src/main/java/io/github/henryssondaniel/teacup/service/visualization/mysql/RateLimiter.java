@@ -0,0 +1,126 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket rate limiter by key, like the client IP or the email of a request. Each key may do
+ * the burst size of requests at once, and then the rate of requests per second.
+ *
+ * <p>A bucket is a single time, the time when the bucket is full again, and a request takes a token
+ * by moving that time forward with a compare and set, so the requests never wait for each other.
+ * The buckets are kept in segments by the hash of the key. When a segment is full, the buckets that
+ * are full again are evicted, since a full bucket is the same as no bucket. If the segment is still
+ * full, the buckets that are closest to full are evicted, along with an eighth of the segment so
+ * the next keys do not evict again. An evicted bucket is full when its key comes back, so this
+ * forgives the fewest tokens: a client that rotates keys to evict a limited bucket has to take more
+ * tokens with each of its keys than the limited bucket has taken. The new key itself is never
+ * evicted.
+ *
+ * @since 1.0
+ */
+public final class RateLimiter {
+  private static final int SEGMENTS = 16;
+
+  private final long interval;
+  private final int segmentSize;
+  private final Segment[] segments = new Segment[SEGMENTS];
+  private final long tolerance;
+
+  /**
+   * Constructor.
+   *
+   * @param maximumSize the maximum number of keys
+   * @param rate the requests per second of each key, 0 for no limit
+   * @param burst the requests each key may do at once
+   * @since 1.0
+   */
+  public RateLimiter(int maximumSize, double rate, int burst) {
+    interval = rate > 0.0 ? (long) (TimeUnit.SECONDS.toNanos(1L) / rate) : 0L;
+    segmentSize = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+    tolerance = interval * Math.max(1, burst);
+
+    for (var index = 0; index < SEGMENTS; index++) segments[index] = new Segment();
+  }
+
+  /**
+   * Takes a token from the bucket of the key.
+   *
+   * @param key the key
+   * @return 0 if the request is permitted, otherwise the nanoseconds until it is
+   * @since 1.0
+   */
+  public long acquire(String key) {
+    if (interval == 0L) return 0L;
+
+    var now = System.nanoTime();
+    var bucket = getBucket(key, now);
+
+    while (true) {
+      var full = bucket.get();
+      var next = (full - now > 0L ? full : now) + interval;
+      var wait = next - now - tolerance;
+
+      if (wait > 0L) return wait;
+      if (bucket.compareAndSet(full, next)) return 0L;
+    }
+  }
+
+  int getSize() {
+    var size = 0;
+    for (var segment : segments) size += segment.buckets.size();
+
+    return size;
+  }
+
+  private AtomicLong getBucket(String key, long now) {
+    var hash = key.hashCode();
+    var segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+
+    var bucket = segment.buckets.get(key);
+
+    if (bucket == null) {
+      bucket = segment.buckets.computeIfAbsent(key, absent -> new AtomicLong(now));
+      if (segment.buckets.size() > segmentSize) segment.evict(key, now, segmentSize);
+    }
+
+    return bucket;
+  }
+
+  private static final class Segment {
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>(16);
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    private void evict(String key, long now, int maximumSize) {
+      if (evicting.compareAndSet(false, true))
+        try {
+          buckets
+              .entrySet()
+              .removeIf(entry -> !entry.getKey().equals(key) && entry.getValue().get() - now <= 0L);
+
+          var excess = buckets.size() - maximumSize;
+          if (excess > 0) evictClosestToFull(key, now, excess + maximumSize / 8);
+        } finally {
+          evicting.set(false);
+        }
+    }
+
+    private void evictClosestToFull(String key, long now, int count) {
+      List<Map.Entry<String, Long>> untilFull = new ArrayList<>(buckets.size());
+
+      for (var entry : buckets.entrySet())
+        if (!entry.getKey().equals(key))
+          untilFull.add(Map.entry(entry.getKey(), entry.getValue().get() - now));
+
+      untilFull.sort(Map.Entry.comparingByValue());
+
+      for (var index = 0; index < Math.min(count, untilFull.size()); index++)
+        buckets.remove(untilFull.get(index).getKey());
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a request, from the request filter until the response is written. The
+ * {@link PhaseEvent phases} of the request carry the same request id.
+ *
+ * @since 1.0
+ */
+@Category({"Teacup", "Visualization"})
+@Description("A request to an endpoint")
+@Label("Request")
+@Name("io.github.henryssondaniel.teacup.visualization.Request")
+@StackTrace(false)
+final class RequestEvent extends Event {
+  @Description("The id of the account, or 0 if the account is not known")
+  @Label("Account")
+  int account;
+
+  @Label("Endpoint")
+  String endpoint;
+
+  @Description("The id of the request")
+  @Label("Request")
+  long request;
+
+  @Description("The status of the response")
+  @Label("Status")
+  int status;
+}
@@ -0,0 +1,132 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import jdk.jfr.EventType;
+
+/**
+ * Flight recorder trace of a request. The {@link EventFilter} starts a trace for each request while
+ * a recording is active, and the trace is the current trace of the threads that work on the
+ * request: the request thread, the hashing thread that the password hashing runs on, and the writer
+ * thread that the writes after it run on. The phases record {@link PhaseEvent phase events} against
+ * the current trace, and the trace records the {@link RequestEvent request event} when the response
+ * is written. Each thread removes the trace once its work on the request is done, so a pooled
+ * thread does not keep the trace of a request that has ended.
+ *
+ * <p>Without an active recording no trace is started, and each phase costs one thread local read.
+ *
+ * @since 1.0
+ */
+public final class RequestTrace {
+  private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+  private static final String HASHING = "hashing";
+  private static final AtomicLong IDS = new AtomicLong();
+  private static final EventType REQUEST = EventType.getEventType(RequestEvent.class);
+
+  private final String endpoint;
+  private final long id = IDS.incrementAndGet();
+  private final RequestEvent requestEvent = new RequestEvent();
+
+  private RequestTrace(String endpoint) {
+    this.endpoint = endpoint;
+    requestEvent.begin();
+  }
+
+  /**
+   * Returns a supplier that hashes for the current trace. The supplier makes the trace current on
+   * the thread that runs it, which is the hashing thread, records the hashing phase, and removes
+   * the trace from the thread when it is done.
+   *
+   * @param supplier the supplier
+   * @param <T> the value type
+   * @return the supplier
+   * @since 1.0
+   */
+  public static <T> Supplier<T> hashing(Supplier<T> supplier) {
+    var requestTrace = CURRENT.get();
+
+    return requestTrace == null
+        ? () -> {
+          CURRENT.remove();
+          return supplier.get();
+        }
+        : () -> {
+          CURRENT.set(requestTrace);
+
+          var phaseEvent = requestTrace.begin();
+
+          try {
+            return supplier.get();
+          } finally {
+            requestTrace.commit(phaseEvent, HASHING, null);
+            CURRENT.remove();
+          }
+        };
+  }
+
+  /**
+   * Sets the account of the current trace, if there is one.
+   *
+   * @param account the id of the account
+   * @since 1.0
+   */
+  public static void setAccount(int account) {
+    var requestTrace = CURRENT.get();
+    if (requestTrace != null) requestTrace.requestEvent.account = account;
+  }
+
+  static RequestTrace current() {
+    return CURRENT.get();
+  }
+
+  static void setCurrent(RequestTrace requestTrace) {
+    if (requestTrace == null) CURRENT.remove();
+    else CURRENT.set(requestTrace);
+  }
+
+  static RequestTrace start(String endpoint) {
+    RequestTrace requestTrace = null;
+
+    if (REQUEST.isEnabled()) {
+      requestTrace = new RequestTrace(endpoint);
+      CURRENT.set(requestTrace);
+    } else CURRENT.remove();
+
+    return requestTrace;
+  }
+
+  PhaseEvent begin() {
+    var phaseEvent = new PhaseEvent();
+    phaseEvent.begin();
+
+    return phaseEvent;
+  }
+
+  void commit(PhaseEvent phaseEvent, String phase, String sql) {
+    phaseEvent.end();
+
+    if (phaseEvent.shouldCommit()) {
+      phaseEvent.endpoint = endpoint;
+      phaseEvent.phase = phase;
+      phaseEvent.request = id;
+      phaseEvent.sql = sql;
+      phaseEvent.commit();
+    }
+  }
+
+  void end() {
+    requestEvent.end();
+
+    if (requestEvent.shouldCommit()) {
+      requestEvent.endpoint = endpoint;
+      requestEvent.request = id;
+      requestEvent.commit();
+    }
+
+    if (CURRENT.get() == this) CURRENT.remove();
+  }
+
+  void setStatus(int status) {
+    requestEvent.status = status;
+  }
+}
@@ -3,11 +3,11 @@ package io.github.henryssondaniel.teacup.service.visualization.mysql;
 import static io.github.henryssondaniel.teacup.service.visualization.mysql.Utils.createMySqlDataSource;
 
 import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.AccountResource;
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.Collections;
-import java.util.HashSet;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.ProfileWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RateLimitFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RequestReader;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
@@ -18,24 +18,23 @@ import javax.ws.rs.core.Application;
  * REST application. This is the starting point for the REST server. All the resources will have the
  * /api/ in front of the path.
  *
+ * <p>The database schema is migrated in the background when the singletons are requested, and the
+ * migration is retried on a schedule until it succeeds, so a database that is down at boot is
+ * migrated once it is up. The email filter is built when the schema is migrated.
+ *
+ * <p>The metrics of the endpoints are served from /api/metrics in the Prometheus text format. While
+ * a flight recording is active, each request is also recorded as flight recorder events.
+ *
  * @since 1.0
  */
 @ApplicationPath("api")
 public class RestApplication extends Application {
-  private static final String ACCOUNT = "`account` INT UNSIGNED NOT NULL,";
-  private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS `teacup_visualization`";
-  private static final String END = ");";
-  private static final String FOREIGN_KEY_ACCOUNT =
-      " FOREIGN KEY (`account`) REFERENCES `teacup_visualization`.`account` (`id`) ON DELETE NO ACTION ON UPDATE NO ACTION";
-  private static final String ID = "`id` INT UNSIGNED NOT NULL AUTO_INCREMENT,";
-  private static final String IP = "`ip` VARCHAR(39) NOT NULL,";
   private static final Logger LOGGER = Logger.getLogger(RestApplication.class.getName());
-  private static final String NO_ACTION = " ON DELETE NO ACTION ON UPDATE NO ACTION);";
-  private static final String PRIMARY_KEY = " PRIMARY KEY (`id`),";
-  private static final String TIME = "`time` TIMESTAMP(3) NOT NULL DEFAULT now(3),";
-  private static final String UNIQUE_INDEX = " UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE,";
 
-  private final DataSource dataSource;
+  private final EmailFilter emailFilter;
+  private final SchemaMigrator schemaMigrator;
+  private final Set<Object> singletons;
+  private final AtomicBoolean started = new AtomicBoolean(false);
 
   /**
    * Constructor.
@@ -47,208 +46,106 @@ public class RestApplication extends Application {
   }
 
   RestApplication(DataSource dataSource) {
-    this.dataSource = dataSource;
+    if (dataSource instanceof AutoCloseable) ContextListener.register((AutoCloseable) dataSource);
+
+    schemaMigrator =
+        new SchemaMigrator(
+            dataSource,
+            Schema.MIGRATIONS,
+            Utils.getLong("schema.lock.timeout", 60L),
+            Utils.getLong("schema.retry.interval", 10_000L));
+    ContextListener.register(schemaMigrator);
+
+    var auditWriter =
+        new AuditWriter(
+            dataSource,
+            Utils.getInt("audit.queue.capacity", 10_000),
+            Utils.getInt("audit.batch.size", 100),
+            Utils.getLong("audit.flush.interval", 1_000L),
+            Utils.getLong("audit.offer.timeout", 100L));
+    ContextListener.register(auditWriter);
+
+    var hashingExecutor =
+        new HashingExecutor(
+            Utils.getInt("hashing.threads", Runtime.getRuntime().availableProcessors()),
+            Utils.getInt("hashing.queue.capacity", 1_000),
+            Utils.getInt("hashing.writer.threads", 10));
+    ContextListener.register(hashingExecutor);
+
+    var importExecutor =
+        new HashingExecutor(
+            Utils.getInt(
+                "import.hashing.threads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+            Utils.getInt("import.hashing.queue.capacity", 1_000),
+            1);
+    ContextListener.register(importExecutor);
+
+    var metrics = Metrics.getInstance();
+
+    var accountCache =
+        new AccountCache(
+            Utils.getInt("account.cache.size", 10_000),
+            Utils.getLong("account.cache.negative.ttl", 1_000L),
+            metrics);
+
+    emailFilter =
+        new EmailFilter(
+            dataSource,
+            Utils.getInt("email.filter.capacity", 100_000),
+            Utils.getDouble("email.filter.fpp", 0.01),
+            Utils.getLong("email.filter.poll.interval", 1_000L),
+            Utils.getLong("email.filter.maximum.age", 3_000L));
+    ContextListener.register(emailFilter);
+
+    singletons =
+        Set.of(
+            new AccountResource(
+                accountCache,
+                auditWriter,
+                new Bulkheads(dataSource, Utils.getInt("bulkhead.size", 5), metrics),
+                dataSource,
+                emailFilter,
+                hashingExecutor,
+                importExecutor,
+                new LockoutTable(Utils.getLong("lockout.ttl", 60_000L)),
+                metrics),
+            new ConcurrencyLimitFilter(
+                new ConcurrencyLimiter(
+                    Utils.getInt("concurrency.limit.initial", 20),
+                    Utils.getInt("concurrency.limit.minimum", 2),
+                    Utils.getInt("concurrency.limit.maximum", 200),
+                    metrics),
+                metrics),
+            new DeadlineFilter(Utils.getLong("deadline", 5_000L)),
+            new EventFilter(),
+            new MetricsFilter(metrics),
+            new ProfileWriter(),
+            new RateLimitFilter(
+                new RateLimiter(
+                    Utils.getInt("rate.limit.size", 100_000),
+                    Utils.getDouble("rate.limit.email.rate", 1.0),
+                    Utils.getInt("rate.limit.email.burst", 10)),
+                new RateLimiter(
+                    Utils.getInt("rate.limit.size", 100_000),
+                    Utils.getDouble("rate.limit.ip.rate", 10.0),
+                    Utils.getInt("rate.limit.ip.burst", 50)),
+                Utils.getSet("rate.limit.trusted.proxies")),
+            new RequestReader(Utils.getInt("request.size.maximum", 16_384)));
   }
 
   @Override
   public Set<Class<?>> getClasses() {
     LOGGER.log(Level.FINE, "Get classes");
-
-    initialize();
-
-    return new HashSet<>(Collections.singletonList(AccountResource.class));
+    return Set.of(MetricsResource.class);
   }
 
-  private static void createAccount(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`account` ("
-              + "  `email` VARCHAR(45) NOT NULL,"
-              + "  `first_name` VARCHAR(45) NOT NULL,"
-              + ID
-              + "  `last_name` VARCHAR(45) NOT NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  UNIQUE INDEX `email_UNIQUE` (`email` ASC) VISIBLE);");
-    }
-  }
-
-  private static void createAccountRole(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`account_role` ("
-              + ACCOUNT
-              + ID
-              + "  `role` INT UNSIGNED NOT NULL DEFAULT 3,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  INDEX `account_role.account_idx` (`account` ASC) VISIBLE,"
-              + "  INDEX `account_role.role_idx` (`role` ASC) VISIBLE,"
-              + "  CONSTRAINT `account_role.account`"
-              + FOREIGN_KEY_ACCOUNT
-              + ','
-              + "  CONSTRAINT `account_role.role`"
-              + "    FOREIGN KEY (`role`)"
-              + "    REFERENCES `teacup_visualization`.`role` (`id`)"
-              + NO_ACTION);
-    }
-  }
-
-  private static void createLogIn(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`log_in` ("
-              + ID
-              + IP
-              + "  `log_ins` INT UNSIGNED NOT NULL,"
-              + "  `successful` TINYINT(1) UNSIGNED NOT NULL,"
-              + TIME
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  INDEX `log_in.log_ins_idx` (`log_ins` ASC) VISIBLE,"
-              + "  CONSTRAINT `log_in.log_ins`"
-              + "    FOREIGN KEY (`log_ins`)"
-              + "    REFERENCES `teacup_visualization`.`log_ins` (`id`)"
-              + NO_ACTION);
-    }
-  }
-
-  private static void createLogIns(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`log_ins` ("
-              + ACCOUNT
-              + ID
-              + "  `unsuccessful` INT UNSIGNED NOT NULL DEFAULT 0,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  UNIQUE INDEX `account_UNIQUE` (`account` ASC) VISIBLE,"
-              + "  CONSTRAINT `log_ins.account`"
-              + FOREIGN_KEY_ACCOUNT
-              + END);
-    }
-  }
-
-  private static void createPasswordHistory(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`password_history` ("
-              + ACCOUNT
-              + "  `authorized` TINYINT(1) UNSIGNED NOT NULL,"
-              + ID
-              + IP
-              + "  `password` CHAR(60) BINARY NOT NULL,"
-              + TIME
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  INDEX `password_history.account_idx` (`account` ASC) VISIBLE,"
-              + "  CONSTRAINT `password_history.account`"
-              + FOREIGN_KEY_ACCOUNT
-              + END);
-    }
-  }
-
-  private static void createRecover(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`recover` ("
-              + ACCOUNT
-              + ID
-              + IP
-              + TIME
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  INDEX `recover.account_idx` (`account` ASC) VISIBLE,"
-              + "  CONSTRAINT `recover.account`"
-              + FOREIGN_KEY_ACCOUNT
-              + END);
-    }
-  }
-
-  private static void createRole(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`role` ("
-              + ID
-              + "  `name` VARCHAR(45) NOT NULL,"
-              + PRIMARY_KEY
-              + "  UNIQUE INDEX `name_UNIQUE` (`name` ASC) VISIBLE,"
-              + "  UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE);");
-    }
-  }
-
-  private static void createSchema(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute("CREATE SCHEMA IF NOT EXISTS teacup_visualization");
-    }
-  }
-
-  private static void createStatusHistory(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`status_history` ("
-              + ACCOUNT
-              + ID
-              + "  `status` ENUM('active', 'banned', 'inactive') NOT NULL DEFAULT 'active',"
-              + TIME
-              + PRIMARY_KEY
-              + UNIQUE_INDEX
-              + "  INDEX `status_history.account_idx` (`account` ASC) VISIBLE,"
-              + "  CONSTRAINT `status_history.account`"
-              + FOREIGN_KEY_ACCOUNT
-              + END);
-    }
-  }
-
-  private static void createVerified(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + ".`verified` ("
-              + ACCOUNT
-              + ID
-              + IP
-              + TIME
-              + PRIMARY_KEY
-              + "  UNIQUE INDEX `account_UNIQUE` (`account` ASC) VISIBLE,"
-              + UNIQUE_INDEX
-              + "  CONSTRAINT `verified.account`"
-              + FOREIGN_KEY_ACCOUNT
-              + END);
-    }
-  }
+  @Override
+  public Set<Object> getSingletons() {
+    LOGGER.log(Level.FINE, "Get singletons");
 
-  private void initialize() {
-    try (var connection = dataSource.getConnection()) {
-      createSchema(connection);
-      createAccount(connection);
-      createRole(connection);
-      insertRoles(connection);
-
-      createAccountRole(connection);
-      createLogIns(connection);
-      createLogIn(connection);
-      createPasswordHistory(connection);
-      createRecover(connection);
-      createStatusHistory(connection);
-      createVerified(connection);
-    } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, "Could not initialize the database", e);
-    }
-  }
+    if (started.compareAndSet(false, true)) schemaMigrator.start().thenRun(emailFilter::start);
 
-  private static void insertRoles(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          "INSERT INTO `teacup_visualization`.`role`(name) VALUES('admin'), ('super'), ('user') ON DUPLICATE KEY UPDATE id=id");
-    }
+    return singletons;
   }
 }
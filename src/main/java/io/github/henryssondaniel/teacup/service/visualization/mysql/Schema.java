@@ -0,0 +1,281 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.util.List;
+
+/**
+ * Schema of the visualization database, as an ordered list of migrations. A released migration is
+ * never changed, since its checksum is recorded when it is applied. A change to the schema is a new
+ * migration with the next version. Index changes use online DDL, like {@link #dropIndex(String,
+ * String)}, so the tables stay writable while the index is changed. A procedure is never changed in
+ * place: a new signature is a procedure with a new name, and the old procedure is dropped in a
+ * later release, so the instances of the previous release keep working during a rolling deploy.
+ *
+ * @since 1.0
+ */
+enum Schema {
+  ;
+
+  private static final String ACCOUNT = "`account` INT UNSIGNED NOT NULL,";
+  private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS `teacup_visualization`";
+  private static final String END = ");";
+  private static final String FOREIGN_KEY_ACCOUNT =
+      " FOREIGN KEY (`account`) REFERENCES `teacup_visualization`.`account` (`id`) ON DELETE NO ACTION ON UPDATE NO ACTION";
+  private static final String ID = "`id` INT UNSIGNED NOT NULL AUTO_INCREMENT,";
+  private static final String IP = "`ip` VARCHAR(39) NOT NULL,";
+  private static final String NO_ACTION = " ON DELETE NO ACTION ON UPDATE NO ACTION);";
+  private static final String PRIMARY_KEY = " PRIMARY KEY (`id`),";
+  private static final String SELECT_LOG_IN = "select_log_in";
+  private static final String SIGN_UP = "sign_up";
+  private static final String SIGN_UP_V2 = "sign_up_v2";
+  private static final String TIME = "`time` TIMESTAMP(3) NOT NULL DEFAULT now(3),";
+  private static final String UNIQUE_INDEX = " UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE,";
+  private static final String UPDATE_LOG_INS = "update_log_ins";
+
+  static final List<Migration> MIGRATIONS =
+      List.of(
+          new Migration(
+              1,
+              "Create the tables",
+              "CREATE SCHEMA IF NOT EXISTS teacup_visualization",
+              createAccount(),
+              createRole(),
+              insertRoles(),
+              createAccountRole(),
+              createLogIns(),
+              createLogIn(),
+              createPasswordHistory(),
+              createRecover(),
+              createStatusHistory(),
+              createVerified()),
+          new Migration(
+              2,
+              "Create the procedures",
+              dropProcedure("insert_log_in"),
+              dropProcedure(SELECT_LOG_IN),
+              createSelectLogIn(),
+              dropProcedure(SIGN_UP),
+              createSignUp(SIGN_UP, "", ""),
+              dropProcedure(UPDATE_LOG_INS),
+              createUpdateLogIns()),
+          new Migration(
+              3,
+              "Create the sign up that returns the account id",
+              dropProcedure(SIGN_UP_V2),
+              createSignUp(
+                  SIGN_UP_V2,
+                  ", OUT out_account INT UNSIGNED",
+                  "  SET out_account = account_id;")));
+
+  static String dropIndex(String table, String index) {
+    return "ALTER TABLE `teacup_visualization`.`"
+        + table
+        + "` DROP INDEX `"
+        + index
+        + "`, ALGORITHM=INPLACE, LOCK=NONE";
+  }
+
+  private static String createAccount() {
+    return CREATE_TABLE
+        + ".`account` ("
+        + "  `email` VARCHAR(45) NOT NULL,"
+        + "  `first_name` VARCHAR(45) NOT NULL,"
+        + ID
+        + "  `last_name` VARCHAR(45) NOT NULL,"
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  UNIQUE INDEX `email_UNIQUE` (`email` ASC) VISIBLE);";
+  }
+
+  private static String createAccountRole() {
+    return CREATE_TABLE
+        + ".`account_role` ("
+        + ACCOUNT
+        + ID
+        + "  `role` INT UNSIGNED NOT NULL DEFAULT 3,"
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  INDEX `account_role.account_idx` (`account` ASC) VISIBLE,"
+        + "  INDEX `account_role.role_idx` (`role` ASC) VISIBLE,"
+        + "  CONSTRAINT `account_role.account`"
+        + FOREIGN_KEY_ACCOUNT
+        + ','
+        + "  CONSTRAINT `account_role.role`"
+        + "    FOREIGN KEY (`role`)"
+        + "    REFERENCES `teacup_visualization`.`role` (`id`)"
+        + NO_ACTION;
+  }
+
+  private static String createLogIn() {
+    return CREATE_TABLE
+        + ".`log_in` ("
+        + ID
+        + IP
+        + "  `log_ins` INT UNSIGNED NOT NULL,"
+        + "  `successful` TINYINT(1) UNSIGNED NOT NULL,"
+        + TIME
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  INDEX `log_in.log_ins_idx` (`log_ins` ASC) VISIBLE,"
+        + "  CONSTRAINT `log_in.log_ins`"
+        + "    FOREIGN KEY (`log_ins`)"
+        + "    REFERENCES `teacup_visualization`.`log_ins` (`id`)"
+        + NO_ACTION;
+  }
+
+  private static String createLogIns() {
+    return CREATE_TABLE
+        + ".`log_ins` ("
+        + ACCOUNT
+        + ID
+        + "  `unsuccessful` INT UNSIGNED NOT NULL DEFAULT 0,"
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  UNIQUE INDEX `account_UNIQUE` (`account` ASC) VISIBLE,"
+        + "  CONSTRAINT `log_ins.account`"
+        + FOREIGN_KEY_ACCOUNT
+        + END;
+  }
+
+  private static String createPasswordHistory() {
+    return CREATE_TABLE
+        + ".`password_history` ("
+        + ACCOUNT
+        + "  `authorized` TINYINT(1) UNSIGNED NOT NULL,"
+        + ID
+        + IP
+        + "  `password` CHAR(60) BINARY NOT NULL,"
+        + TIME
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  INDEX `password_history.account_idx` (`account` ASC) VISIBLE,"
+        + "  CONSTRAINT `password_history.account`"
+        + FOREIGN_KEY_ACCOUNT
+        + END;
+  }
+
+  private static String createProcedure(String name, String definition) {
+    return "CREATE PROCEDURE `teacup_visualization`.`" + name + '`' + definition;
+  }
+
+  private static String createRecover() {
+    return CREATE_TABLE
+        + ".`recover` ("
+        + ACCOUNT
+        + ID
+        + IP
+        + TIME
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  INDEX `recover.account_idx` (`account` ASC) VISIBLE,"
+        + "  CONSTRAINT `recover.account`"
+        + FOREIGN_KEY_ACCOUNT
+        + END;
+  }
+
+  private static String createRole() {
+    return CREATE_TABLE
+        + ".`role` ("
+        + ID
+        + "  `name` VARCHAR(45) NOT NULL,"
+        + PRIMARY_KEY
+        + "  UNIQUE INDEX `name_UNIQUE` (`name` ASC) VISIBLE,"
+        + "  UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE);";
+  }
+
+  private static String createSelectLogIn() {
+    return createProcedure(
+        SELECT_LOG_IN,
+        "(IN in_email VARCHAR(45))"
+            + " READS SQL DATA"
+            + " SELECT `account`.email, `account`.first_name, `account`.id, `account`.last_name,"
+            + "  `password_history`.password, IFNULL(`log_ins`.unsuccessful, 0) AS unsuccessful"
+            + "  FROM `account`"
+            + "  INNER JOIN `password_history` ON `account`.id = `password_history`.account"
+            + "  LEFT JOIN `log_ins` ON `account`.id = `log_ins`.account"
+            + "  WHERE `account`.email = in_email"
+            + "  ORDER BY `password_history`.id DESC LIMIT 1");
+  }
+
+  private static String createSignUp(String name, String parameters, String statements) {
+    return createProcedure(
+        name,
+        "(IN in_email VARCHAR(45), IN in_first_name VARCHAR(45), IN in_last_name VARCHAR(45),"
+            + " IN in_ip VARCHAR(39), IN in_password CHAR(60)"
+            + parameters
+            + ')'
+            + " MODIFIES SQL DATA"
+            + " BEGIN"
+            + "  DECLARE account_id INT UNSIGNED;"
+            + "  DECLARE EXIT HANDLER FOR SQLEXCEPTION BEGIN ROLLBACK; RESIGNAL; END;"
+            + "  START TRANSACTION;"
+            + "  INSERT INTO `account`(email, first_name, last_name)"
+            + "   VALUES(in_email, in_first_name, in_last_name);"
+            + "  SET account_id = LAST_INSERT_ID();"
+            + "  INSERT INTO `password_history`(account, authorized, ip, password)"
+            + "   VALUES(account_id, 0, in_ip, in_password);"
+            + "  INSERT INTO `account_role` SET account = account_id;"
+            + "  INSERT INTO `status_history` SET account = account_id;"
+            + "  COMMIT;"
+            + statements
+            + " END");
+  }
+
+  private static String createStatusHistory() {
+    return CREATE_TABLE
+        + ".`status_history` ("
+        + ACCOUNT
+        + ID
+        + "  `status` ENUM('active', 'banned', 'inactive') NOT NULL DEFAULT 'active',"
+        + TIME
+        + PRIMARY_KEY
+        + UNIQUE_INDEX
+        + "  INDEX `status_history.account_idx` (`account` ASC) VISIBLE,"
+        + "  CONSTRAINT `status_history.account`"
+        + FOREIGN_KEY_ACCOUNT
+        + END;
+  }
+
+  private static String createUpdateLogIns() {
+    return createProcedure(
+        UPDATE_LOG_INS,
+        "(IN in_account INT UNSIGNED, IN in_successful TINYINT(1), IN in_maximum INT UNSIGNED)"
+            + " MODIFIES SQL DATA"
+            + " BEGIN"
+            + "  DECLARE log_ins_id INT UNSIGNED;"
+            + "  DECLARE log_ins_unsuccessful INT UNSIGNED;"
+            + "  DECLARE EXIT HANDLER FOR SQLEXCEPTION BEGIN ROLLBACK; RESIGNAL; END;"
+            + "  START TRANSACTION;"
+            + "  INSERT INTO `log_ins`(account, unsuccessful)"
+            + "   VALUES(in_account, IF(in_successful, 0, 1)) ON DUPLICATE KEY UPDATE"
+            + "   unsuccessful = IF(unsuccessful >= in_maximum, in_maximum + 1,"
+            + "    IF(in_successful, 0, unsuccessful + 1));"
+            + "  SELECT id, unsuccessful INTO log_ins_id, log_ins_unsuccessful FROM `log_ins`"
+            + "   WHERE account = in_account;"
+            + "  COMMIT;"
+            + "  SELECT log_ins_id AS log_ins, log_ins_unsuccessful <= in_maximum AS permitted;"
+            + " END");
+  }
+
+  private static String createVerified() {
+    return CREATE_TABLE
+        + ".`verified` ("
+        + ACCOUNT
+        + ID
+        + IP
+        + TIME
+        + PRIMARY_KEY
+        + "  UNIQUE INDEX `account_UNIQUE` (`account` ASC) VISIBLE,"
+        + UNIQUE_INDEX
+        + "  CONSTRAINT `verified.account`"
+        + FOREIGN_KEY_ACCOUNT
+        + END;
+  }
+
+  private static String dropProcedure(String name) {
+    return "DROP PROCEDURE IF EXISTS `teacup_visualization`.`" + name + '`';
+  }
+
+  private static String insertRoles() {
+    return "INSERT INTO `teacup_visualization`.`role`(name) VALUES('admin'), ('super'), ('user') ON DUPLICATE KEY UPDATE id=id";
+  }
+}
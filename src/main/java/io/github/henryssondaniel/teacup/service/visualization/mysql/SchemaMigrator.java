@@ -0,0 +1,245 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+/**
+ * Brings the database schema up to date. The applied migrations are read with one SELECT, and
+ * nothing else is done when all of them are applied with the same checksums. Otherwise the
+ * migrations are applied under a named lock, so that only one node migrates during a rolling
+ * deploy, and each applied migration is recorded in the schema version table.
+ *
+ * <p>A migration that was applied with another checksum stops the migration. Versions that this
+ * node does not know of are ignored, since they were applied by a newer node.
+ *
+ * <p>A statement that drops an index is skipped when the index is not in the information schema, so
+ * a migration that was interrupted after some of its indexes were dropped can be applied again. Any
+ * other error stops the migration.
+ *
+ * <p>Once started, the migration runs in the background, and a migration that fails, like when the
+ * database is down at boot, is retried after the retry interval until it succeeds or the migrator
+ * is closed.
+ *
+ * @since 1.0
+ */
+final class SchemaMigrator implements AutoCloseable {
+  private static final int BAD_DATABASE = 1049;
+  private static final Pattern DROP_INDEX =
+      Pattern.compile("ALTER TABLE `teacup_visualization`\\.`([^`]+)` DROP INDEX `([^`]+)`.*");
+  private static final String LOCK = "teacup_visualization.schema_version";
+  private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+  private static final int NO_SUCH_TABLE = 1146;
+  private static final String SCHEMA_VERSION = "`teacup_visualization`.`schema_version`";
+  private static final long TERMINATION_TIMEOUT = 30L;
+
+  private final DataSource dataSource;
+  private final long lockTimeout;
+  private final CompletableFuture<Void> migrated = new CompletableFuture<>();
+  private final List<Migration> migrations;
+  private final long retryInterval;
+  private final ScheduledExecutorService scheduledExecutorService =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            var thread = new Thread(runnable, "teacup-mysql-schema");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  SchemaMigrator(
+      DataSource dataSource, List<Migration> migrations, long lockTimeout, long retryInterval) {
+    this.dataSource = dataSource;
+    this.lockTimeout = lockTimeout;
+    this.migrations = List.copyOf(migrations);
+    this.retryInterval = retryInterval;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    LOGGER.log(Level.FINE, "Close");
+
+    scheduledExecutorService.shutdownNow();
+
+    if (!scheduledExecutorService.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS))
+      LOGGER.log(Level.WARNING, "The migration did not finish in time");
+  }
+
+  boolean migrate() {
+    LOGGER.log(Level.FINE, "Migrate");
+
+    var current = false;
+
+    try (var connection = dataSource.getConnection()) {
+      current = isCurrent(selectVersions(connection));
+
+      if (!current) {
+        lock(connection);
+
+        try {
+          migrate(connection);
+        } finally {
+          unlock(connection);
+        }
+
+        current = true;
+      }
+    } catch (SQLException e) {
+      LOGGER.log(Level.SEVERE, "Could not migrate the database", e);
+    }
+
+    return current;
+  }
+
+  CompletionStage<Void> start() {
+    schedule(0L);
+    return migrated;
+  }
+
+  private static void createSchemaVersion(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute("CREATE SCHEMA IF NOT EXISTS teacup_visualization");
+      statement.execute(
+          "CREATE TABLE IF NOT EXISTS "
+              + SCHEMA_VERSION
+              + " ("
+              + "  `checksum` BIGINT UNSIGNED NOT NULL,"
+              + "  `description` VARCHAR(200) NOT NULL,"
+              + "  `execution_time` INT UNSIGNED NOT NULL,"
+              + "  `installed` TIMESTAMP(3) NOT NULL DEFAULT now(3),"
+              + "  `version` INT UNSIGNED NOT NULL,"
+              + "  PRIMARY KEY (`version`));");
+    }
+  }
+
+  private static void execute(Connection connection, Migration migration) throws SQLException {
+    LOGGER.log(Level.INFO, "Apply version " + migration.getVersion());
+
+    var start = System.nanoTime();
+
+    try (var statement = connection.createStatement()) {
+      for (var sql : migration.getStatements())
+        if (isDropped(connection, sql)) LOGGER.log(Level.FINE, "The index is already dropped");
+        else statement.execute(sql);
+    }
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO "
+                + SCHEMA_VERSION
+                + "(checksum, description, execution_time, version) VALUES(?, ?, ?, ?)")) {
+      preparedStatement.setLong(1, migration.getChecksum());
+      preparedStatement.setString(2, migration.getDescription());
+      preparedStatement.setLong(3, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      preparedStatement.setInt(4, migration.getVersion());
+
+      preparedStatement.execute();
+    }
+  }
+
+  private boolean isCurrent(Map<Integer, Long> versions) throws SQLException {
+    var current = true;
+
+    for (var migration : migrations) {
+      var checksum = versions.get(migration.getVersion());
+
+      if (checksum == null) current = false;
+      else if (checksum != migration.getChecksum())
+        throw new SQLException(
+            "Version " + migration.getVersion() + " was applied with another checksum");
+    }
+
+    return current;
+  }
+
+  private static boolean isDropped(Connection connection, String sql) throws SQLException {
+    var matcher = DROP_INDEX.matcher(sql);
+    if (!matcher.matches()) return false;
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT 1 FROM information_schema.statistics WHERE table_schema = "
+                + "'teacup_visualization' AND table_name = ? AND index_name = ? LIMIT 1")) {
+      preparedStatement.setString(1, matcher.group(1));
+      preparedStatement.setString(2, matcher.group(2));
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return !resultSet.next();
+      }
+    }
+  }
+
+  private void lock(Connection connection) throws SQLException {
+    try (var preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.setLong(2, lockTimeout);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        if (!resultSet.next() || resultSet.getInt(1) != 1)
+          throw new SQLException("Could not acquire the migration lock");
+      }
+    }
+  }
+
+  private void migrate(Connection connection) throws SQLException {
+    createSchemaVersion(connection);
+
+    var versions = selectVersions(connection);
+    isCurrent(versions);
+
+    for (var migration : migrations)
+      if (!versions.containsKey(migration.getVersion())) execute(connection, migration);
+  }
+
+  private void run() {
+    if (migrate()) migrated.complete(null);
+    else schedule(retryInterval);
+  }
+
+  private void schedule(long delay) {
+    try {
+      scheduledExecutorService.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      LOGGER.log(Level.FINE, "The migrator is closed", e);
+    }
+  }
+
+  private static Map<Integer, Long> selectVersions(Connection connection) throws SQLException {
+    Map<Integer, Long> versions = new HashMap<>(8);
+
+    try (var preparedStatement =
+            connection.prepareStatement("SELECT checksum, version FROM " + SCHEMA_VERSION);
+        var resultSet = preparedStatement.executeQuery()) {
+      while (resultSet.next())
+        versions.put(resultSet.getInt("version"), resultSet.getLong("checksum"));
+    } catch (SQLException e) {
+      if (e.getErrorCode() != BAD_DATABASE && e.getErrorCode() != NO_SUCH_TABLE) throw e;
+      LOGGER.log(Level.FINE, "The schema version table does not exist", e);
+    }
+
+    return versions;
+  }
+
+  private static void unlock(Connection connection) {
+    try (var preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      preparedStatement.setString(1, LOCK);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        LOGGER.log(Level.FINEST, "Released the migration lock: " + resultSet.next());
+      }
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not release the migration lock", e);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the resource methods that the {@link DeadlineFilter} starts a deadline for.
+ *
+ * @since 1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface TimeLimited {}
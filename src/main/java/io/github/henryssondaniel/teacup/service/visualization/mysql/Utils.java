@@ -2,9 +2,13 @@ package io.github.henryssondaniel.teacup.service.visualization.mysql;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
 import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import javax.sql.DataSource;
 
 /**
@@ -20,7 +24,13 @@ public enum Utils {
   private static final Properties PROPERTIES = Factory.getProperties();
 
   /**
-   * Creates new MySQL data source.
+   * Creates new MySQL data source. The data source is backed by a bounded connection pool, sized by
+   * the visualization.mysql.pool.* properties, and its JDBC work is recorded in the metrics. The
+   * statements slower than visualization.mysql.jdbc.slow.threshold milliseconds are logged. A
+   * circuit breaker refuses the connections for visualization.mysql.circuit.open.interval
+   * milliseconds after visualization.mysql.circuit.failure.threshold consecutive failures. The
+   * connects and the socket reads time out after visualization.mysql.connect.timeout and
+   * visualization.mysql.socket.timeout milliseconds. Close it when it is no longer used.
    *
    * @return the data source
    * @since 1.0
@@ -33,6 +43,56 @@ public enum Utils {
     mysqlDataSource.setServerName(PROPERTIES.getProperty(MYSQL_PROPERTY + "server.name"));
     mysqlDataSource.setUser(PROPERTIES.getProperty(MYSQL_PROPERTY + "user"));
 
-    return mysqlDataSource;
+    try {
+      mysqlDataSource.setConnectTimeout(getInt("connect.timeout", 5_000));
+      mysqlDataSource.setRewriteBatchedStatements(true);
+      mysqlDataSource.setSocketTimeout(getInt("socket.timeout", 60_000));
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not configure the MySQL data source", e);
+    }
+
+    var metrics = Metrics.getInstance();
+
+    return new CircuitBreakerDataSource(
+        new InstrumentedDataSource(
+            new ConnectionPool(
+                mysqlDataSource,
+                getInt("pool.size.minimum", 2),
+                getInt("pool.size.maximum", 10),
+                getLong("pool.timeout.idle", 600_000L),
+                getLong("pool.timeout.wait", 30_000L),
+                getLong("pool.validation.interval", 500L)),
+            metrics,
+            getLong("jdbc.slow.threshold", 0L),
+            getInt("jdbc.slow.sample", 1)),
+        metrics,
+        getInt("circuit.failure.threshold", 5),
+        getLong("circuit.open.interval", 5_000L));
+  }
+
+  static double getDouble(String key, double defaultValue) {
+    var value = PROPERTIES.getProperty(MYSQL_PROPERTY + key);
+    return value == null ? defaultValue : Double.parseDouble(value.trim());
+  }
+
+  static int getInt(String key, int defaultValue) {
+    var value = PROPERTIES.getProperty(MYSQL_PROPERTY + key);
+    return value == null ? defaultValue : Integer.parseInt(value.trim());
+  }
+
+  static long getLong(String key, long defaultValue) {
+    var value = PROPERTIES.getProperty(MYSQL_PROPERTY + key);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  static Set<String> getSet(String key) {
+    var value = PROPERTIES.getProperty(MYSQL_PROPERTY + key);
+
+    return value == null
+        ? Set.of()
+        : Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(element -> !element.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
   }
 }
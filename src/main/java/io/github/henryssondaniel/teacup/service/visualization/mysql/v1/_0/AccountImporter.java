@@ -0,0 +1,325 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import javax.ws.rs.core.Response.Status;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Imports accounts from a JSON array. The array is read one element at a time. The passwords of a
+ * chunk are hashed in parallel on the import executor, which is not the hashing executor of the
+ * endpoints, so an import does not queue in front of the log ins. The chunk is written in one
+ * transaction with batched INSERTs. Every element gets a result with the status it would have got
+ * from sign up, and the results of a chunk are written out as soon as the chunk is done, so neither
+ * the accounts nor the results are held in memory.
+ *
+ * <p>An element that is not a valid account, like one with an email that does not fit in its
+ * column, gets 400 on its own and is not written. A duplicate email within a chunk gets 409, and
+ * one of an earlier chunk gets 409 from the accounts that the chunk finds in the database, so the
+ * emails are only kept for one chunk. An element that cannot be read stops the import with a result
+ * with 400 for it, and the elements before it keep their results. The emails of the imported and
+ * the existing accounts are added to the email filter.
+ *
+ * @since 1.0
+ */
+final class AccountImporter {
+  private static final int CHUNK_SIZE = 100;
+  private static final String EMAIL = "email";
+  private static final String IMPORT = "import";
+  private static final String INSERT = "INSERT INTO `teacup_visualization`.";
+  private static final Logger LOGGER = Logger.getLogger(AccountImporter.class.getName());
+  private static final int MAXIMUM_LENGTH = 45;
+
+  private final DataSource dataSource;
+  private final EmailFilter emailFilter;
+  private final Set<String> emails = new HashSet<>(CHUNK_SIZE);
+  private final HashingExecutor importExecutor;
+  private final String ip;
+  private final JSONTokener jsonTokener;
+
+  private int results;
+
+  AccountImporter(
+      DataSource dataSource,
+      EmailFilter emailFilter,
+      HashingExecutor importExecutor,
+      String ip,
+      Reader reader) {
+    this.dataSource = dataSource;
+    this.emailFilter = emailFilter;
+    this.importExecutor = importExecutor;
+    this.ip = ip;
+    jsonTokener = new JSONTokener(reader);
+  }
+
+  void importAccounts(Writer writer) throws IOException {
+    LOGGER.log(Level.FINE, "Import accounts");
+
+    writer.write('[');
+
+    List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+    try {
+      if (jsonTokener.nextClean() != ']') {
+        jsonTokener.back();
+
+        char next;
+        do {
+          chunk.add(createRow(results + chunk.size(), jsonTokener.nextValue()));
+
+          if (chunk.size() == CHUNK_SIZE) importChunk(chunk, writer);
+
+          next = jsonTokener.nextClean();
+        } while (next == ',');
+
+        if (next != ']') throw jsonTokener.syntaxError("Expected a ',' or ']'");
+      }
+
+      importChunk(chunk, writer);
+    } catch (JSONException e) {
+      LOGGER.log(Level.WARNING, "Could not read the accounts", e);
+      importChunk(chunk, writer);
+
+      var row = new Row(results);
+      row.status = Status.BAD_REQUEST;
+      write(row, writer);
+    }
+
+    writer.write(']');
+  }
+
+  void start() {
+    if (jsonTokener.nextClean() != '[')
+      throw jsonTokener.syntaxError("A JSON array text must start with '['");
+  }
+
+  private Row createRow(int index, Object value) {
+    var row = new Row(index);
+
+    if (value instanceof JSONObject) {
+      var jsonObject = (JSONObject) value;
+
+      try {
+        row.email = jsonObject.getString(EMAIL);
+        row.firstName = jsonObject.getString("firstName");
+        row.lastName = jsonObject.getString("lastName");
+        row.password = jsonObject.getString("password");
+
+        if (isTooLong(row.email) || isTooLong(row.firstName) || isTooLong(row.lastName))
+          row.status = Status.BAD_REQUEST;
+        else if (!emails.add(row.email.toLowerCase(Locale.ROOT))) row.status = Status.CONFLICT;
+      } catch (JSONException e) {
+        LOGGER.log(Level.FINE, "Invalid account", e);
+        row.status = Status.BAD_REQUEST;
+      }
+    } else row.status = Status.BAD_REQUEST;
+
+    return row;
+  }
+
+  private void hash(Iterable<Row> chunk) {
+    Map<Row, CompletableFuture<String>> hashes = new HashMap<>(CHUNK_SIZE);
+
+    for (var row : chunk)
+      if (row.status == null)
+        hashes.put(
+            row,
+            importExecutor
+                .supply(IMPORT, () -> BCrypt.hashpw(row.password, BCrypt.gensalt()))
+                .toCompletableFuture());
+
+    for (var entry : hashes.entrySet()) {
+      var row = entry.getKey();
+
+      try {
+        row.hash = entry.getValue().join();
+      } catch (CompletionException e) {
+        LOGGER.log(Level.WARNING, "Could not hash the password", e);
+        row.status =
+            e.getCause() instanceof RejectedExecutionException
+                ? Status.SERVICE_UNAVAILABLE
+                : Status.INTERNAL_SERVER_ERROR;
+      }
+    }
+  }
+
+  private void importChunk(Collection<Row> chunk, Writer writer) throws IOException {
+    if (chunk.isEmpty()) return;
+
+    hash(chunk);
+
+    var pending = chunk.stream().filter(row -> row.status == null).collect(Collectors.toList());
+
+    if (!pending.isEmpty())
+      try (var connection = dataSource.getConnection()) {
+        insert(connection, pending);
+      } catch (SQLException e) {
+        LOGGER.log(Level.SEVERE, "Could not import " + pending.size() + " accounts", e);
+        for (var row : pending) if (row.status == null) row.status = Status.INTERNAL_SERVER_ERROR;
+      }
+
+    for (var row : chunk) {
+      if (row.status == Status.OK || row.status == Status.CONFLICT) emailFilter.add(row.email);
+      write(row, writer);
+    }
+
+    writer.flush();
+
+    chunk.clear();
+    emails.clear();
+  }
+
+  private void insert(Connection connection, List<Row> rows) throws SQLException {
+    connection.setAutoCommit(false);
+
+    try {
+      var existing = selectIds(connection, rows);
+      for (var row : rows) if (existing.containsKey(key(row))) row.status = Status.CONFLICT;
+
+      var accounts = rows.stream().filter(row -> row.status == null).collect(Collectors.toList());
+
+      if (!accounts.isEmpty()) {
+        insertAccounts(connection, accounts);
+
+        var ids = selectIds(connection, accounts);
+        for (var row : accounts) {
+          var id = ids.get(key(row));
+          if (id == null) throw new SQLException("Could not retrieve the account ID");
+
+          row.id = id;
+        }
+
+        insertChildRows(connection, accounts, ip);
+      }
+
+      connection.commit();
+
+      for (var row : accounts) row.status = Status.OK;
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private static void insertAccounts(Connection connection, Iterable<Row> rows)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            INSERT + "`account`(email, first_name, last_name) VALUES(?, ?, ?)")) {
+      for (var row : rows) {
+        preparedStatement.setString(1, row.email);
+        preparedStatement.setString(2, row.firstName);
+        preparedStatement.setString(3, row.lastName);
+        preparedStatement.addBatch();
+      }
+
+      preparedStatement.executeBatch();
+    }
+  }
+
+  private static void insertChildRows(Connection connection, Iterable<Row> rows, String ip)
+      throws SQLException {
+    try (var passwordHistory =
+            connection.prepareStatement(
+                INSERT
+                    + "`password_history`(account, authorized, ip, password) VALUES(?, 0, ?, ?)");
+        var accountRole =
+            connection.prepareStatement(INSERT + "`account_role`(account) VALUES(?)");
+        var statusHistory =
+            connection.prepareStatement(INSERT + "`status_history`(account) VALUES(?)")) {
+      for (var row : rows) {
+        passwordHistory.setInt(1, row.id);
+        passwordHistory.setString(2, ip);
+        passwordHistory.setString(3, row.hash);
+        passwordHistory.addBatch();
+
+        accountRole.setInt(1, row.id);
+        accountRole.addBatch();
+
+        statusHistory.setInt(1, row.id);
+        statusHistory.addBatch();
+      }
+
+      passwordHistory.executeBatch();
+      accountRole.executeBatch();
+      statusHistory.executeBatch();
+    }
+  }
+
+  private static boolean isTooLong(String value) {
+    return value.codePointCount(0, value.length()) > MAXIMUM_LENGTH;
+  }
+
+  private static String key(Row row) {
+    return row.email.toLowerCase(Locale.ROOT);
+  }
+
+  private static Map<String, Integer> selectIds(Connection connection, List<Row> rows)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT email, id FROM `teacup_visualization`.`account` WHERE email IN (?"
+                + ", ?".repeat(rows.size() - 1)
+                + ')')) {
+      for (var index = 0; index < rows.size(); index++)
+        preparedStatement.setString(index + 1, rows.get(index).email);
+
+      Map<String, Integer> ids = new HashMap<>(rows.size());
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next())
+          ids.put(resultSet.getString(EMAIL).toLowerCase(Locale.ROOT), resultSet.getInt("id"));
+      }
+
+      return ids;
+    }
+  }
+
+  private void write(Row row, Writer writer) throws IOException {
+    if (results++ > 0) writer.write(',');
+
+    writer.write("{\"index\":" + row.index);
+    if (row.email != null) writer.write(",\"email\":" + JSONObject.quote(row.email));
+    writer.write(",\"status\":" + row.status.getStatusCode() + '}');
+  }
+
+  private static final class Row {
+    private final int index;
+    private String email;
+    private String firstName;
+    private String hash;
+    private int id;
+    private String lastName;
+    private String password;
+    private Status status;
+
+    private Row(int index) {
+      this.index = index;
+    }
+  }
+}
@@ -1,111 +1,313 @@
 package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
 
-import static io.github.henryssondaniel.teacup.service.visualization.mysql.Utils.createMySqlDataSource;
-
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AccountCache;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AuditWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Bulkheads;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.ConcurrencyLimited;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.LockoutTable;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics.Phase;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.RequestTrace;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.TimeLimited;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletRequest;
 import javax.sql.DataSource;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.mindrot.jbcrypt.BCrypt;
 
 /**
  * Account resource. Handles account related requests.
  *
+ * <p>The requests that hash passwords are handled in three phases: the account is read with one
+ * connection, the password is hashed on the hashing executor without holding any connection, and
+ * the result is written with a second connection on the writer threads of the hashing executor, so
+ * a slow write does not hold a hashing thread.
+ *
+ * <p>Logging in and signing up use the stored procedures that {@code RestApplication} installs. A
+ * log in reads the latest password and the lockout state with one call and updates the lockout
+ * counter with another. A sign up has no read phase: one call creates the account and its rows in a
+ * single transaction, and a duplicate entry in the unique email index reports an existing account.
+ * Any other constraint violation is a server error.
+ *
+ * <p>The request bodies are read into the request types by the {@link RequestReader}, and the
+ * profile of a log in is written by the {@link ProfileWriter}.
+ *
+ * <p>The time each endpoint spends in the database and on hashing is recorded in the {@link
+ * Metrics}, and the account and the hashing phase of each request in its {@link RequestTrace}.
+ *
+ * <p>The account ids are looked up by email in the {@link AccountCache}, and a sign up caches the
+ * id of the new account. Log ins and recover requests for emails that the {@link EmailFilter} does
+ * not contain are answered without the database.
+ *
+ * <p>An account that has too many unsuccessful log ins is added to the {@link LockoutTable}, so the
+ * later log ins of it are rejected without the database until the lockout expires or the password
+ * is changed. Admin tooling outside of this resource can unlock an account through {@link
+ * LockoutTable#unlock(int)}.
+ *
+ * <p>The rate of log ins and recover requests is limited by client IP and by email by the {@link
+ * RateLimitFilter}, and each endpoint has its own adaptive concurrency limit, so a slow database
+ * sheds requests instead of piling up threads.
+ *
+ * <p>The audit rows of log ins, recover requests and verifications are written behind by the {@link
+ * AuditWriter}.
+ *
+ * <p>The database work of each endpoint is capped by the {@link Bulkheads}. A transient database
+ * error, like a connection that is refused by the circuit breaker or by a full bulkhead, is
+ * answered with 503 and Retry-After, and the other database errors with 500.
+ *
+ * <p>The export reads the accounts in pages of 1000, after the last ID of the previous page, and
+ * holds a connection only while a page is read, so a slow client does not keep a connection and a
+ * slot of the export bulkhead while the response is written.
+ *
+ * <p>The endpoints other than the export and the import are {@link TimeLimited}: their connections
+ * are not waited for and their statements do not run past the deadline of the request, and a
+ * request that runs out of time, like one whose query timed out, is answered with 503.
+ *
  * @since 1.0
  */
+@ConcurrencyLimited
 @Path("{a:v1/account|v1.0/account|account}")
 public class AccountResource {
   private static final String ACCOUNT_WHERE_EMAIL = "`account` WHERE email = ?";
-  private static final String DELETE = "DELETE FROM `teacup_visualization`.";
+  private static final String CHANGE_PASSWORD = "changePassword";
+  private static final int DUPLICATE_ENTRY = 1062;
   private static final String EMAIL = "email";
   private static final String ERROR = "An error occurred during %s";
-  private static final String ERROR_RETRIEVE = "Could not retrieve the %s";
+  private static final String EXPORT = "export";
+  private static final int EXPORT_PAGE = 1_000;
   private static final String ID = "id";
   private static final String INSERT = "INSERT INTO `teacup_visualization`.";
   private static final Logger LOGGER = Logger.getLogger(AccountResource.class.getName());
+  private static final String LOG_IN = "logIn";
+  private static final int MAX_UNSUCCESSFUL = 5;
+  private static final String RECOVER = "recover";
+  private static final int RETRY_AFTER = 1;
   private static final String SECRET = "password";
   private static final String SELECT_ID = "SELECT id FROM `teacup_visualization`.";
+  private static final String SIGN_UP = "signUp";
+  private static final String VERIFY = "verify";
 
+  private final AccountCache accountCache;
+  private final AuditWriter auditWriter;
+  private final Bulkheads bulkheads;
   private final DataSource dataSource;
+  private final EmailFilter emailFilter;
+  private final HashingExecutor hashingExecutor;
+  private final HashingExecutor importExecutor;
+  private final LockoutTable lockoutTable;
+  private final Metrics metrics;
 
   /**
-   * Constructor.
+   * Constructor. The resource is shared by all requests, and so are the account cache, the audit
+   * writer, the bulkheads, the data source, the email filter, the hashing and import executors, the
+   * lockout table and the metrics. The endpoints get their connections from the bulkheads, and the
+   * imports from the data source.
    *
+   * @param accountCache the cache of the account ids
+   * @param auditWriter the writer for the audit rows
+   * @param bulkheads the bulkheads of the database work
+   * @param dataSource the data source
+   * @param emailFilter the filter of the emails of the accounts
+   * @param hashingExecutor the executor for the password hashing
+   * @param importExecutor the executor for the password hashing of the imports
+   * @param lockoutTable the table of the locked accounts
+   * @param metrics the metrics
    * @since 1.0
    */
-  public AccountResource() {
-    this(createMySqlDataSource());
-  }
-
-  AccountResource(DataSource dataSource) {
+  public AccountResource(
+      AccountCache accountCache,
+      AuditWriter auditWriter,
+      Bulkheads bulkheads,
+      DataSource dataSource,
+      EmailFilter emailFilter,
+      HashingExecutor hashingExecutor,
+      HashingExecutor importExecutor,
+      LockoutTable lockoutTable,
+      Metrics metrics) {
+    this.accountCache = accountCache;
+    this.auditWriter = auditWriter;
+    this.bulkheads = bulkheads;
     this.dataSource = dataSource;
+    this.emailFilter = emailFilter;
+    this.hashingExecutor = hashingExecutor;
+    this.importExecutor = importExecutor;
+    this.lockoutTable = lockoutTable;
+    this.metrics = metrics;
   }
 
   @Consumes(MediaType.APPLICATION_JSON)
   @POST
-  @Path("changePassword")
-  public Response changePassword(String data, @Context HttpServletRequest httpServletRequest) {
+  @Path(CHANGE_PASSWORD)
+  @TimeLimited
+  public void changePassword(
+      ChangePasswordRequest changePasswordRequest,
+      @Context HttpServletRequest httpServletRequest,
+      @Suspended AsyncResponse asyncResponse) {
     LOGGER.log(Level.FINE, "Change password");
 
-    ResponseBuilder responseBuilder;
+    var ip = getIp(httpServletRequest);
 
-    try (var connection = dataSource.getConnection()) {
-      responseBuilder = changePassword(connection, data, httpServletRequest);
+    try {
+      var id = getId(CHANGE_PASSWORD, changePasswordRequest.getEmail());
+
+      if (id.isPresent())
+        resume(
+            asyncResponse,
+            supply(
+                CHANGE_PASSWORD,
+                () -> hash(changePasswordRequest.getPassword()),
+                password ->
+                    insertPasswordHistory(
+                        changePasswordRequest.isAuthorized(), id.getAsInt(), ip, password)));
+      else asyncResponse.resume(Response.status(Status.NO_CONTENT).build());
     } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, String.format(ERROR, "change password"), e);
-      responseBuilder = Response.serverError();
+      asyncResponse.resume(serverError("change password", e).build());
     }
+  }
 
-    return responseBuilder.build();
+  @GET
+  @Path(EXPORT)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response exportAccounts() {
+    LOGGER.log(Level.FINE, "Export accounts");
+
+    return Response.ok((StreamingOutput) this::exportAccounts).build();
   }
 
   @Consumes(MediaType.APPLICATION_JSON)
   @POST
-  @Path("logIn")
+  @Path("import")
   @Produces(MediaType.APPLICATION_JSON)
-  public Response logIn(String data, @Context HttpServletRequest httpServletRequest) {
+  public Response importAccounts(
+      InputStream inputStream, @Context HttpServletRequest httpServletRequest) {
+    LOGGER.log(Level.FINE, "Import accounts");
+
+    var accountImporter =
+        new AccountImporter(
+            dataSource,
+            emailFilter,
+            importExecutor,
+            getIp(httpServletRequest),
+            new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+    try {
+      accountImporter.start();
+    } catch (JSONException e) {
+      LOGGER.log(Level.WARNING, "Could not read the accounts", e);
+      return Response.status(Status.BAD_REQUEST).entity("[]").build();
+    }
+
+    return Response.ok(
+            (StreamingOutput)
+                outputStream -> {
+                  var writer =
+                      new BufferedWriter(
+                          new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+                  accountImporter.importAccounts(writer);
+                  writer.flush();
+                })
+        .build();
+  }
+
+  @Consumes(MediaType.APPLICATION_JSON)
+  @POST
+  @Path(LOG_IN)
+  @Produces(MediaType.APPLICATION_JSON)
+  @RateLimited
+  @TimeLimited
+  public void logIn(
+      LogInRequest logInRequest,
+      @Context HttpServletRequest httpServletRequest,
+      @Suspended AsyncResponse asyncResponse) {
     LOGGER.log(Level.FINE, "Log in");
 
-    ResponseBuilder responseBuilder;
+    var ip = getIp(httpServletRequest);
 
-    try (var connection = dataSource.getConnection()) {
-      responseBuilder = logIn(connection, data, httpServletRequest);
+    try {
+      var email = logInRequest.getEmail();
+      var locked = isLocked(email);
+      var logIn = locked || !emailFilter.mightContain(email) ? null : selectLogIn(email);
+
+      if (locked) asyncResponse.resume(Response.status(Status.NOT_ACCEPTABLE).build());
+      else if (logIn == null) asyncResponse.resume(Response.status(Status.UNAUTHORIZED).build());
+      else if (logIn.unsuccessful >= MAX_UNSUCCESSFUL) {
+        lock(logIn);
+        asyncResponse.resume(Response.status(Status.NOT_ACCEPTABLE).build());
+      } else
+        resume(
+            asyncResponse,
+            supply(
+                LOG_IN,
+                () -> BCrypt.checkpw(logInRequest.getPassword(), logIn.password),
+                match -> updateLogIns(ip, logIn, match)));
     } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, String.format(ERROR, "log in"), e);
-      responseBuilder = Response.serverError();
+      asyncResponse.resume(serverError("log in", e).build());
     }
-
-    return responseBuilder.build();
   }
 
   @Consumes(MediaType.APPLICATION_JSON)
   @POST
-  @Path("recover")
-  public Response recover(String data, @Context HttpServletRequest httpServletRequest) {
+  @Path(RECOVER)
+  @RateLimited
+  @TimeLimited
+  public Response recover(
+      EmailRequest emailRequest, @Context HttpServletRequest httpServletRequest) {
     LOGGER.log(Level.FINE, "Recover");
 
     ResponseBuilder responseBuilder;
 
-    try (var connection = dataSource.getConnection()) {
-      responseBuilder = recover(connection, data, httpServletRequest);
+    try {
+      var email = emailRequest.getEmail();
+      var id = emailFilter.mightContain(email) ? getId(RECOVER, email) : OptionalInt.empty();
+
+      if (id.isPresent()) {
+        auditWriter.recover(id.getAsInt(), getIp(httpServletRequest));
+        responseBuilder = Response.ok();
+      } else responseBuilder = Response.status(Status.NO_CONTENT);
     } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, String.format(ERROR, "recover"), e);
-      responseBuilder = Response.serverError();
+      responseBuilder = serverError("recover", e);
     }
 
     return responseBuilder.build();
@@ -113,52 +315,118 @@ public class AccountResource {
 
   @Consumes(MediaType.APPLICATION_JSON)
   @POST
-  @Path("signUp")
-  public Response signUp(String data, @Context HttpServletRequest httpServletRequest) {
+  @Path(SIGN_UP)
+  @TimeLimited
+  public void signUp(
+      SignUpRequest signUpRequest,
+      @Context HttpServletRequest httpServletRequest,
+      @Suspended AsyncResponse asyncResponse) {
     LOGGER.log(Level.FINE, "Sign up");
 
-    ResponseBuilder responseBuilder;
-
-    try (var connection = dataSource.getConnection()) {
-      responseBuilder = signUp(connection, data, httpServletRequest);
-    } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, String.format(ERROR, "sign up"), e);
-      responseBuilder = Response.serverError();
-    }
+    var ip = getIp(httpServletRequest);
 
-    return responseBuilder.build();
+    resume(
+        asyncResponse,
+        supply(
+            SIGN_UP,
+            () -> hash(signUpRequest.getPassword()),
+            password -> insertAccount(ip, signUpRequest, password)));
   }
 
   @Consumes(MediaType.APPLICATION_JSON)
   @POST
-  @Path("verify")
+  @Path(VERIFY)
   @Produces(MediaType.APPLICATION_JSON)
-  public Response verify(String data, @Context HttpServletRequest httpServletRequest) {
+  @TimeLimited
+  public Response verify(
+      EmailRequest emailRequest, @Context HttpServletRequest httpServletRequest) {
     LOGGER.log(Level.FINE, "Verify");
 
     ResponseBuilder responseBuilder;
 
-    try (var connection = dataSource.getConnection()) {
-      responseBuilder = verify(connection, data, httpServletRequest);
+    try {
+      var id = getId(VERIFY, emailRequest.getEmail());
+
+      if (id.isPresent()) {
+        auditWriter.verified(id.getAsInt(), getIp(httpServletRequest));
+        responseBuilder = Response.ok();
+      } else responseBuilder = Response.status(Status.NO_CONTENT);
     } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, String.format(ERROR, "verify"), e);
-      responseBuilder = Response.serverError();
+      responseBuilder = serverError("verify", e);
     }
 
     return responseBuilder.build();
   }
 
-  private static ResponseBuilder changePassword(
-      Connection connection, String data, HttpServletRequest httpServletRequest)
-      throws SQLException {
-    try (var preparedStatement = connection.prepareStatement(SELECT_ID + ACCOUNT_WHERE_EMAIL)) {
-      preparedStatement.setString(1, new JSONObject(data).getString(EMAIL));
+  private void exportAccounts(OutputStream outputStream) throws IOException {
+    var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    writer.write('[');
+
+    try {
+      var after = 0;
+      var first = true;
+      List<JSONObject> accounts;
+
+      do {
+        accounts = exportAccounts(after);
+
+        for (var account : accounts) {
+          if (first) first = false;
+          else writer.write(',');
+
+          account.write(writer);
+        }
 
-      return insertPasswordHistory(connection, data, httpServletRequest, preparedStatement);
+        writer.flush();
+        if (!accounts.isEmpty()) after = accounts.get(accounts.size() - 1).getInt(ID);
+      } while (accounts.size() == EXPORT_PAGE);
+    } catch (SQLException e) {
+      LOGGER.log(
+          e instanceof SQLTransientException ? Level.FINE : Level.SEVERE,
+          String.format(ERROR, "export"),
+          e);
+      throw new IOException("Could not export the accounts", e);
     }
+
+    writer.write(']');
+    writer.flush();
+  }
+
+  private List<JSONObject> exportAccounts(int after) throws SQLException {
+    List<JSONObject> accounts = new ArrayList<>(EXPORT_PAGE);
+
+    try (var connection = bulkheads.getConnection(EXPORT);
+        var preparedStatement =
+            connection.prepareStatement(
+                "SELECT `account`.id, email, first_name, last_name, status, "
+                    + "`status_history`.time AS status_time, `verified`.time AS verified_time "
+                    + "FROM `teacup_visualization`.`account` LEFT JOIN "
+                    + "`teacup_visualization`.`status_history` ON `status_history`.id = "
+                    + "(SELECT MAX(id) FROM `teacup_visualization`.`status_history` WHERE "
+                    + "account = `account`.id) LEFT JOIN `teacup_visualization`.`verified` ON "
+                    + "`verified`.account = `account`.id WHERE `account`.id > ? "
+                    + "ORDER BY `account`.id LIMIT ?")) {
+      preparedStatement.setInt(1, after);
+      preparedStatement.setInt(2, EXPORT_PAGE);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next())
+          accounts.add(
+              new JSONObject()
+                  .put(EMAIL, resultSet.getString(EMAIL))
+                  .put("firstName", resultSet.getString("first_name"))
+                  .put(ID, resultSet.getInt(ID))
+                  .put("lastName", resultSet.getString("last_name"))
+                  .put("status", resultSet.getString("status"))
+                  .put("statusTime", toString(resultSet.getTimestamp("status_time")))
+                  .put("verifiedTime", toString(resultSet.getTimestamp("verified_time"))));
+      }
+    }
+
+    return accounts;
   }
 
-  private static String getIp(HttpServletRequest httpServletRequest) {
+  static String getIp(HttpServletRequest httpServletRequest) {
     var ip = httpServletRequest.getHeader("X-Forwarded-For");
 
     if (isNotIp(ip)) ip = httpServletRequest.getHeader("Proxy-Client-IP");
@@ -170,370 +438,254 @@ public class AccountResource {
     return ip;
   }
 
-  private static int getLogInsId(Statement statement) throws SQLException {
-    try (var resultSet = statement.getGeneratedKeys()) {
-      if (resultSet.next()) return resultSet.getInt(1);
-      throw new SQLException(String.format(ERROR_RETRIEVE, "log ins ID"));
-    }
-  }
+  private OptionalInt getId(String endpoint, String email) throws SQLException {
+    var id = accountCache.getId(email, key -> selectId(endpoint, key));
+    id.ifPresent(RequestTrace::setAccount);
 
-  private static ResponseBuilder insertAccount(
-      Connection connection,
-      String email,
-      HttpServletRequest httpServletRequest,
-      JSONObject jsonObject)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            INSERT + "`account`(email, first_name, last_name) VALUES(?, ?, ?)",
-            Statement.RETURN_GENERATED_KEYS)) {
-      preparedStatement.setString(1, email);
-      preparedStatement.setString(2, jsonObject.getString("firstName"));
-      preparedStatement.setString(3, jsonObject.getString("lastName"));
-
-      preparedStatement.execute();
-
-      insertSubAccountRows(connection, httpServletRequest, jsonObject, preparedStatement);
-    }
-
-    return Response.ok();
+    return id;
   }
 
-  private static void insertAccountRole(Connection connection, int id) throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(INSERT + "`account_role` SET account = ?")) {
-      preparedStatement.setInt(1, id);
-      preparedStatement.execute();
-    }
+  private static String hash(String password) {
+    return BCrypt.hashpw(password, BCrypt.gensalt());
   }
 
-  private static void insertLogIn(
-      Connection connection, HttpServletRequest httpServletRequest, int logInsId, int successful)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(INSERT + "`log_in`(ip, log_ins, successful) VALUES(?, ?, ?)")) {
-      preparedStatement.setString(1, getIp(httpServletRequest));
-      preparedStatement.setInt(2, logInsId);
-      preparedStatement.setInt(3, successful);
-
-      preparedStatement.execute();
-    }
-  }
-
-  private static int insertLogIns(Connection connection, int id, boolean match)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            INSERT + "`log_ins`(account, unsuccessful) VALUES(?, ?)",
-            Statement.RETURN_GENERATED_KEYS)) {
-      preparedStatement.setInt(1, id);
-      preparedStatement.setInt(2, match ? 0 : 1);
-
-      preparedStatement.execute();
-
-      return getLogInsId(preparedStatement);
+  private Response insertAccount(String ip, SignUpRequest signUpRequest, String password) {
+    ResponseBuilder responseBuilder;
+    var start = System.nanoTime();
+
+    try (var connection = bulkheads.getConnection(SIGN_UP);
+        var callableStatement =
+            connection.prepareCall(
+                "{CALL `teacup_visualization`.`sign_up_v2`(?, ?, ?, ?, ?, ?)}")) {
+      callableStatement.setString(1, signUpRequest.getEmail());
+      callableStatement.setString(2, signUpRequest.getFirstName());
+      callableStatement.setString(3, signUpRequest.getLastName());
+      callableStatement.setString(4, ip);
+      callableStatement.setString(5, password);
+      callableStatement.registerOutParameter(6, Types.INTEGER);
+
+      callableStatement.execute();
+      accountCache.put(signUpRequest.getEmail(), callableStatement.getInt(6));
+      emailFilter.add(signUpRequest.getEmail());
+
+      responseBuilder = Response.ok();
+    } catch (SQLIntegrityConstraintViolationException e) {
+      if (isDuplicateEmail(e)) {
+        LOGGER.log(Level.FINE, "The account already exists", e);
+        emailFilter.add(signUpRequest.getEmail());
+        responseBuilder = Response.status(Status.CONFLICT);
+      } else responseBuilder = serverError("sign up", e);
+    } catch (SQLException e) {
+      responseBuilder = serverError("sign up", e);
+    } finally {
+      metrics.record(SIGN_UP, Phase.DATABASE, System.nanoTime() - start);
     }
-  }
-
-  private static ResponseBuilder insertLogIns(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      String password,
-      PreparedStatement preparedStatement,
-      ResultSet resultSet)
-      throws SQLException {
-    var id = resultSet.getInt(ID);
-    preparedStatement.setInt(1, id);
-
-    try (var executeQuery = preparedStatement.executeQuery()) {
-      int logInsId;
-      var unsuccessful = 0;
-
-      var match = BCrypt.checkpw(password, resultSet.getString(SECRET));
-
-      if (executeQuery.next()) {
-        logInsId = executeQuery.getInt(ID);
-
-        unsuccessful = executeQuery.getInt("unsuccessful");
-        unsuccessful = match && unsuccessful < 5 ? 0 : unsuccessful + 1;
-
-        if (unsuccessful <= 5) updateLogIns(connection, id, unsuccessful);
-      } else logInsId = insertLogIns(connection, id, match);
-
-      ResponseBuilder responseBuilder;
-
-      if (unsuccessful <= 5) {
-        insertLogIn(connection, httpServletRequest, logInsId, match ? 1 : 0);
 
-        responseBuilder =
-            match
-                ? Response.ok()
-                    .entity(
-                        "{\"email\":\""
-                            + resultSet.getString(EMAIL)
-                            + "\", \"firstName\":\""
-                            + resultSet.getString("first_name")
-                            + "\", \"id\":\""
-                            + id
-                            + "\", \"lastName\":\""
-                            + resultSet.getString("last_name")
-                            + "\"}")
-                : Response.status(Status.UNAUTHORIZED);
-      } else responseBuilder = Response.status(Status.NOT_ACCEPTABLE);
-
-      return responseBuilder;
-    }
+    return responseBuilder.build();
   }
 
-  private static ResponseBuilder insertPasswordHistory(
-      Connection connection,
-      String data,
-      HttpServletRequest httpServletRequest,
-      PreparedStatement preparedStatement)
-      throws SQLException {
+  private Response insertPasswordHistory(boolean authorized, int id, String ip, String password) {
     ResponseBuilder responseBuilder;
+    var start = System.nanoTime();
 
-    try (var resultSet = preparedStatement.executeQuery()) {
-      if (resultSet.next()) {
-        var jsonObject = new JSONObject(data);
-
-        insertPasswordHistory(
-            jsonObject.getBoolean("authorized"),
-            connection,
-            httpServletRequest,
-            resultSet.getInt(ID),
-            jsonObject);
+    try (var connection = bulkheads.getConnection(CHANGE_PASSWORD)) {
+      insertPasswordHistory(authorized, connection, ip, id, password);
+      lockoutTable.unlock(id);
 
-        responseBuilder = Response.ok();
-      } else responseBuilder = Response.status(Status.NO_CONTENT);
+      responseBuilder = Response.ok();
+    } catch (SQLException e) {
+      responseBuilder = serverError("change password", e);
+    } finally {
+      metrics.record(CHANGE_PASSWORD, Phase.DATABASE, System.nanoTime() - start);
     }
 
-    return responseBuilder;
+    return responseBuilder.build();
   }
 
   private static void insertPasswordHistory(
-      boolean authorized,
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      int id,
-      JSONObject jsonObject)
+      boolean authorized, Connection connection, String ip, int id, String password)
       throws SQLException {
     try (var preparedStatement =
         connection.prepareStatement(
             INSERT + "`password_history`(account, authorized, ip, password) VALUES(?, ?, ?, ?)")) {
       preparedStatement.setInt(1, id);
       preparedStatement.setInt(2, authorized ? 1 : 0);
-      preparedStatement.setString(3, getIp(httpServletRequest));
-      preparedStatement.setString(4, BCrypt.hashpw(jsonObject.getString(SECRET), BCrypt.gensalt()));
+      preparedStatement.setString(3, ip);
+      preparedStatement.setString(4, password);
 
       preparedStatement.execute();
     }
   }
 
-  private static ResponseBuilder insertRecover(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      PreparedStatement preparedStatement)
-      throws SQLException {
-    ResponseBuilder responseBuilder;
-
-    try (var resultSet = preparedStatement.executeQuery()) {
-      if (resultSet.next()) {
-        insertRecover(connection, httpServletRequest, resultSet);
+  private boolean isLocked(String email) {
+    var id = accountCache.getIfPresent(email);
+    if (id.isEmpty() || !lockoutTable.isLocked(id.getAsInt())) return false;
 
-        responseBuilder = Response.ok();
-      } else responseBuilder = Response.status(Status.NO_CONTENT);
-    }
+    RequestTrace.setAccount(id.getAsInt());
+    return true;
+  }
 
-    return responseBuilder;
+  private static boolean isDuplicateEmail(SQLException e) {
+    var message = e.getMessage();
+    return e.getErrorCode() == DUPLICATE_ENTRY
+        && message != null
+        && message.contains("email_UNIQUE'");
   }
 
-  private static void insertRecover(
-      Connection connection, HttpServletRequest httpServletRequest, ResultSet resultSet)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(INSERT + "`recover`(account, ip) VALUES(?, ?)")) {
-      preparedStatement.setInt(1, resultSet.getInt(ID));
-      preparedStatement.setString(2, getIp(httpServletRequest));
+  private static boolean isNotIp(String ip) {
+    return ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip);
+  }
 
-      preparedStatement.execute();
-    }
+  private void lock(LogIn logIn) {
+    accountCache.put(logIn.email, logIn.id);
+    lockoutTable.lock(logIn.id);
   }
 
-  private static void insertStatusHistory(Connection connection, int id) throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(INSERT + "`status_history` SET account = ?")) {
-      preparedStatement.setInt(1, id);
-      preparedStatement.execute();
-    } catch (SQLException e) {
-      try (var preparedStatement =
-          connection.prepareStatement(DELETE + "`account_role` WHERE account = ?")) {
-        preparedStatement.setInt(1, id);
-        preparedStatement.execute();
-      }
+  private static void resume(
+      AsyncResponse asyncResponse, CompletionStage<Response> completionStage) {
+    completionStage.whenComplete(
+        (response, throwable) -> {
+          var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
 
-      throw e;
-    }
+          if (cause == null) asyncResponse.resume(response);
+          else if (cause instanceof RejectedExecutionException)
+            asyncResponse.resume(serviceUnavailable().build());
+          else asyncResponse.resume(cause);
+        });
   }
 
-  private static void insertSubAccountRows(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      JSONObject jsonObject,
-      Statement statement)
-      throws SQLException {
-    try (var generatedKeys = statement.getGeneratedKeys()) {
-      if (generatedKeys.next())
-        insertSubAccountRows(connection, httpServletRequest, generatedKeys.getInt(1), jsonObject);
-      else throw new SQLException(String.format(ERROR_RETRIEVE, "account ID"));
-    }
-  }
+  private OptionalInt selectId(String endpoint, String email) throws SQLException {
+    var start = System.nanoTime();
 
-  private static void insertSubAccountRows(
-      Connection connection, HttpServletRequest httpServletRequest, int id, JSONObject jsonObject)
-      throws SQLException {
-    try {
-      insertPasswordHistory(false, connection, httpServletRequest, id, jsonObject);
-      insertAccountRole(connection, id);
-      insertStatusHistory(connection, id);
-    } catch (SQLException e) {
-      try (var preparedStatement = connection.prepareStatement(DELETE + "`account` WHERE id = ?")) {
-        preparedStatement.setInt(1, id);
-        preparedStatement.execute();
-      }
+    try (var connection = bulkheads.getConnection(endpoint);
+        var preparedStatement = connection.prepareStatement(SELECT_ID + ACCOUNT_WHERE_EMAIL)) {
+      preparedStatement.setString(1, email);
 
-      throw e;
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? OptionalInt.of(resultSet.getInt(ID)) : OptionalInt.empty();
+      }
+    } finally {
+      metrics.record(endpoint, Phase.DATABASE, System.nanoTime() - start);
     }
   }
 
-  private static boolean isNotIp(String ip) {
-    return ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip);
-  }
+  private LogIn selectLogIn(String email) throws SQLException {
+    var start = System.nanoTime();
 
-  private static ResponseBuilder logIn(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      String password,
-      ResultSet resultSet)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "SELECT id, unsuccessful FROM `teacup_visualization`.`log_ins` WHERE account = ?")) {
-      return insertLogIns(connection, httpServletRequest, password, preparedStatement, resultSet);
-    }
-  }
+    try (var connection = bulkheads.getConnection(LOG_IN);
+        var callableStatement =
+            connection.prepareCall("{CALL `teacup_visualization`.`select_log_in`(?)}")) {
+      callableStatement.setString(1, email);
 
-  private static ResponseBuilder logIn(
-      Connection connection, String data, HttpServletRequest httpServletRequest)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "SELECT email, first_name, `teacup_visualization`.`account`.id, last_name, password "
-                + "FROM `teacup_visualization`.`account` INNER JOIN "
-                + "`teacup_visualization`.`password_history` ON "
-                + "`teacup_visualization`.`account`.id = "
-                + "`teacup_visualization`.`password_history`.account WHERE email = ? ORDER BY "
-                + "`teacup_visualization`.`password_history`.id DESC LIMIT 1")) {
-      var jsonObject = new JSONObject(data);
-      preparedStatement.setString(1, jsonObject.getString(EMAIL));
-
-      return logIn(connection, httpServletRequest, jsonObject.getString(SECRET), preparedStatement);
+      try (var resultSet = callableStatement.executeQuery()) {
+        LogIn logIn = null;
+
+        if (resultSet.next()) {
+          logIn = new LogIn(resultSet);
+          RequestTrace.setAccount(logIn.id);
+        }
+
+        return logIn;
+      }
+    } finally {
+      metrics.record(LOG_IN, Phase.DATABASE, System.nanoTime() - start);
     }
   }
 
-  private static ResponseBuilder logIn(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      String password,
-      PreparedStatement preparedStatement)
-      throws SQLException {
-    try (var resultSet = preparedStatement.executeQuery()) {
-      return resultSet.next()
-          ? logIn(connection, httpServletRequest, password, resultSet)
-          : Response.status(Status.UNAUTHORIZED);
+  private static ResponseBuilder serverError(String action, SQLException e) {
+    if (e instanceof SQLTransientException) {
+      LOGGER.log(Level.FINE, String.format(ERROR, action), e);
+      return serviceUnavailable();
     }
-  }
 
-  private static ResponseBuilder recover(
-      Connection connection, String data, HttpServletRequest httpServletRequest)
-      throws SQLException {
-    try (var preparedStatement = connection.prepareStatement(SELECT_ID + ACCOUNT_WHERE_EMAIL)) {
-      preparedStatement.setString(1, new JSONObject(data).getString(EMAIL));
+    LOGGER.log(Level.SEVERE, String.format(ERROR, action), e);
+    return Response.serverError();
+  }
 
-      return insertRecover(connection, httpServletRequest, preparedStatement);
-    }
+  private static ResponseBuilder serviceUnavailable() {
+    return Response.status(Status.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER);
   }
 
-  private static ResponseBuilder signUp(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      JSONObject jsonObject,
-      PreparedStatement preparedStatement)
-      throws SQLException {
-    var email = jsonObject.getString(EMAIL);
-    preparedStatement.setString(1, email);
+  private <T> CompletionStage<Response> supply(
+      String endpoint, Supplier<T> supplier, Function<T, Response> function) {
+    return hashingExecutor.supply(
+        endpoint,
+        RequestTrace.hashing(
+            () -> {
+              var start = System.nanoTime();
 
-    try (var resultSet = preparedStatement.executeQuery()) {
-      return resultSet.next()
-          ? Response.status(Status.CONFLICT)
-          : insertAccount(connection, email, httpServletRequest, jsonObject);
-    }
+              try {
+                return supplier.get();
+              } finally {
+                metrics.record(endpoint, Phase.HASHING, System.nanoTime() - start);
+              }
+            }),
+        function);
   }
 
-  private static ResponseBuilder signUp(
-      Connection connection, String data, HttpServletRequest httpServletRequest)
-      throws SQLException {
-    try (var preparedStatement = connection.prepareStatement(SELECT_ID + ACCOUNT_WHERE_EMAIL)) {
-      return signUp(connection, httpServletRequest, new JSONObject(data), preparedStatement);
-    }
+  private static String toString(Timestamp timestamp) {
+    return timestamp == null ? null : timestamp.toInstant().toString();
   }
 
-  private static void updateLogIns(Connection connection, int id, int unsuccessful)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "UPDATE `teacup_visualization`.`log_ins` SET unsuccessful = ? WHERE id = ?")) {
-      preparedStatement.setInt(1, unsuccessful);
-      preparedStatement.setInt(2, id);
-
-      preparedStatement.execute();
-    }
-  }
+  private Response updateLogIns(String ip, LogIn logIn, boolean match) {
+    ResponseBuilder responseBuilder;
+    var start = System.nanoTime();
 
-  private static ResponseBuilder verify(
-      Connection connection, String data, HttpServletRequest httpServletRequest)
-      throws SQLException {
-    try (var preparedStatement = connection.prepareStatement(SELECT_ID + ACCOUNT_WHERE_EMAIL)) {
-      preparedStatement.setString(1, new JSONObject(data).getString(EMAIL));
+    try (var connection = bulkheads.getConnection(LOG_IN);
+        var callableStatement =
+            connection.prepareCall("{CALL `teacup_visualization`.`update_log_ins`(?, ?, ?)}")) {
+      callableStatement.setInt(1, logIn.id);
+      callableStatement.setBoolean(2, match);
+      callableStatement.setInt(3, MAX_UNSUCCESSFUL);
 
-      return verify(connection, httpServletRequest, preparedStatement);
+      responseBuilder = updateLogIns(callableStatement, ip, logIn, match);
+    } catch (SQLException e) {
+      responseBuilder = serverError("log in", e);
+    } finally {
+      metrics.record(LOG_IN, Phase.DATABASE, System.nanoTime() - start);
     }
+
+    return responseBuilder.build();
   }
 
-  private static ResponseBuilder verify(
-      Connection connection,
-      HttpServletRequest httpServletRequest,
-      PreparedStatement preparedStatement)
+  private ResponseBuilder updateLogIns(
+      PreparedStatement preparedStatement, String ip, LogIn logIn, boolean match)
       throws SQLException {
     try (var resultSet = preparedStatement.executeQuery()) {
-      return resultSet.next()
-          ? verify(connection, httpServletRequest, resultSet)
-          : Response.status(Status.NO_CONTENT);
-    }
-  }
+      ResponseBuilder responseBuilder;
 
-  private static ResponseBuilder verify(
-      Connection connection, HttpServletRequest httpServletRequest, ResultSet resultSet)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "INSERT INTO `teacup_visualization`.`verified`(account, ip) VALUES(?, ?)")) {
-      preparedStatement.setInt(1, resultSet.getInt(ID));
-      preparedStatement.setString(2, getIp(httpServletRequest));
+      if (resultSet.next() && resultSet.getBoolean("permitted")) {
+        auditWriter.logIn(ip, resultSet.getInt("log_ins"), match);
+        if (!match && logIn.unsuccessful + 1 >= MAX_UNSUCCESSFUL) lock(logIn);
 
-      preparedStatement.execute();
+        responseBuilder =
+            match
+                ? Response.ok(new Profile(logIn.email, logIn.firstName, logIn.id, logIn.lastName))
+                : Response.status(Status.UNAUTHORIZED);
+      } else {
+        lock(logIn);
+        responseBuilder = Response.status(Status.NOT_ACCEPTABLE);
+      }
+
+      return responseBuilder;
     }
+  }
 
-    return Response.ok();
+  private static final class LogIn {
+    private final String email;
+    private final String firstName;
+    private final int id;
+    private final String lastName;
+    private final String password;
+    private final int unsuccessful;
+
+    private LogIn(ResultSet resultSet) throws SQLException {
+      email = resultSet.getString(EMAIL);
+      firstName = resultSet.getString("first_name");
+      id = resultSet.getInt(ID);
+      lastName = resultSet.getString("last_name");
+      password = resultSet.getString(SECRET);
+      unsuccessful = resultSet.getInt("unsuccessful");
+    }
   }
 }
@@ -0,0 +1,48 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+/**
+ * Change password request. Read from the request body by the {@link RequestReader}.
+ *
+ * @since 1.0
+ */
+public final class ChangePasswordRequest {
+  private final boolean authorized;
+  private final String email;
+  private final String password;
+
+  ChangePasswordRequest(boolean authorized, String email, String password) {
+    this.authorized = authorized;
+    this.email = email;
+    this.password = password;
+  }
+
+  /**
+   * Returns the email.
+   *
+   * @return the email
+   * @since 1.0
+   */
+  public String getEmail() {
+    return email;
+  }
+
+  /**
+   * Returns the new password.
+   *
+   * @return the password
+   * @since 1.0
+   */
+  public String getPassword() {
+    return password;
+  }
+
+  /**
+   * Returns whether the change is authorized.
+   *
+   * @return whether the change is authorized
+   * @since 1.0
+   */
+  public boolean isAuthorized() {
+    return authorized;
+  }
+}
@@ -0,0 +1,25 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+/**
+ * Request that only carries an email, like recover and verify. Read from the request body by the
+ * {@link RequestReader}.
+ *
+ * @since 1.0
+ */
+public final class EmailRequest {
+  private final String email;
+
+  EmailRequest(String email) {
+    this.email = email;
+  }
+
+  /**
+   * Returns the email.
+   *
+   * @return the email
+   * @since 1.0
+   */
+  public String getEmail() {
+    return email;
+  }
+}
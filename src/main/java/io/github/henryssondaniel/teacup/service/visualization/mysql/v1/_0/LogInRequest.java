@@ -0,0 +1,36 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+/**
+ * Log in request. Read from the request body by the {@link RequestReader}.
+ *
+ * @since 1.0
+ */
+public final class LogInRequest {
+  private final String email;
+  private final String password;
+
+  LogInRequest(String email, String password) {
+    this.email = email;
+    this.password = password;
+  }
+
+  /**
+   * Returns the email.
+   *
+   * @return the email
+   * @since 1.0
+   */
+  public String getEmail() {
+    return email;
+  }
+
+  /**
+   * Returns the password.
+   *
+   * @return the password
+   * @since 1.0
+   */
+  public String getPassword() {
+    return password;
+  }
+}
@@ -0,0 +1,61 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+/**
+ * Account profile. Returned by a successful log in and written to the response by the {@link
+ * ProfileWriter}.
+ *
+ * @since 1.0
+ */
+public final class Profile {
+  private final String email;
+  private final String firstName;
+  private final int id;
+  private final String lastName;
+
+  Profile(String email, String firstName, int id, String lastName) {
+    this.email = email;
+    this.firstName = firstName;
+    this.id = id;
+    this.lastName = lastName;
+  }
+
+  /**
+   * Returns the email.
+   *
+   * @return the email
+   * @since 1.0
+   */
+  public String getEmail() {
+    return email;
+  }
+
+  /**
+   * Returns the first name.
+   *
+   * @return the first name
+   * @since 1.0
+   */
+  public String getFirstName() {
+    return firstName;
+  }
+
+  /**
+   * Returns the account ID.
+   *
+   * @return the account ID
+   * @since 1.0
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Returns the last name.
+   *
+   * @return the last name
+   * @since 1.0
+   */
+  public String getLastName() {
+    return lastName;
+  }
+}
@@ -0,0 +1,203 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Writes the {@link Profile} as a JSON object. The object is encoded as escaped UTF-8 into a small
+ * buffer of the call, and the buffer is written to the entity stream at once. The buffer is not
+ * kept in a thread local, since the container threads would keep it, and with it the class loader
+ * of the application, after a redeploy. The ID is written as a string, like the log in response
+ * always did.
+ *
+ * @since 1.0
+ */
+@Produces(MediaType.APPLICATION_JSON)
+@Provider
+public final class ProfileWriter implements MessageBodyWriter<Profile> {
+  private static final Logger LOGGER = Logger.getLogger(ProfileWriter.class.getName());
+
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return type == Profile.class;
+  }
+
+  @Override
+  public void writeTo(
+      Profile profile,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream)
+      throws IOException {
+    LOGGER.log(Level.FINEST, "Write profile");
+
+    new Buffer()
+        .append("{\"email\":")
+        .appendString(profile.getEmail())
+        .append(",\"firstName\":")
+        .appendString(profile.getFirstName())
+        .append(",\"id\":\"")
+        .appendInt(profile.getId())
+        .append("\",\"lastName\":")
+        .appendString(profile.getLastName())
+        .append("}")
+        .writeTo(entityStream);
+  }
+
+  private static final class Buffer {
+    private static final byte[] HEX = {
+      '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAXIMUM_BYTES_PER_CHAR = 6;
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    private Buffer append(String ascii) {
+      ensureCapacity(ascii.length());
+      for (var index = 0; index < ascii.length(); index++)
+        bytes[size++] = (byte) ascii.charAt(index);
+
+      return this;
+    }
+
+    private void appendByte(int value) {
+      bytes[size++] = (byte) value;
+    }
+
+    private void appendControl(char character) {
+      switch (character) {
+        case '\b':
+          appendEscaped('b');
+          break;
+        case '\f':
+          appendEscaped('f');
+          break;
+        case '\n':
+          appendEscaped('n');
+          break;
+        case '\r':
+          appendEscaped('r');
+          break;
+        case '\t':
+          appendEscaped('t');
+          break;
+        default:
+          appendUnicode(character);
+      }
+    }
+
+    private Buffer appendInt(int value) {
+      ensureCapacity(11);
+
+      if (value < 0) bytes[size++] = '-';
+
+      var start = size;
+      var remaining = Math.abs((long) value);
+
+      do {
+        bytes[size++] = (byte) ('0' + remaining % 10);
+        remaining /= 10;
+      } while (remaining > 0);
+
+      for (var end = size - 1; start < end; start++, end--) {
+        var digit = bytes[start];
+        bytes[start] = bytes[end];
+        bytes[end] = digit;
+      }
+
+      return this;
+    }
+
+    private void appendEscaped(char character) {
+      appendByte('\\');
+      appendByte(character);
+    }
+
+    private int appendSpecial(String value, int index) {
+      var character = value.charAt(index);
+      var next = index;
+
+      if (character == '"' || character == '\\') appendEscaped(character);
+      else if (character < 0x20) appendControl(character);
+      else if (character < 0x800) {
+        appendByte(0xC0 | character >> 6);
+        appendByte(0x80 | character & 0x3F);
+      } else if (Character.isHighSurrogate(character)
+          && index + 1 < value.length()
+          && Character.isLowSurrogate(value.charAt(index + 1))) {
+        var codePoint = Character.toCodePoint(character, value.charAt(++next));
+
+        appendByte(0xF0 | codePoint >> 18);
+        appendByte(0x80 | codePoint >> 12 & 0x3F);
+        appendByte(0x80 | codePoint >> 6 & 0x3F);
+        appendByte(0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(character)) appendUnicode(character);
+      else {
+        appendByte(0xE0 | character >> 12);
+        appendByte(0x80 | character >> 6 & 0x3F);
+        appendByte(0x80 | character & 0x3F);
+      }
+
+      return next;
+    }
+
+    private Buffer appendString(String value) {
+      if (value == null) return append("null");
+
+      ensureCapacity(value.length() * MAXIMUM_BYTES_PER_CHAR + 2);
+
+      var buffer = bytes;
+      var position = size;
+      buffer[position++] = '"';
+
+      for (var index = 0; index < value.length(); index++) {
+        var character = value.charAt(index);
+
+        if (character >= 0x20 && character < 0x80 && character != '"' && character != '\\')
+          buffer[position++] = (byte) character;
+        else {
+          size = position;
+          index = appendSpecial(value, index);
+          position = size;
+        }
+      }
+
+      buffer[position++] = '"';
+      size = position;
+
+      return this;
+    }
+
+    private void appendUnicode(char character) {
+      appendEscaped('u');
+      for (var shift = 12; shift >= 0; shift -= 4) appendByte(HEX[character >> shift & 0xF]);
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > bytes.length) {
+        var copy = new byte[Math.max(bytes.length * 2, size + length)];
+        System.arraycopy(bytes, 0, copy, 0, size);
+        bytes = copy;
+      }
+    }
+
+    private void writeTo(OutputStream outputStream) throws IOException {
+      outputStream.write(bytes, 0, size);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.FilterPriorities;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.RateLimiter;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Priority;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+
+/**
+ * Limits the rate of the {@link RateLimited} requests by client IP and by email. The IP is limited
+ * before the request body is read, and the email when the body has been read, so a request over the
+ * limit is answered with 429 and the seconds to wait in Retry-After before any database or hashing
+ * work.
+ *
+ * <p>The client IP is the remote address of the connection, since the forwarding headers are set by
+ * the client. When the remote address is a trusted proxy, the client IP is the right-most hop of
+ * X-Forwarded-For that is not a trusted proxy, which is the one the proxies appended.
+ *
+ * @since 1.0
+ */
+@Priority(FilterPriorities.RATE_LIMIT)
+@Provider
+@RateLimited
+public final class RateLimitFilter implements ContainerRequestFilter, ReaderInterceptor {
+  private static final Logger LOGGER = Logger.getLogger(RateLimitFilter.class.getName());
+  private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+  private final RateLimiter emailRateLimiter;
+  private final RateLimiter ipRateLimiter;
+  private final Set<String> trustedProxies;
+
+  @Context private HttpServletRequest httpServletRequest;
+
+  /**
+   * Constructor.
+   *
+   * @param emailRateLimiter the rate limiter by email
+   * @param ipRateLimiter the rate limiter by client IP
+   * @param trustedProxies the addresses of the trusted proxies
+   * @since 1.0
+   */
+  public RateLimitFilter(
+      RateLimiter emailRateLimiter, RateLimiter ipRateLimiter, Set<String> trustedProxies) {
+    this(emailRateLimiter, null, ipRateLimiter, trustedProxies);
+  }
+
+  RateLimitFilter(
+      RateLimiter emailRateLimiter,
+      HttpServletRequest httpServletRequest,
+      RateLimiter ipRateLimiter,
+      Set<String> trustedProxies) {
+    this.emailRateLimiter = emailRateLimiter;
+    this.httpServletRequest = httpServletRequest;
+    this.ipRateLimiter = ipRateLimiter;
+    this.trustedProxies = Set.copyOf(trustedProxies);
+  }
+
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext readerInterceptorContext)
+      throws IOException {
+    var entity = readerInterceptorContext.proceed();
+    var email = getEmail(entity);
+
+    if (email != null) {
+      var wait = emailRateLimiter.acquire(email.toLowerCase(Locale.ROOT));
+      if (wait > 0L) throw new WebApplicationException(tooManyRequests("email", wait));
+    }
+
+    return entity;
+  }
+
+  @Override
+  public void filter(ContainerRequestContext containerRequestContext) {
+    var wait = ipRateLimiter.acquire(getClientIp());
+    if (wait > 0L) containerRequestContext.abortWith(tooManyRequests("IP", wait));
+  }
+
+  private String getClientIp() {
+    var ip = httpServletRequest.getRemoteAddr();
+
+    if (trustedProxies.contains(ip)) {
+      var forwardedFor = httpServletRequest.getHeader(X_FORWARDED_FOR);
+
+      if (forwardedFor != null) {
+        var hops = forwardedFor.split(",");
+
+        for (var index = hops.length - 1; index >= 0 && trustedProxies.contains(ip); index--) {
+          var hop = hops[index].trim();
+          if (hop.isEmpty()) break;
+
+          ip = hop;
+        }
+      }
+    }
+
+    return ip;
+  }
+
+  private static String getEmail(Object entity) {
+    String email = null;
+
+    if (entity instanceof EmailRequest) email = ((EmailRequest) entity).getEmail();
+    else if (entity instanceof LogInRequest) email = ((LogInRequest) entity).getEmail();
+
+    return email;
+  }
+
+  private static Response tooManyRequests(String key, long wait) {
+    LOGGER.log(Level.FINE, "Too many requests by " + key);
+
+    return Response.status(Status.TOO_MANY_REQUESTS)
+        .header(
+            HttpHeaders.RETRY_AFTER,
+            Math.max(1L, (wait + TimeUnit.SECONDS.toNanos(1L) - 1L) / TimeUnit.SECONDS.toNanos(1L)))
+        .build();
+  }
+}
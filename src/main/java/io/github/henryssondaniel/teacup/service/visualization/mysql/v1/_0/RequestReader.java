@@ -0,0 +1,245 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+/**
+ * Reads the JSON request bodies into the request types. The body is parsed straight from the entity
+ * stream, one member at a time, and only the members of the request type are kept. A body that is
+ * larger than the maximum size is rejected with 413 as soon as the limit is passed, and a body that
+ * is not an object with the expected members is rejected with 400.
+ *
+ * <p>The stream is decoded through buffers of a few hundred bytes rather than the 8K buffers of an
+ * InputStreamReader and the BufferedReader of the JSONTokener, since the request bodies are small.
+ *
+ * @since 1.0
+ */
+@Consumes(MediaType.APPLICATION_JSON)
+@Provider
+public final class RequestReader implements MessageBodyReader<Object> {
+  private static final int BUFFER_SIZE = 256;
+  private static final String EMAIL = "email";
+  private static final Logger LOGGER = Logger.getLogger(RequestReader.class.getName());
+  private static final String SECRET = "password";
+  private static final Map<Class<?>, Parser> PARSERS =
+      Map.of(
+          ChangePasswordRequest.class,
+          new Parser(
+              members ->
+                  new ChangePasswordRequest(
+                      members.getBoolean(0), members.getString(1), members.getString(2)),
+              "authorized",
+              EMAIL,
+              SECRET),
+          EmailRequest.class,
+          new Parser(members -> new EmailRequest(members.getString(0)), EMAIL),
+          LogInRequest.class,
+          new Parser(
+              members -> new LogInRequest(members.getString(0), members.getString(1)),
+              EMAIL,
+              SECRET),
+          SignUpRequest.class,
+          new Parser(
+              members ->
+                  new SignUpRequest(
+                      members.getString(0),
+                      members.getString(1),
+                      members.getString(2),
+                      members.getString(3)),
+              EMAIL,
+              "firstName",
+              "lastName",
+              SECRET));
+
+  private final int maximumSize;
+
+  /**
+   * Constructor.
+   *
+   * @param maximumSize the maximum size of a request body in bytes
+   * @since 1.0
+   */
+  public RequestReader(int maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  @Override
+  public boolean isReadable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return PARSERS.containsKey(type);
+  }
+
+  @Override
+  public Object readFrom(
+      Class<Object> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, String> httpHeaders,
+      InputStream entityStream) {
+    LOGGER.log(Level.FINE, "Read " + type.getSimpleName());
+
+    if (getContentLength(httpHeaders) > maximumSize) throw tooLarge();
+
+    var parser = PARSERS.get(type);
+    var members = new Members(parser.names);
+
+    try {
+      members.read(new JSONTokener(createReader(entityStream)));
+    } catch (JSONException e) {
+      LOGGER.log(Level.FINE, "Invalid request body", e);
+      throw new BadRequestException("Invalid request body", e);
+    }
+
+    return parser.function.apply(members);
+  }
+
+  private Reader createReader(InputStream entityStream) {
+    return new BufferedReader(
+        Channels.newReader(
+            Channels.newChannel(new LimitedInputStream(entityStream, maximumSize)),
+            StandardCharsets.UTF_8.newDecoder(),
+            BUFFER_SIZE),
+        BUFFER_SIZE);
+  }
+
+  private static long getContentLength(MultivaluedMap<String, String> httpHeaders) {
+    var contentLength = httpHeaders.getFirst(HttpHeaders.CONTENT_LENGTH);
+    long length = -1L;
+
+    if (contentLength != null)
+      try {
+        length = Long.parseLong(contentLength.trim());
+      } catch (NumberFormatException e) {
+        LOGGER.log(Level.FINE, "Invalid content length", e);
+      }
+
+    return length;
+  }
+
+  private static WebApplicationException tooLarge() {
+    return new WebApplicationException(
+        "The request body is too large", Status.REQUEST_ENTITY_TOO_LARGE);
+  }
+
+  private static final class LimitedInputStream extends FilterInputStream {
+    private long remaining;
+
+    private LimitedInputStream(InputStream inputStream, long maximumSize) {
+      super(inputStream);
+      remaining = maximumSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      var value = super.read();
+      if (value != -1) count(1);
+
+      return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      var count = super.read(bytes, offset, (int) Math.min(length, remaining + 1L));
+      if (count > 0) count(count);
+
+      return count;
+    }
+
+    private void count(int count) {
+      remaining -= count;
+      if (remaining < 0L) throw tooLarge();
+    }
+  }
+
+  private static final class Members {
+    private final String[] names;
+    private final Object[] values;
+
+    private Members(String... names) {
+      this.names = names;
+      values = new Object[names.length];
+    }
+
+    private boolean getBoolean(int index) {
+      var value = values[index];
+
+      if (value instanceof Boolean) return (Boolean) value;
+      if ("true".equalsIgnoreCase(String.valueOf(value))) return true;
+      if ("false".equalsIgnoreCase(String.valueOf(value))) return false;
+      throw invalid(index);
+    }
+
+    private String getString(int index) {
+      if (values[index] instanceof String) return (String) values[index];
+      throw invalid(index);
+    }
+
+    private int indexOf(String name) {
+      for (var index = 0; index < names.length; index++)
+        if (names[index].equals(name)) return index;
+      return -1;
+    }
+
+    private BadRequestException invalid(int index) {
+      return new BadRequestException("Missing or invalid member: " + names[index]);
+    }
+
+    private void read(JSONTokener jsonTokener) {
+      if (jsonTokener.nextClean() != '{')
+        throw jsonTokener.syntaxError("A JSONObject text must begin with '{'");
+
+      var next = jsonTokener.nextClean();
+
+      if (next != '}') {
+        jsonTokener.back();
+
+        do {
+          if (jsonTokener.nextClean() != '"') throw jsonTokener.syntaxError("Expected a key");
+
+          var index = indexOf(jsonTokener.nextString('"'));
+          if (jsonTokener.nextClean() != ':') throw jsonTokener.syntaxError("Expected a ':'");
+
+          var value = jsonTokener.nextValue();
+          if (index >= 0) values[index] = value;
+
+          next = jsonTokener.nextClean();
+        } while (next == ',');
+
+        if (next != '}') throw jsonTokener.syntaxError("Expected a ',' or '}'");
+      }
+    }
+  }
+
+  private static final class Parser {
+    private final Function<Members, Object> function;
+    private final String[] names;
+
+    private Parser(Function<Members, Object> function, String... names) {
+      this.function = function;
+      this.names = names.clone();
+    }
+  }
+}
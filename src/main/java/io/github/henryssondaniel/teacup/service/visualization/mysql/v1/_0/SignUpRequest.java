@@ -0,0 +1,60 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+/**
+ * Sign up request. Read from the request body by the {@link RequestReader}.
+ *
+ * @since 1.0
+ */
+public final class SignUpRequest {
+  private final String email;
+  private final String firstName;
+  private final String lastName;
+  private final String password;
+
+  SignUpRequest(String email, String firstName, String lastName, String password) {
+    this.email = email;
+    this.firstName = firstName;
+    this.lastName = lastName;
+    this.password = password;
+  }
+
+  /**
+   * Returns the email.
+   *
+   * @return the email
+   * @since 1.0
+   */
+  public String getEmail() {
+    return email;
+  }
+
+  /**
+   * Returns the first name.
+   *
+   * @return the first name
+   * @since 1.0
+   */
+  public String getFirstName() {
+    return firstName;
+  }
+
+  /**
+   * Returns the last name.
+   *
+   * @return the last name
+   * @since 1.0
+   */
+  public String getLastName() {
+    return lastName;
+  }
+
+  /**
+   * Returns the password.
+   *
+   * @return the password
+   * @since 1.0
+   */
+  public String getPassword() {
+    return password;
+  }
+}
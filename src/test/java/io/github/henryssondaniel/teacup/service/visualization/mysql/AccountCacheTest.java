@@ -0,0 +1,127 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.SQLException;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class AccountCacheTest {
+  private static final String EMAIL = "admin@teacup.com";
+
+  private final AtomicInteger loads = new AtomicInteger(0);
+  private final Metrics metrics = new Metrics();
+
+  @Test
+  void getId() throws IOException, SQLException {
+    var accountCache = new AccountCache(10, 60_000L, metrics);
+
+    assertThat(accountCache.getId(EMAIL, this::load)).hasValue(1);
+    assertThat(accountCache.getId("Admin@Teacup.com", this::load)).hasValue(1);
+    assertThat(loads).hasValue(1);
+
+    assertThat(write())
+        .contains("teacup_visualization_cache_requests_total{cache=\"account\",result=\"hit\"} 1\n")
+        .contains(
+            "teacup_visualization_cache_requests_total{cache=\"account\",result=\"miss\"} 1\n");
+  }
+
+  @Test
+  void getIfPresent() throws SQLException {
+    var accountCache = new AccountCache(10, 60_000L, metrics);
+
+    assertThat(accountCache.getIfPresent(EMAIL)).isEmpty();
+    assertThat(accountCache.getId(EMAIL, this::load)).hasValue(1);
+    assertThat(accountCache.getIfPresent("Admin@Teacup.com")).hasValue(1);
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void getIdWhenError() {
+    var accountCache = new AccountCache(10, 60_000L, metrics);
+    var sqlException = new SQLException("test");
+
+    assertThatThrownBy(
+            () ->
+                accountCache.getId(
+                    EMAIL,
+                    email -> {
+                      throw sqlException;
+                    }))
+        .isSameAs(sqlException);
+    assertThat(accountCache.getSize()).isZero();
+  }
+
+  @Test
+  void getIdWhenEvicted() throws SQLException {
+    var accountCache = new AccountCache(16, 60_000L, metrics);
+
+    for (var index = 0; index < 1_000; index++) accountCache.put(index + EMAIL, index);
+
+    assertThat(accountCache.getSize()).isEqualTo(16);
+  }
+
+  @Test
+  void getIdWhenNegative() throws SQLException {
+    var accountCache = new AccountCache(10, 60_000L, metrics);
+
+    assertThat(accountCache.getId(EMAIL, this::loadEmpty)).isEmpty();
+    assertThat(accountCache.getId(EMAIL, this::loadEmpty)).isEmpty();
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void getIdWhenNegativeExpired() throws SQLException {
+    var accountCache = new AccountCache(10, 0L, metrics);
+
+    assertThat(accountCache.getId(EMAIL, this::loadEmpty)).isEmpty();
+    assertThat(accountCache.getId(EMAIL, this::load)).hasValue(1);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void getIdWhenNoCache() throws SQLException {
+    var accountCache = new AccountCache(0, 60_000L, metrics);
+
+    assertThat(accountCache.getId(EMAIL, this::load)).hasValue(1);
+    assertThat(accountCache.getId(EMAIL, this::load)).hasValue(1);
+    assertThat(loads).hasValue(2);
+    assertThat(accountCache.getSize()).isZero();
+  }
+
+  @Test
+  void put() throws SQLException {
+    var accountCache = new AccountCache(10, 60_000L, metrics);
+
+    assertThat(accountCache.getId(EMAIL, this::loadEmpty)).isEmpty();
+    accountCache.put(EMAIL, 2);
+
+    assertThat(accountCache.getId(EMAIL, this::load)).hasValue(2);
+    assertThat(loads).hasValue(1);
+  }
+
+  private OptionalInt load(String email) {
+    assertThat(email).isNotNull();
+    loads.incrementAndGet();
+
+    return OptionalInt.of(1);
+  }
+
+  private OptionalInt loadEmpty(String email) {
+    assertThat(email).isNotNull();
+    loads.incrementAndGet();
+
+    return OptionalInt.empty();
+  }
+
+  private String write() throws IOException {
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,199 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AuditWriterTest {
+  private static final String IP = "ip";
+  private static final String RECOVER = "INSERT INTO `teacup_visualization`.`recover`";
+  private static final long TIMEOUT = 5L;
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    try (var statement = connection.prepareStatement(anyString())) {
+      when(statement).thenReturn(preparedStatement);
+    }
+
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+  }
+
+  @Test
+  void close() throws InterruptedException, SQLException {
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 60_000L, 0L);
+    auditWriter.verified(1, IP);
+    auditWriter.close();
+
+    verify(connection)
+        .prepareStatement(
+            "INSERT INTO `teacup_visualization`.`verified`(account, ip, time) VALUES (?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE account = account");
+    verify(connection).commit();
+
+    assertThat(auditWriter.getLost()).isZero();
+    assertThat(auditWriter.getWritten()).isOne();
+  }
+
+  @Test
+  void closeWhenClosed() throws InterruptedException {
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 60_000L, 0L);
+    auditWriter.close();
+    auditWriter.recover(1, IP);
+
+    assertThat(auditWriter.getLost()).isOne();
+    assertThat(auditWriter.getWritten()).isZero();
+  }
+
+  @Test
+  void logIn() throws InterruptedException, SQLException {
+    var auditWriter = new AuditWriter(dataSource, 10, 2, 60_000L, 0L);
+    auditWriter.logIn(IP, 1, true);
+    auditWriter.logIn(IP, 1, false);
+
+    verify(connection, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT)))
+        .prepareStatement(
+            "INSERT INTO `teacup_visualization`.`log_in`(ip, log_ins, successful, time) VALUES (?, ?, ?, ?), (?, ?, ?, ?)");
+    verify(preparedStatement, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT))).executeUpdate();
+    verify(preparedStatement).setObject(3, true);
+    verify(preparedStatement).setObject(7, false);
+
+    auditWriter.close();
+    assertThat(auditWriter.getWritten()).isEqualTo(2L);
+  }
+
+  @Test
+  void recover() throws InterruptedException, SQLException {
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 1L, 0L);
+    auditWriter.recover(1, IP);
+
+    verify(preparedStatement, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT))).executeUpdate();
+    verify(preparedStatement).setObject(1, 1);
+    verify(preparedStatement).setObject(2, IP);
+
+    auditWriter.close();
+    assertThat(auditWriter.getWritten()).isOne();
+  }
+
+  @Test
+  void recoverWhenError() throws InterruptedException, SQLException {
+    when(preparedStatement.executeUpdate()).thenThrow(new SQLException("test"));
+
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 60_000L, 0L);
+    auditWriter.recover(1, IP);
+    auditWriter.close();
+
+    verify(connection).rollback();
+    verify(connection).setAutoCommit(true);
+
+    assertThat(auditWriter.getLost()).isOne();
+    assertThat(auditWriter.getWritten()).isZero();
+  }
+
+  @Test
+  void recoverWhenQueueIsFull() throws InterruptedException, SQLException {
+    var writing = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    try (var conn = dataSource.getConnection()) {
+      when(conn)
+          .thenAnswer(
+              invocation -> {
+                writing.countDown();
+                release.await(TIMEOUT, TimeUnit.SECONDS);
+                return connection;
+              });
+    }
+
+    var auditWriter = new AuditWriter(dataSource, 1, 1, 0L, 0L);
+    auditWriter.recover(1, IP);
+    assertThat(writing.await(TIMEOUT, TimeUnit.SECONDS)).isTrue();
+
+    auditWriter.recover(2, IP);
+    auditWriter.recover(3, IP);
+
+    assertThat(auditWriter.getDelayed()).isOne();
+    assertThat(auditWriter.getLost()).isOne();
+    assertThat(auditWriter.getPending()).isOne();
+
+    release.countDown();
+    auditWriter.close();
+
+    assertThat(auditWriter.getWritten()).isEqualTo(2L);
+  }
+
+  @Test
+  void recoverWhenTransientError() throws InterruptedException, SQLException {
+    when(preparedStatement.executeUpdate())
+        .thenThrow(new SQLTransientConnectionException("test"))
+        .thenReturn(1);
+
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 60_000L, 0L);
+    auditWriter.recover(1, IP);
+    auditWriter.close();
+
+    verify(connection).rollback();
+    verify(connection).commit();
+    verify(dataSource, times(2)).getConnection();
+
+    assertThat(auditWriter.getLost()).isZero();
+    assertThat(auditWriter.getWritten()).isOne();
+  }
+
+  @Test
+  void recoverWhenTransientErrors() throws InterruptedException, SQLException {
+    when(preparedStatement.executeUpdate()).thenThrow(new SQLTransientConnectionException("test"));
+
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 60_000L, 0L);
+    auditWriter.recover(1, IP);
+    auditWriter.close();
+
+    verify(connection, times(2)).rollback();
+    verify(preparedStatement, times(2)).executeUpdate();
+
+    assertThat(auditWriter.getLost()).isOne();
+    assertThat(auditWriter.getWritten()).isZero();
+  }
+
+  @Test
+  void verifiedWhenOtherTableFails() throws InterruptedException, SQLException {
+    var failing = mock(PreparedStatement.class);
+    when(failing.executeUpdate()).thenThrow(new SQLException("test"));
+
+    try (var statement = connection.prepareStatement(startsWith(RECOVER))) {
+      when(statement).thenReturn(failing);
+    }
+
+    var auditWriter = new AuditWriter(dataSource, 10, 10, 60_000L, 0L);
+    auditWriter.recover(1, IP);
+    auditWriter.verified(1, IP);
+    auditWriter.close();
+
+    verify(connection).commit();
+    verify(connection).rollback();
+    verify(preparedStatement).executeUpdate();
+
+    assertThat(auditWriter.getLost()).isOne();
+    assertThat(auditWriter.getWritten()).isOne();
+  }
+}
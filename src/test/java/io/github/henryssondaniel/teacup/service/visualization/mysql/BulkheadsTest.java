@@ -0,0 +1,108 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkheadsTest {
+  private static final String LOG_IN = "logIn";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final Metrics metrics = new Metrics();
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+  }
+
+  @Test
+  void getConnection() throws SQLException {
+    var bulkheads = new Bulkheads(dataSource, 1, metrics);
+
+    try (var conn = bulkheads.getConnection(LOG_IN)) {
+      conn.setAutoCommit(false);
+      assertThat(conn).isEqualTo(conn).isNotEqualTo(connection);
+    }
+
+    verify(connection).setAutoCommit(false);
+    verify(connection).close();
+
+    try (var conn = bulkheads.getConnection(LOG_IN)) {
+      assertThat(conn.hashCode()).isEqualTo(System.identityHashCode(conn));
+      assertThat(conn.toString()).startsWith("Bulkhead ");
+    }
+  }
+
+  @Test
+  void getConnectionWhenClosedTwice() throws SQLException {
+    var bulkheads = new Bulkheads(dataSource, 1, metrics);
+
+    var conn = bulkheads.getConnection(LOG_IN);
+    conn.close();
+    conn.close();
+
+    try (var first = bulkheads.getConnection(LOG_IN)) {
+      assertThat(first).isNotNull();
+      assertThatThrownBy(() -> bulkheads.getConnection(LOG_IN))
+          .isExactlyInstanceOf(SQLTransientConnectionException.class);
+    }
+  }
+
+  @Test
+  void getConnectionWhenError() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLException("test")).thenReturn(connection);
+    }
+
+    var bulkheads = new Bulkheads(dataSource, 1, metrics);
+
+    assertThatThrownBy(() -> bulkheads.getConnection(LOG_IN))
+        .isExactlyInstanceOf(SQLException.class);
+
+    try (var conn = bulkheads.getConnection(LOG_IN)) {
+      assertThat(conn).isNotNull();
+    }
+  }
+
+  @Test
+  void getConnectionWhenFull() throws IOException, SQLException {
+    var bulkheads = new Bulkheads(dataSource, 1, metrics);
+
+    try (var conn = bulkheads.getConnection(LOG_IN)) {
+      assertThatThrownBy(() -> bulkheads.getConnection(LOG_IN))
+          .isExactlyInstanceOf(SQLTransientConnectionException.class)
+          .hasMessage("The bulkhead of logIn is full");
+
+      try (var other = bulkheads.getConnection("signUp")) {
+        assertThat(other).isNotSameAs(conn);
+      }
+    }
+
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    assertThat(stringWriter.toString())
+        .contains("teacup_visualization_bulkhead_rejections_total{endpoint=\"logIn\"} 1\n");
+  }
+
+  @Test
+  void getConnectionWithoutBulkheads() throws SQLException {
+    try (var conn = new Bulkheads(dataSource, 0, metrics).getConnection(LOG_IN)) {
+      assertThat(conn).isSameAs(connection);
+    }
+  }
+}
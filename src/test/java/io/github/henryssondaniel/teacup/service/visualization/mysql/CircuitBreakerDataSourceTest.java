@@ -0,0 +1,203 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.CircuitBreakerDataSource.State;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerDataSourceTest {
+  private static final String PASSWORD = "password";
+  private static final String USERNAME = "username";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource =
+      mock(DataSource.class, withSettings().extraInterfaces(AutoCloseable.class));
+  private final Metrics metrics = new Metrics();
+
+  @Test
+  void close() throws Exception {
+    new CircuitBreakerDataSource(dataSource, metrics, 1, 0L).close();
+    verify((AutoCloseable) dataSource).close();
+  }
+
+  @Test
+  void getConnection() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 0L);
+
+    try (var conn = circuitBreakerDataSource.getConnection()) {
+      assertThat(conn).isSameAs(connection);
+    }
+
+    assertThat(circuitBreakerDataSource.getState()).isSameAs(State.CLOSED);
+  }
+
+  @Test
+  void getConnectionWhenDeadlinePassed() throws InterruptedException, SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLTimeoutException("test"));
+    }
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 60_000L);
+
+    Deadline.start(1L);
+    Thread.sleep(2L);
+
+    try {
+      assertThatThrownBy(circuitBreakerDataSource::getConnection)
+          .isExactlyInstanceOf(SQLTimeoutException.class);
+    } finally {
+      Deadline.setCurrent(null);
+    }
+
+    assertThat(circuitBreakerDataSource.getState()).isSameAs(State.CLOSED);
+  }
+
+  @Test
+  void getConnectionWhenHalfOpen() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLException("test")).thenReturn(connection);
+    }
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 0L);
+
+    assertThatThrownBy(circuitBreakerDataSource::getConnection)
+        .isExactlyInstanceOf(SQLException.class);
+    assertThat(circuitBreakerDataSource.getState()).isSameAs(State.OPEN);
+
+    try (var conn = circuitBreakerDataSource.getConnection()) {
+      assertThat(conn).isSameAs(connection);
+    }
+
+    assertThat(circuitBreakerDataSource.getState()).isSameAs(State.CLOSED);
+  }
+
+  @Test
+  void getConnectionWhenOpen() throws IOException, SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLException("test"));
+    }
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 2, 60_000L);
+
+    for (var i = 0; i < 2; i++)
+      assertThatThrownBy(circuitBreakerDataSource::getConnection)
+          .isExactlyInstanceOf(SQLException.class);
+
+    assertThatThrownBy(circuitBreakerDataSource::getConnection)
+        .isExactlyInstanceOf(SQLTransientConnectionException.class)
+        .hasMessage("The circuit breaker is open");
+
+    assertThat(circuitBreakerDataSource.getState()).isSameAs(State.OPEN);
+    verify(dataSource, times(2)).getConnection();
+
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    assertThat(stringWriter.toString())
+        .contains("teacup_visualization_circuit_state{state=\"open\"} 1\n")
+        .contains("teacup_visualization_circuit_rejections_total 1\n");
+  }
+
+  @Test
+  void getConnectionWhenPoolExhausted() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+
+    try (var connectionPool = new ConnectionPool(dataSource, 0, 1, 60_000L, 10L, 60_000L)) {
+      var circuitBreakerDataSource =
+          new CircuitBreakerDataSource(connectionPool, metrics, 1, 60_000L);
+
+      try (var conn = circuitBreakerDataSource.getConnection()) {
+        assertThat(conn).isNotNull();
+        assertThatThrownBy(circuitBreakerDataSource::getConnection)
+            .isExactlyInstanceOf(ConnectionPool.WaitException.class);
+      }
+
+      assertThat(circuitBreakerDataSource.getState()).isSameAs(State.CLOSED);
+    }
+  }
+
+  @Test
+  void getConnectionWhenProbeFailed() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLException("test"));
+    }
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 0L);
+
+    for (var i = 0; i < 2; i++)
+      assertThatThrownBy(circuitBreakerDataSource::getConnection)
+          .isExactlyInstanceOf(SQLException.class);
+
+    assertThat(circuitBreakerDataSource.getState()).isSameAs(State.OPEN);
+    verify(dataSource, times(2)).getConnection();
+  }
+
+  @Test
+  void getConnectionWithUsernameAndPassword() throws SQLException {
+    try (var conn = dataSource.getConnection(USERNAME, PASSWORD)) {
+      when(conn).thenThrow(new SQLException("test"));
+    }
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 60_000L);
+
+    assertThatThrownBy(() -> circuitBreakerDataSource.getConnection(USERNAME, PASSWORD))
+        .isExactlyInstanceOf(SQLException.class);
+    assertThatThrownBy(() -> circuitBreakerDataSource.getConnection(USERNAME, PASSWORD))
+        .isExactlyInstanceOf(SQLTransientConnectionException.class);
+  }
+
+  @Test
+  void logWriter() throws SQLException {
+    var printWriter = new PrintWriter(new StringWriter());
+    when(dataSource.getLogWriter()).thenReturn(printWriter);
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 0L);
+    circuitBreakerDataSource.setLogWriter(printWriter);
+
+    assertThat(circuitBreakerDataSource.getLogWriter()).isSameAs(printWriter);
+    verify(dataSource).setLogWriter(printWriter);
+  }
+
+  @Test
+  void loginTimeout() throws SQLException {
+    when(dataSource.getLoginTimeout()).thenReturn(1);
+
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 0L);
+    circuitBreakerDataSource.setLoginTimeout(1);
+
+    assertThat(circuitBreakerDataSource.getLoginTimeout()).isOne();
+    verify(dataSource).setLoginTimeout(1);
+  }
+
+  @Test
+  void unwrap() throws SQLException {
+    var circuitBreakerDataSource = new CircuitBreakerDataSource(dataSource, metrics, 1, 0L);
+
+    assertThat(circuitBreakerDataSource.isWrapperFor(DataSource.class)).isTrue();
+    assertThat(circuitBreakerDataSource.unwrap(CircuitBreakerDataSource.class))
+        .isSameAs(circuitBreakerDataSource);
+    assertThat(circuitBreakerDataSource.unwrap(AutoCloseable.class))
+        .isSameAs(circuitBreakerDataSource);
+    assertThat(circuitBreakerDataSource.getParentLogger()).isNotNull();
+  }
+}
@@ -0,0 +1,108 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ConcurrencyLimitFilterTest {
+  private static final String LIMIT = "teacup_visualization_concurrency_limit{endpoint=\"logIn\"} ";
+
+  private final ContainerRequestContext containerRequestContext =
+      mock(ContainerRequestContext.class);
+  private final ContainerResponseContext containerResponseContext =
+      mock(ContainerResponseContext.class);
+  private final Metrics metrics = new Metrics();
+  private final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2, 1, 10, metrics);
+  private final ConcurrencyLimitFilter concurrencyLimitFilter =
+      new ConcurrencyLimitFilter(concurrencyLimiter, metrics);
+
+  @BeforeEach
+  void beforeEach() {
+    var uriInfo = mock(UriInfo.class);
+    when(uriInfo.getPath()).thenReturn("v1/account/logIn");
+    when(containerRequestContext.getUriInfo()).thenReturn(uriInfo);
+  }
+
+  @Test
+  void filterRequest() {
+    concurrencyLimitFilter.filter(containerRequestContext);
+
+    verify(containerRequestContext).setProperty(anyString(), any(Long.class));
+    verify(containerRequestContext, never()).abortWith(any());
+  }
+
+  @Test
+  void filterRequestWhenShed() throws IOException {
+    concurrencyLimitFilter.filter(containerRequestContext);
+    concurrencyLimitFilter.filter(containerRequestContext);
+    concurrencyLimitFilter.filter(containerRequestContext);
+
+    var argumentCaptor = ArgumentCaptor.forClass(Response.class);
+    verify(containerRequestContext).abortWith(argumentCaptor.capture());
+
+    var response = argumentCaptor.getValue();
+    assertThat(response.getStatus()).isEqualTo(Status.SERVICE_UNAVAILABLE.getStatusCode());
+    assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+    assertThat(write()).contains("teacup_visualization_shed_total{endpoint=\"logIn\"} 1\n");
+  }
+
+  @Test
+  void filterResponse() throws IOException {
+    acquire();
+    when(containerResponseContext.getStatus()).thenReturn(500);
+
+    concurrencyLimitFilter.filter(containerRequestContext, containerResponseContext);
+
+    verify(containerRequestContext).removeProperty(anyString());
+    assertThat(write()).contains(LIMIT + "1\n");
+  }
+
+  @Test
+  void filterResponseWhenNotAcquired() throws IOException {
+    concurrencyLimitFilter.filter(containerRequestContext, containerResponseContext);
+
+    verify(containerRequestContext, never()).removeProperty(anyString());
+    assertThat(write()).doesNotContain(LIMIT);
+  }
+
+  @Test
+  void filterResponseWhenTooManyRequests() throws IOException {
+    acquire();
+    acquire();
+    when(containerResponseContext.getStatus()).thenReturn(429);
+
+    concurrencyLimitFilter.filter(containerRequestContext, containerResponseContext);
+
+    assertThat(concurrencyLimiter.tryAcquire("logIn")).isTrue();
+    assertThat(write()).contains(LIMIT + "2\n");
+  }
+
+  private void acquire() {
+    assertThat(concurrencyLimiter.tryAcquire("logIn")).isTrue();
+    when(containerRequestContext.getProperty(anyString())).thenReturn(System.nanoTime());
+  }
+
+  private String write() throws IOException {
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    return stringWriter.toString();
+  }
+}
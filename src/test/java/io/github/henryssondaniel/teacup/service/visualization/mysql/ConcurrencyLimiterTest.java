@@ -0,0 +1,103 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+  private static final long FAST = 1_000_000L;
+  private static final String LOG_IN = "logIn";
+  private static final long SLOW = 100_000_000L;
+
+  private final Metrics metrics = new Metrics();
+
+  @Test
+  void concurrencyLimiter() {
+    assertThat(countPermits(new ConcurrencyLimiter(0, 0, 0, metrics))).isOne();
+    assertThat(countPermits(new ConcurrencyLimiter(100, 1, 10, metrics))).isEqualTo(10);
+  }
+
+  @Test
+  void release() {
+    var concurrencyLimiter = new ConcurrencyLimiter(4, 1, 100, metrics);
+
+    for (var index = 0; index < 100; index++) {
+      for (var permit = 0; permit < 4; permit++) concurrencyLimiter.tryAcquire(LOG_IN);
+      for (var permit = 0; permit < 4; permit++) concurrencyLimiter.release(LOG_IN, FAST, false);
+    }
+
+    assertThat(countPermits(concurrencyLimiter)).isGreaterThan(4);
+  }
+
+  @Test
+  void releaseWhenFailed() throws IOException {
+    var concurrencyLimiter = new ConcurrencyLimiter(10, 1, 100, metrics);
+
+    assertThat(concurrencyLimiter.tryAcquire(LOG_IN)).isTrue();
+    concurrencyLimiter.release(LOG_IN, FAST, true);
+
+    assertThat(countPermits(concurrencyLimiter)).isEqualTo(9);
+    assertThat(write()).contains("teacup_visualization_concurrency_limit{endpoint=\"logIn\"} 9\n");
+  }
+
+  @Test
+  void releaseWhenNotUsed() {
+    var concurrencyLimiter = new ConcurrencyLimiter(20, 1, 100, metrics);
+
+    for (var index = 0; index < 100; index++) {
+      concurrencyLimiter.tryAcquire(LOG_IN);
+      concurrencyLimiter.release(LOG_IN, FAST, false);
+    }
+
+    assertThat(countPermits(concurrencyLimiter)).isEqualTo(20);
+  }
+
+  @Test
+  void releaseWhenSlow() {
+    var concurrencyLimiter = new ConcurrencyLimiter(20, 2, 100, metrics);
+
+    for (var index = 0; index < 100; index++) {
+      concurrencyLimiter.tryAcquire(LOG_IN);
+      concurrencyLimiter.release(LOG_IN, FAST, false);
+    }
+
+    for (var index = 0; index < 30; index++) {
+      concurrencyLimiter.tryAcquire(LOG_IN);
+      concurrencyLimiter.release(LOG_IN, SLOW, false);
+    }
+
+    assertThat(countPermits(concurrencyLimiter)).isBetween(2, 10);
+  }
+
+  @Test
+  void tryAcquire() {
+    var concurrencyLimiter = new ConcurrencyLimiter(2, 1, 10, metrics);
+
+    assertThat(concurrencyLimiter.tryAcquire(LOG_IN)).isTrue();
+    assertThat(concurrencyLimiter.tryAcquire(LOG_IN)).isTrue();
+    assertThat(concurrencyLimiter.tryAcquire(LOG_IN)).isFalse();
+    assertThat(concurrencyLimiter.tryAcquire("signUp")).isTrue();
+
+    concurrencyLimiter.release(LOG_IN);
+
+    assertThat(concurrencyLimiter.tryAcquire(LOG_IN)).isTrue();
+  }
+
+  private static int countPermits(ConcurrencyLimiter concurrencyLimiter) {
+    var permits = 0;
+    while (concurrencyLimiter.tryAcquire(LOG_IN)) permits++;
+
+    for (var index = 0; index < permits; index++) concurrencyLimiter.release(LOG_IN);
+
+    return permits;
+  }
+
+  private String write() throws IOException {
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,252 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+
+  private ConnectionPool connectionPool;
+
+  @AfterEach
+  void afterEach() {
+    connectionPool.close();
+    Deadline.setCurrent(null);
+  }
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    connectionPool = new ConnectionPool(dataSource, 0, 1, 60_000L, 10L, 60_000L);
+
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.isValid(anyInt())).thenReturn(true);
+
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+  }
+
+  @Test
+  void close() throws SQLException {
+    connectionPool.getConnection().close();
+    connectionPool.close();
+
+    verify(connection).close();
+    assertThat(connectionPool.getSize()).isZero();
+    assertThatThrownBy(connectionPool::getConnection).isInstanceOf(SQLException.class);
+  }
+
+  @Test
+  void closeWhenBorrowed() throws SQLException {
+    var conn = connectionPool.getConnection();
+    connectionPool.close();
+    conn.close();
+
+    verify(connection).close();
+  }
+
+  @Test
+  void connectionPoolWhenInvalidSize() {
+    assertThatThrownBy(() -> new ConnectionPool(dataSource, 2, 1, 0L, 0L, 0L))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void getConnection() throws SQLException {
+    try (var conn = connectionPool.getConnection()) {
+      assertThat(conn.isClosed()).isFalse();
+      conn.prepareStatement("sql");
+    }
+
+    try (var conn = connectionPool.getConnection()) {
+      assertThat(conn).isNotNull();
+    }
+
+    verify(dataSource).getConnection();
+    verify(connection).prepareStatement("sql");
+    verify(connection, never()).close();
+    assertThat(connectionPool.getIdle()).isOne();
+  }
+
+  @Test
+  void getConnectionWhenBroken() throws SQLException {
+    when(connection.prepareStatement("sql")).thenThrow(new SQLException("test", "08S01"));
+
+    try (var conn = connectionPool.getConnection()) {
+      assertThatThrownBy(() -> conn.prepareStatement("sql")).isInstanceOf(SQLException.class);
+    }
+
+    verify(connection).close();
+    assertThat(connectionPool.getSize()).isZero();
+  }
+
+  @Test
+  void getConnectionWhenClosed() throws SQLException {
+    var conn = connectionPool.getConnection();
+    conn.close();
+    conn.close();
+
+    assertThat(conn.isClosed()).isTrue();
+    assertThatThrownBy(() -> conn.prepareStatement("sql")).isInstanceOf(SQLException.class);
+    assertThat(connectionPool.getIdle()).isOne();
+  }
+
+  @Test
+  void getConnectionWhenDiscarded()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    when(connection.prepareStatement("sql")).thenThrow(new SQLException("test", "08S01"));
+
+    var conn = connectionPool.getConnection();
+    var waiter =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return connectionPool.getConnection(60_000L);
+              } catch (SQLException e) {
+                throw new CompletionException(e);
+              }
+            });
+
+    Thread.sleep(50L);
+    assertThatThrownBy(() -> conn.prepareStatement("sql")).isInstanceOf(SQLException.class);
+    conn.close();
+
+    try (var waited = waiter.get(1L, TimeUnit.SECONDS)) {
+      assertThat(waited).isNotNull();
+    }
+
+    verify(dataSource, times(2)).getConnection();
+  }
+
+  @Test
+  void getConnectionWhenError() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLException("test"));
+    }
+
+    assertThatThrownBy(connectionPool::getConnection).isInstanceOf(SQLException.class);
+    assertThat(connectionPool.getSize()).isZero();
+  }
+
+  @Test
+  void getConnectionWhenDeadlinePassed() throws InterruptedException, SQLException {
+    Deadline.start(1L);
+    Thread.sleep(2L);
+
+    assertThatThrownBy(connectionPool::getConnection)
+        .isExactlyInstanceOf(SQLTimeoutException.class);
+    verify(dataSource, never()).getConnection();
+  }
+
+  @Test
+  void getConnectionWhenExhausted() throws SQLException {
+    try (var conn = connectionPool.getConnection()) {
+      assertThat(conn).isNotNull();
+      assertThatThrownBy(connectionPool::getConnection)
+          .isExactlyInstanceOf(ConnectionPool.WaitException.class)
+          .isInstanceOf(SQLTransientConnectionException.class);
+    }
+  }
+
+  @Test
+  void getConnectionWhenInvalid() throws SQLException {
+    connectionPool = new ConnectionPool(dataSource, 0, 1, 60_000L, 10L, 0L);
+    when(connection.isValid(anyInt())).thenReturn(false, true);
+
+    connectionPool.getConnection().close();
+    connectionPool.getConnection().close();
+
+    verify(dataSource, times(2)).getConnection();
+    verify(connection).close();
+  }
+
+  @Test
+  void getConnectionWhenNotAutoCommit() throws SQLException {
+    when(connection.getAutoCommit()).thenReturn(false);
+
+    connectionPool.getConnection().close();
+
+    verify(connection).rollback();
+    verify(connection).setAutoCommit(true);
+    assertThat(connectionPool.getIdle()).isOne();
+  }
+
+  @Test
+  void getConnectionWithUser() {
+    assertThatThrownBy(() -> connectionPool.getConnection("user", "password"))
+        .isInstanceOf(SQLFeatureNotSupportedException.class);
+  }
+
+  @Test
+  void maintain() throws SQLException {
+    connectionPool = new ConnectionPool(dataSource, 1, 2, 0L, 10L, 60_000L);
+
+    connectionPool.maintain();
+    assertThat(connectionPool.getIdle()).isOne();
+
+    try (var first = connectionPool.getConnection();
+        var second = connectionPool.getConnection()) {
+      assertThat(first).isNotEqualTo(second);
+    }
+
+    connectionPool.maintain();
+
+    assertThat(connectionPool.getSize()).isOne();
+    verify(connection).close();
+  }
+
+  @Test
+  void maintainWhenCreateFails() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new IllegalStateException("test")).thenReturn(connection);
+    }
+
+    connectionPool = new ConnectionPool(dataSource, 1, 1, 60_000L, 10L, 60_000L);
+
+    connectionPool.maintain();
+    assertThat(connectionPool.getSize()).isZero();
+
+    connectionPool.maintain();
+    assertThat(connectionPool.getIdle()).isOne();
+  }
+
+  @Test
+  void maintainWhenMinimum() throws SQLException {
+    connectionPool = new ConnectionPool(dataSource, 1, 1, 0L, 10L, 60_000L);
+
+    connectionPool.maintain();
+    connectionPool.maintain();
+
+    assertThat(connectionPool.getIdle()).isOne();
+    assertThat(connectionPool.getSize()).isOne();
+    verify(connection, never()).close();
+  }
+
+  @Test
+  void unwrap() throws SQLException {
+    assertThat(connectionPool.unwrap(ConnectionPool.class)).isSameAs(connectionPool);
+    assertThat(connectionPool.isWrapperFor(ConnectionPool.class)).isTrue();
+  }
+}
@@ -0,0 +1,38 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import javax.servlet.ServletContextEvent;
+import org.junit.jupiter.api.Test;
+
+class ContextListenerTest {
+  private final AutoCloseable autoCloseable = mock(AutoCloseable.class);
+
+  @Test
+  void contextDestroyed() throws Exception {
+    ContextListener.register(autoCloseable);
+
+    new ContextListener().contextDestroyed(mock(ServletContextEvent.class));
+    new ContextListener().contextDestroyed(mock(ServletContextEvent.class));
+
+    verify(autoCloseable).close();
+    verifyNoMoreInteractions(autoCloseable);
+  }
+
+  @Test
+  void contextDestroyedWhenError() throws Exception {
+    var closeable = mock(AutoCloseable.class);
+    doThrow(new IllegalStateException("test")).when(closeable).close();
+
+    ContextListener.register(autoCloseable);
+    ContextListener.register(closeable);
+
+    new ContextListener().contextDestroyed(mock(ServletContextEvent.class));
+
+    verify(closeable).close();
+    verify(autoCloseable).close();
+  }
+}
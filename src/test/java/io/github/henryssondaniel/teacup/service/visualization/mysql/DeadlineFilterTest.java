@@ -0,0 +1,115 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.UriInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineFilterTest {
+  private final ContainerRequestContext containerRequestContext =
+      mock(ContainerRequestContext.class);
+  private final ResourceInfo resourceInfo = mock(ResourceInfo.class);
+
+  @AfterEach
+  void afterEach() {
+    Deadline.setCurrent(null);
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    var uriInfo = mock(UriInfo.class);
+    when(uriInfo.getPath()).thenReturn("v1/account/logIn");
+    when(containerRequestContext.getUriInfo()).thenReturn(uriInfo);
+  }
+
+  @Test
+  void filter() throws NoSuchMethodException {
+    when(resourceInfo.getResourceMethod()).thenReturn(getMethod("timeLimited"));
+
+    new DeadlineFilter(60_000L, resourceInfo).filter(containerRequestContext);
+
+    var deadline = Deadline.current();
+    assertThat(deadline).isNotNull();
+    assertThat(deadline.getRemaining()).isPositive();
+  }
+
+  @Test
+  void filterWhenNoBudget() throws NoSuchMethodException {
+    Deadline.start(60_000L);
+    when(resourceInfo.getResourceMethod()).thenReturn(getMethod("timeLimited"));
+
+    new DeadlineFilter(0L, resourceInfo).filter(containerRequestContext);
+
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test
+  void filterWhenNotMatched() {
+    Deadline.start(60_000L);
+
+    new DeadlineFilter(60_000L, resourceInfo).filter(containerRequestContext);
+
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test
+  void filterWhenNotTimeLimited() throws NoSuchMethodException {
+    Deadline.start(60_000L);
+    when(resourceInfo.getResourceMethod()).thenReturn(getMethod("notTimeLimited"));
+
+    new DeadlineFilter(60_000L, resourceInfo).filter(containerRequestContext);
+
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test
+  void filterWhenResponse() {
+    Deadline.start(60_000L);
+
+    new DeadlineFilter(60_000L, resourceInfo)
+        .filter(containerRequestContext, mock(ContainerResponseContext.class));
+
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test
+  void filterWhenTimeLimitedClass() throws NoSuchMethodException {
+    when(resourceInfo.getResourceMethod())
+        .thenReturn(TimeLimitedResource.class.getDeclaredMethod("resource"));
+
+    new DeadlineFilter(60_000L, resourceInfo).filter(containerRequestContext);
+
+    assertThat(Deadline.current()).isNotNull();
+  }
+
+  private static Method getMethod(String name) throws NoSuchMethodException {
+    return DeadlineFilterTest.class.getDeclaredMethod(name);
+  }
+
+  @SuppressWarnings("unused")
+  private static void notTimeLimited() {
+    // Resource method without a deadline
+  }
+
+  @SuppressWarnings("unused")
+  @TimeLimited
+  private static void timeLimited() {
+    // Resource method with a deadline
+  }
+
+  @TimeLimited
+  private static final class TimeLimitedResource {
+    @SuppressWarnings("unused")
+    private void resource() {
+      // Resource method of a time limited resource
+    }
+  }
+}
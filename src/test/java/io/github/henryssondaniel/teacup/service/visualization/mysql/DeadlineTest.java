@@ -0,0 +1,99 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineTest {
+  private final Statement statement = mock(Statement.class);
+
+  @AfterEach
+  void afterEach() {
+    Deadline.setCurrent(null);
+  }
+
+  @Test
+  void check() throws SQLTimeoutException {
+    Deadline.check();
+
+    Deadline.start(60_000L);
+    Deadline.check();
+  }
+
+  @Test
+  void checkWhenPassed() throws InterruptedException {
+    expire();
+
+    assertThatThrownBy(Deadline::check)
+        .isExactlyInstanceOf(SQLTimeoutException.class)
+        .hasMessage("The deadline of the request has passed");
+  }
+
+  @Test
+  void getTimeout() {
+    assertThat(Deadline.getTimeout(30_000L)).isEqualTo(30_000L);
+
+    Deadline.start(1_000L);
+    assertThat(Deadline.getTimeout(30_000L)).isBetween(1L, 1_000L);
+    assertThat(Deadline.getTimeout(10L)).isEqualTo(10L);
+  }
+
+  @Test
+  void getTimeoutWhenPassed() throws InterruptedException {
+    expire();
+    assertThat(Deadline.getTimeout(30_000L)).isZero();
+  }
+
+  @Test
+  void hasExpired() throws InterruptedException {
+    assertThat(Deadline.hasExpired()).isFalse();
+
+    expire();
+    assertThat(Deadline.hasExpired()).isTrue();
+  }
+
+  @Test
+  void setQueryTimeout() throws SQLException {
+    Deadline.setQueryTimeout(statement);
+    verify(statement, never()).setQueryTimeout(anyInt());
+
+    Deadline.start(1_500L);
+    Deadline.setQueryTimeout(statement);
+    verify(statement).setQueryTimeout(2);
+  }
+
+  @Test
+  void setQueryTimeoutWhenPassed() throws InterruptedException, SQLException {
+    expire();
+
+    assertThatThrownBy(() -> Deadline.setQueryTimeout(statement))
+        .isExactlyInstanceOf(SQLTimeoutException.class);
+    verify(statement, never()).setQueryTimeout(anyInt());
+  }
+
+  @Test
+  void start() {
+    var deadline = Deadline.start(60_000L);
+
+    assertThat(Deadline.current()).isSameAs(deadline);
+    assertThat(deadline.getRemaining()).isPositive();
+    assertThat(deadline.isExpired()).isFalse();
+
+    assertThat(Deadline.start(0L)).isNull();
+    assertThat(Deadline.current()).isNull();
+  }
+
+  private static void expire() throws InterruptedException {
+    Deadline.start(1L);
+    Thread.sleep(2L);
+  }
+}
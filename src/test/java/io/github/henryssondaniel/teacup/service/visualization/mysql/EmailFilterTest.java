@@ -0,0 +1,185 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class EmailFilterTest {
+  private static final String EMAIL = "admin@teacup.com";
+  private static final String OTHER = "other@teacup.com";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  private EmailFilter emailFilter;
+
+  @AfterEach
+  void afterEach() throws InterruptedException {
+    if (emailFilter != null) emailFilter.close();
+  }
+
+  @Test
+  void add() throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(false);
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 0L, 0L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    assertThat(emailFilter.mightContain(EMAIL)).isFalse();
+
+    emailFilter.add(EMAIL);
+
+    assertThat(emailFilter.mightContain("Admin@Teacup.com")).isTrue();
+  }
+
+  @Test
+  void mightContainWhenNotBuilt() {
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 0L, 0L);
+
+    emailFilter.add(EMAIL);
+
+    assertThat(emailFilter.mightContain(OTHER)).isTrue();
+  }
+
+  @Test
+  void mightContainWhenNotAscii()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(false);
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 0L, 0L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    assertThat(emailFilter.mightContain("\u00e4dmin@teacup.com")).isTrue();
+    assertThat(emailFilter.mightContain(OTHER)).isFalse();
+  }
+
+  @Test
+  void mightContainWhenStale()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(false);
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 0L, 1L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    Thread.sleep(2L);
+
+    assertThat(emailFilter.mightContain(OTHER)).isTrue();
+  }
+
+  @Test
+  void poll() throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(true, false, true, false);
+    when(resultSet.getInt(1)).thenReturn(150, 151);
+    when(resultSet.getString(2)).thenReturn(EMAIL, OTHER);
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 1L, 60_000L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    verify(preparedStatement, timeout(TimeUnit.MINUTES.toMillis(1L))).setInt(1, 50);
+    verify(resultSet, timeout(TimeUnit.MINUTES.toMillis(1L)).atLeast(4)).next();
+
+    assertThat(emailFilter.mightContain(EMAIL)).isTrue();
+    assertThat(emailFilter.mightContain(OTHER)).isTrue();
+  }
+
+  @Test
+  void pollWhenError()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(false).thenThrow(new SQLException("test"));
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 1L, 60_000L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    verify(resultSet, timeout(TimeUnit.MINUTES.toMillis(1L)).atLeast(3)).next();
+    assertThat(emailFilter.mightContain(EMAIL)).isFalse();
+  }
+
+  @Test
+  void start() throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(true, true, false);
+    when(resultSet.getInt(1)).thenReturn(1, 2);
+    when(resultSet.getString(2)).thenReturn(EMAIL, (String) null);
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 0L, 0L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    assertThat(emailFilter.mightContain(EMAIL)).isTrue();
+    assertThat(emailFilter.mightContain(OTHER)).isFalse();
+
+    verify(preparedStatement).setFetchSize(Integer.MIN_VALUE);
+    verify(preparedStatement).setInt(1, 0);
+    verify(resultSet).close();
+  }
+
+  @Test
+  void startWhenError()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenThrow(new SQLException("test")).thenReturn(false);
+
+    emailFilter = new EmailFilter(dataSource, 10, 0.01, 1L, 0L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    assertThat(emailFilter.mightContain(EMAIL)).isFalse();
+
+    verify(dataSource, atLeast(2)).getConnection();
+  }
+
+  @Test
+  void startWhenScaled()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    stub();
+    when(resultSet.next()).thenReturn(false);
+
+    emailFilter = new EmailFilter(dataSource, 100, 0.01, 0L, 0L);
+    emailFilter.start().toCompletableFuture().get(1L, TimeUnit.MINUTES);
+
+    for (var index = 0; index < 10_000; index++) emailFilter.add(index + EMAIL);
+    for (var index = 0; index < 10_000; index++)
+      assertThat(emailFilter.mightContain(index + EMAIL)).isTrue();
+
+    var falsePositives = 0;
+    for (var index = 0; index < 100_000; index++)
+      if (emailFilter.mightContain(index + OTHER)) falsePositives++;
+
+    assertThat(falsePositives).isLessThan(2_000);
+  }
+
+  private void stub() throws SQLException {
+    try (var connect = dataSource.getConnection()) {
+      when(connect).thenReturn(connection);
+    }
+
+    try (var prepared = connection.prepareStatement(anyString(), anyInt(), anyInt())) {
+      when(prepared).thenReturn(preparedStatement);
+    }
+
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EventFilterTest {
+  private final ContainerRequestContext containerRequestContext =
+      mock(ContainerRequestContext.class);
+  private final ContainerResponseContext containerResponseContext =
+      mock(ContainerResponseContext.class);
+  private final EventFilter eventFilter = new EventFilter();
+  private final ReaderInterceptorContext readerInterceptorContext =
+      mock(ReaderInterceptorContext.class);
+  private final WriterInterceptorContext writerInterceptorContext =
+      mock(WriterInterceptorContext.class);
+
+  @Test
+  void aroundReadFrom() throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      var requestTrace = RequestTrace.start("logIn");
+      when(readerInterceptorContext.getProperty(anyString())).thenReturn(requestTrace);
+      when(readerInterceptorContext.proceed()).thenReturn("body");
+
+      assertThat(eventFilter.aroundReadFrom(readerInterceptorContext)).isEqualTo("body");
+    }
+  }
+
+  @Test
+  void aroundReadFromWhenNotTraced() throws IOException {
+    when(readerInterceptorContext.proceed()).thenReturn("body");
+    assertThat(eventFilter.aroundReadFrom(readerInterceptorContext)).isEqualTo("body");
+  }
+
+  @Test
+  void aroundWriteTo() throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      when(writerInterceptorContext.getProperty(anyString()))
+          .thenReturn(RequestTrace.start("logIn"));
+
+      eventFilter.aroundWriteTo(writerInterceptorContext);
+
+      verify(writerInterceptorContext).proceed();
+      assertThat(RequestTrace.current()).isNull();
+    }
+  }
+
+  @Test
+  void aroundWriteToWhenNotTraced() throws IOException {
+    eventFilter.aroundWriteTo(writerInterceptorContext);
+    verify(writerInterceptorContext).proceed();
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    var uriInfo = mock(UriInfo.class);
+    when(uriInfo.getPath()).thenReturn("v1/account/logIn");
+    when(containerRequestContext.getUriInfo()).thenReturn(uriInfo);
+  }
+
+  @Test
+  void filterRequest() {
+    try (var recording = new Recording()) {
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      eventFilter.filter(containerRequestContext);
+
+      verify(containerRequestContext).setProperty(anyString(), any(RequestTrace.class));
+      assertThat(RequestTrace.current()).isNotNull();
+    }
+  }
+
+  @Test
+  void filterRequestWhenNotRecording() {
+    eventFilter.filter(containerRequestContext);
+
+    verify(containerRequestContext, never()).setProperty(anyString(), any());
+    assertThat(RequestTrace.current()).isNull();
+  }
+
+  @Test
+  void filterResponse() {
+    try (var recording = new Recording()) {
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      when(containerRequestContext.getProperty(anyString()))
+          .thenReturn(RequestTrace.start("logIn"));
+      when(containerResponseContext.getStatus()).thenReturn(204);
+
+      eventFilter.filter(containerRequestContext, containerResponseContext);
+
+      verify(containerResponseContext).hasEntity();
+      assertThat(RequestTrace.current()).isNull();
+    }
+  }
+
+  @Test
+  void filterResponseWhenEntity() {
+    try (var recording = new Recording()) {
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      var requestTrace = RequestTrace.start("logIn");
+      when(containerRequestContext.getProperty(anyString())).thenReturn(requestTrace);
+      when(containerResponseContext.hasEntity()).thenReturn(true);
+
+      eventFilter.filter(containerRequestContext, containerResponseContext);
+
+      assertThat(RequestTrace.current()).isNull();
+      requestTrace.end();
+    }
+  }
+
+  @Test
+  void filterResponseWhenNotTraced() {
+    eventFilter.filter(containerRequestContext, containerResponseContext);
+    verify(containerResponseContext, never()).getStatus();
+  }
+}
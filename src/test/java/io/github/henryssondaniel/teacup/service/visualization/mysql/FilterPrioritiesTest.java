@@ -0,0 +1,29 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RateLimitFilter;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import org.junit.jupiter.api.Test;
+
+class FilterPrioritiesTest {
+  @Test
+  void priorities() {
+    assertThat(
+            new int[] {
+              getPriority(EventFilter.class),
+              getPriority(MetricsFilter.class),
+              getPriority(RateLimitFilter.class),
+              getPriority(ConcurrencyLimitFilter.class),
+              getPriority(DeadlineFilter.class),
+              Priorities.AUTHENTICATION
+            })
+        .isSorted()
+        .doesNotHaveDuplicates();
+  }
+
+  private static int getPriority(Class<?> filter) {
+    return filter.getAnnotation(Priority.class).value();
+  }
+}
@@ -0,0 +1,147 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HashingExecutorTest {
+  private static final String ENDPOINT = "endpoint";
+  private static final long TIMEOUT = 5L;
+
+  private final HashingExecutor hashingExecutor = new HashingExecutor(1, 1, 1);
+
+  @AfterEach
+  void afterEach() throws InterruptedException {
+    hashingExecutor.close();
+    Deadline.setCurrent(null);
+  }
+
+  @Test
+  void supply() throws ExecutionException, InterruptedException, TimeoutException {
+    assertThat(
+            hashingExecutor
+                .supply(ENDPOINT, () -> "value")
+                .toCompletableFuture()
+                .get(TIMEOUT, TimeUnit.SECONDS))
+        .isEqualTo("value");
+
+    var queueDepth = hashingExecutor.getQueueDepths().get(ENDPOINT);
+    assertThat(queueDepth.getCurrent()).isZero();
+    assertThat(queueDepth.getPeak()).isOne();
+    assertThat(queueDepth.getRejected()).isZero();
+  }
+
+  @Test
+  void supplyAndApply() throws ExecutionException, InterruptedException, TimeoutException {
+    assertThat(
+            hashingExecutor
+                .supply(ENDPOINT, () -> "value", value -> value + Thread.currentThread().getName())
+                .toCompletableFuture()
+                .get(TIMEOUT, TimeUnit.SECONDS))
+        .isEqualTo("valueteacup-mysql-writer-1");
+  }
+
+  @Test
+  void supplyAndApplyWhenDeadline()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    var deadline = Deadline.start(60_000L);
+
+    assertThat(
+            hashingExecutor
+                .supply(ENDPOINT, () -> "value", value -> Deadline.current())
+                .toCompletableFuture()
+                .get(TIMEOUT, TimeUnit.SECONDS))
+        .isSameAs(deadline);
+  }
+
+  @Test
+  void supplyWhenDeadline() throws ExecutionException, InterruptedException, TimeoutException {
+    var deadline = Deadline.start(60_000L);
+
+    assertThat(
+            hashingExecutor
+                .supply(ENDPOINT, Deadline::current)
+                .toCompletableFuture()
+                .get(TIMEOUT, TimeUnit.SECONDS))
+        .isSameAs(deadline);
+  }
+
+  @Test
+  void supplyWhenDeadlineCleared()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    var release = new CountDownLatch(1);
+    Deadline.start(60_000L);
+
+    var future =
+        hashingExecutor
+            .supply(
+                ENDPOINT,
+                () -> {
+                  try {
+                    return release.await(TIMEOUT, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                  }
+                })
+            .thenApply(released -> Deadline.current())
+            .toCompletableFuture();
+    release.countDown();
+
+    assertThat(future.get(TIMEOUT, TimeUnit.SECONDS)).isNull();
+  }
+
+  @Test
+  void supplyWhenDeadlinePassed() throws InterruptedException {
+    Deadline.start(1L);
+    Thread.sleep(2L);
+
+    var future = hashingExecutor.supply(ENDPOINT, () -> true).toCompletableFuture();
+
+    assertThatThrownBy(future::join).hasCauseInstanceOf(RejectedExecutionException.class);
+    assertThat(hashingExecutor.getQueueDepths().get(ENDPOINT).getRejected()).isZero();
+  }
+
+  @Test
+  void supplyWhenQueueIsFull() throws InterruptedException {
+    var running = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    hashingExecutor.supply(
+        ENDPOINT,
+        () -> {
+          running.countDown();
+          return await(release);
+        });
+    assertThat(running.await(TIMEOUT, TimeUnit.SECONDS)).isTrue();
+
+    var queued = hashingExecutor.supply(ENDPOINT, () -> true).toCompletableFuture();
+    var rejected = hashingExecutor.supply(ENDPOINT, () -> true).toCompletableFuture();
+
+    var queueDepth = hashingExecutor.getQueueDepths().get(ENDPOINT);
+    assertThat(queueDepth.getCurrent()).isOne();
+    assertThat(queueDepth.getRejected()).isOne();
+
+    assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+
+    release.countDown();
+    assertThat(queued.join()).isTrue();
+    assertThat(queueDepth.getPeak()).isEqualTo(2);
+  }
+
+  private static boolean await(CountDownLatch countDownLatch) {
+    try {
+      return countDownLatch.await(TIMEOUT, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
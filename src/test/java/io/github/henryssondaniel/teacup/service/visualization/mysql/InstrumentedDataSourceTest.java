@@ -0,0 +1,300 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InstrumentedDataSourceTest {
+  private static final String INSERT = "INSERT INTO recover(account, ip) VALUES (?, ?)";
+  private static final String SQL = "SELECT id FROM account WHERE email = ?";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource =
+      mock(DataSource.class, withSettings().extraInterfaces(AutoCloseable.class));
+  private final Metrics metrics = new Metrics();
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  private InstrumentedDataSource instrumentedDataSource;
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    instrumentedDataSource = new InstrumentedDataSource(dataSource, metrics, 0L, 1);
+
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+
+    try (var statement = connection.prepareStatement(SQL)) {
+      when(statement).thenReturn(preparedStatement);
+    }
+
+    try (var set = preparedStatement.executeQuery()) {
+      when(set).thenReturn(resultSet);
+    }
+
+    when(resultSet.next()).thenReturn(true, true, false);
+  }
+
+  @Test
+  void close() throws Exception {
+    instrumentedDataSource.close();
+    verify((AutoCloseable) dataSource).close();
+  }
+
+  @Test
+  void closeWhenNotCloseable() throws Exception {
+    new InstrumentedDataSource(mock(DataSource.class), metrics, 0L, 1).close();
+    assertThat(write()).contains("teacup_visualization_connection_seconds_count 0");
+  }
+
+  @Test
+  void connectionEquals() throws SQLException {
+    try (var conn = instrumentedDataSource.getConnection()) {
+      assertThat(conn).isEqualTo(conn).hasSameHashCodeAs(conn);
+      assertThat(conn.toString()).startsWith("Instrumented ");
+    }
+  }
+
+  @Test
+  void getConnection() throws SQLException {
+    try (var conn = instrumentedDataSource.getConnection()) {
+      assertThat(conn).isNotSameAs(connection);
+    }
+
+    verify(connection).close();
+    assertThat(write()).contains("teacup_visualization_connection_seconds_count 1");
+  }
+
+  @Test
+  void getConnectionWhenError() throws SQLException {
+    var sqlException = new SQLException("test");
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(sqlException);
+    }
+
+    assertThatThrownBy(instrumentedDataSource::getConnection).isSameAs(sqlException);
+    assertThat(write()).contains("teacup_visualization_connection_seconds_count 1");
+  }
+
+  @Test
+  void getConnectionWithCredentials() throws SQLException {
+    try (var conn = dataSource.getConnection("user", "password")) {
+      when(conn).thenReturn(connection);
+    }
+
+    try (var conn = instrumentedDataSource.getConnection("user", "password")) {
+      assertThat(conn).isNotSameAs(connection);
+    }
+
+    assertThat(write()).contains("teacup_visualization_connection_seconds_count 1");
+  }
+
+  @Test
+  void isWrapperFor() throws SQLException {
+    when(dataSource.isWrapperFor(Connection.class)).thenReturn(true);
+
+    assertThat(instrumentedDataSource.isWrapperFor(InstrumentedDataSource.class)).isTrue();
+    assertThat(instrumentedDataSource.isWrapperFor(Connection.class)).isTrue();
+    assertThat(instrumentedDataSource.isWrapperFor(String.class)).isFalse();
+  }
+
+  @Test
+  void normalize() {
+    assertThat(InstrumentedDataSource.normalize(SQL)).isEqualTo(SQL);
+    assertThat(InstrumentedDataSource.normalize("SELECT id FROM account WHERE email IN (?, ?,?)"))
+        .isEqualTo("SELECT id FROM account WHERE email IN (?, ...)");
+    assertThat(
+            InstrumentedDataSource.normalize(
+                "INSERT INTO log_in(ip, log_ins, successful) VALUES (?, ?, ?),(?, ?, ?), (?, ?, ?)"))
+        .isEqualTo("INSERT INTO log_in(ip, log_ins, successful) VALUES (?, ...), ...");
+    assertThat(InstrumentedDataSource.normalize("INSERT INTO role(name) VALUES (?),(?)"))
+        .isEqualTo("INSERT INTO role(name) VALUES (?), ...");
+  }
+
+  @Test
+  void prepareCall() throws SQLException {
+    var callableStatement = mock(CallableStatement.class);
+
+    try (var statement = connection.prepareCall("CALL audit(?)")) {
+      when(statement).thenReturn(callableStatement);
+    }
+
+    when(callableStatement.execute()).thenReturn(true);
+
+    try (var set = callableStatement.getResultSet()) {
+      when(set).thenReturn(resultSet);
+    }
+
+    try (var conn = instrumentedDataSource.getConnection();
+        var statement = conn.prepareCall("CALL audit(?)")) {
+      assertThat(statement).isInstanceOf(CallableStatement.class);
+      assertThat(statement.execute()).isTrue();
+
+      try (var set = statement.getResultSet()) {
+        while (set.next()) set.getLong(1);
+      }
+    }
+
+    verify(callableStatement).close();
+    assertThat(write())
+        .contains("teacup_visualization_statement_seconds_count{sql=\"CALL audit(?)\"} 1")
+        .contains("teacup_visualization_rows_total{sql=\"CALL audit(?)\"} 2");
+  }
+
+  @Test
+  void prepareStatement() throws SQLException {
+    try (var conn = instrumentedDataSource.getConnection();
+        var statement = conn.prepareStatement(SQL)) {
+      statement.setString(1, "email");
+
+      try (var set = statement.executeQuery()) {
+        while (set.next()) set.getLong(1);
+      }
+    }
+
+    verify(preparedStatement).setString(1, "email");
+    verify(resultSet).close();
+
+    assertThat(write())
+        .contains("teacup_visualization_statement_seconds_count{sql=\"" + SQL + "\"} 1")
+        .contains("teacup_visualization_fetch_seconds_count{sql=\"" + SQL + "\"} 1")
+        .contains("teacup_visualization_rows_total{sql=\"" + SQL + "\"} 2");
+  }
+
+  @Test
+  void prepareStatementWhenBatch() throws SQLException {
+    try (var statement = connection.prepareStatement(anyString())) {
+      when(statement).thenReturn(preparedStatement);
+    }
+
+    for (var rows = 1; rows <= 3; rows++)
+      try (var conn = instrumentedDataSource.getConnection();
+          var statement = conn.prepareStatement(INSERT + ", (?, ?)".repeat(rows))) {
+        statement.execute();
+      }
+
+    assertThat(write())
+        .contains(
+            "teacup_visualization_statement_seconds_count{sql=\"INSERT INTO recover(account, ip)"
+                + " VALUES (?, ...), ...\"} 3");
+  }
+
+  @Test
+  void prepareStatementWhenDeadline() throws SQLException {
+    Deadline.start(60_000L);
+
+    try (var conn = instrumentedDataSource.getConnection();
+        var statement = conn.prepareStatement(SQL)) {
+      statement.execute();
+    } finally {
+      Deadline.setCurrent(null);
+    }
+
+    verify(preparedStatement).setQueryTimeout(60);
+    verify(preparedStatement).execute();
+  }
+
+  @Test
+  void prepareStatementWhenError() throws SQLException {
+    var sqlException = new SQLException("test");
+    when(preparedStatement.executeUpdate()).thenThrow(sqlException);
+
+    try (var conn = instrumentedDataSource.getConnection();
+        var statement = conn.prepareStatement(SQL)) {
+      assertThatThrownBy(statement::executeUpdate).isSameAs(sqlException);
+    }
+
+    assertThat(write())
+        .contains("teacup_visualization_statement_seconds_count{sql=\"" + SQL + "\"} 1")
+        .contains("teacup_visualization_rows_total{sql=\"" + SQL + "\"} 0");
+  }
+
+  @Test
+  void slowStatement() throws SQLException {
+    when(preparedStatement.executeUpdate())
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(5L);
+              return 1;
+            });
+
+    Collection<LogRecord> logRecords = new ArrayList<>(1);
+    var handler = new RecordingHandler(logRecords);
+    var logger = Logger.getLogger(InstrumentedDataSource.class.getName());
+    logger.addHandler(handler);
+
+    try (var conn = new InstrumentedDataSource(dataSource, metrics, 1L, 1).getConnection();
+        var statement = conn.prepareStatement(SQL)) {
+      assertThat(statement.executeUpdate()).isOne();
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    assertThat(logRecords).hasSize(1);
+    assertThat(logRecords.iterator().next().getMessage()).endsWith(": " + SQL);
+  }
+
+  @Test
+  void unwrap() throws SQLException {
+    assertThat(instrumentedDataSource.unwrap(InstrumentedDataSource.class))
+        .isSameAs(instrumentedDataSource);
+    when(dataSource.unwrap(Connection.class)).thenReturn(connection);
+    assertThat(instrumentedDataSource.unwrap(Connection.class)).isSameAs(connection);
+  }
+
+  private String write() {
+    var stringWriter = new StringWriter();
+
+    try {
+      metrics.write(stringWriter);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+
+    return stringWriter.toString();
+  }
+
+  private static final class RecordingHandler extends Handler {
+    private final Collection<LogRecord> logRecords;
+
+    private RecordingHandler(Collection<LogRecord> logRecords) {
+      this.logRecords = logRecords;
+    }
+
+    @Override
+    public void close() {
+      // Nothing to close
+    }
+
+    @Override
+    public void flush() {
+      // Nothing to flush
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+      logRecords.add(record);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+  private static final String NAME = "latency";
+
+  private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+  @Test
+  void write() throws IOException {
+    latencyHistogram.record(100_000L);
+    latencyHistogram.record(100_001L);
+    latencyHistogram.record(20_000_000_000L);
+
+    assertThat(write(latencyHistogram))
+        .contains("latency_bucket{a=\"b\",le=\"0.0001\"} 1\n")
+        .contains("latency_bucket{a=\"b\",le=\"0.00025\"} 2\n")
+        .contains("latency_bucket{a=\"b\",le=\"10\"} 2\n")
+        .contains("latency_bucket{a=\"b\",le=\"+Inf\"} 3\n")
+        .contains("latency_sum{a=\"b\"} 20.000200001\n")
+        .endsWith("latency_count{a=\"b\"} 3\n");
+  }
+
+  @Test
+  void writeWhenEmpty() throws IOException {
+    assertThat(write(latencyHistogram))
+        .contains("latency_bucket{a=\"b\",le=\"+Inf\"} 0\n")
+        .contains("latency_sum{a=\"b\"} 0.0\n")
+        .endsWith("latency_count{a=\"b\"} 0\n");
+  }
+
+  @Test
+  void writeWhenNoLabels() throws IOException {
+    latencyHistogram.record(1_000_000L);
+
+    var stringWriter = new StringWriter();
+    latencyHistogram.write(stringWriter, NAME, "");
+
+    assertThat(stringWriter.toString())
+        .contains("latency_bucket{le=\"0.001\"} 1\n")
+        .contains("latency_sum 0.001\n")
+        .endsWith("latency_count 1\n");
+  }
+
+  private static String write(LatencyHistogram latencyHistogram) throws IOException {
+    var stringWriter = new StringWriter();
+    latencyHistogram.write(stringWriter, NAME, "a=\"b\"");
+
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LockoutTableTest {
+  @Test
+  void isLocked() {
+    var lockoutTable = new LockoutTable(60_000L);
+    lockoutTable.lock(1);
+
+    assertThat(lockoutTable.isLocked(1)).isTrue();
+    assertThat(lockoutTable.isLocked(2)).isFalse();
+  }
+
+  @Test
+  void isLockedWhenExpired() throws InterruptedException {
+    var lockoutTable = new LockoutTable(1L);
+    lockoutTable.lock(1);
+
+    Thread.sleep(10L);
+
+    assertThat(lockoutTable.isLocked(1)).isFalse();
+    assertThat(lockoutTable.getSize()).isZero();
+  }
+
+  @Test
+  void isLockedWhenNoTable() {
+    var lockoutTable = new LockoutTable(0L);
+    lockoutTable.lock(1);
+
+    assertThat(lockoutTable.isLocked(1)).isFalse();
+    assertThat(lockoutTable.getSize()).isZero();
+  }
+
+  @Test
+  void lockWhenPurged() throws InterruptedException {
+    var lockoutTable = new LockoutTable(1L);
+    for (var id = 0; id < 10_000; id++) lockoutTable.lock(id);
+
+    Thread.sleep(10L);
+    lockoutTable.lock(10_000);
+
+    assertThat(lockoutTable.getSize()).isLessThanOrEqualTo(1);
+  }
+
+  @Test
+  void unlock() {
+    var lockoutTable = new LockoutTable(60_000L);
+    lockoutTable.lock(1);
+    lockoutTable.unlock(1);
+    lockoutTable.unlock(2);
+
+    assertThat(lockoutTable.isLocked(1)).isFalse();
+  }
+}
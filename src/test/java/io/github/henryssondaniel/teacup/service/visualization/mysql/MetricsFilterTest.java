@@ -0,0 +1,85 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.junit.jupiter.api.Test;
+
+class MetricsFilterTest {
+  private static final String LOG_IN = "logIn";
+
+  private final ContainerRequestContext containerRequestContext =
+      mock(ContainerRequestContext.class);
+  private final ContainerResponseContext containerResponseContext =
+      mock(ContainerResponseContext.class);
+  private final Metrics metrics = new Metrics();
+  private final MetricsFilter metricsFilter = new MetricsFilter(metrics);
+  private final WriterInterceptorContext writerInterceptorContext =
+      mock(WriterInterceptorContext.class);
+
+  @Test
+  void aroundWriteTo() throws IOException {
+    when(writerInterceptorContext.getProperty(anyString())).thenReturn(LOG_IN);
+
+    metricsFilter.aroundWriteTo(writerInterceptorContext);
+
+    verify(writerInterceptorContext).proceed();
+    assertThat(write())
+        .contains("teacup_visualization_serialization_seconds_count{endpoint=\"logIn\"} 1\n");
+  }
+
+  @Test
+  void aroundWriteToWhenNotMatched() throws IOException {
+    metricsFilter.aroundWriteTo(writerInterceptorContext);
+
+    verify(writerInterceptorContext).proceed();
+    assertThat(write()).doesNotContain(LOG_IN);
+  }
+
+  @Test
+  void filterRequest() {
+    var uriInfo = mock(UriInfo.class);
+    when(uriInfo.getPath()).thenReturn("v1/account/logIn");
+    when(containerRequestContext.getUriInfo()).thenReturn(uriInfo);
+
+    metricsFilter.filter(containerRequestContext);
+
+    verify(containerRequestContext).setProperty(anyString(), eq(LOG_IN));
+  }
+
+  @Test
+  void filterResponse() throws IOException {
+    when(containerRequestContext.getProperty(anyString())).thenReturn(LOG_IN);
+    when(containerResponseContext.getStatus()).thenReturn(401);
+
+    metricsFilter.filter(containerRequestContext, containerResponseContext);
+
+    assertThat(write())
+        .contains("teacup_visualization_requests_total{endpoint=\"logIn\"} 1\n")
+        .contains("teacup_visualization_errors_total{endpoint=\"logIn\",status=\"401\"} 1\n");
+  }
+
+  @Test
+  void filterResponseWhenNotMatched() throws IOException {
+    metricsFilter.filter(containerRequestContext, containerResponseContext);
+
+    assertThat(write()).doesNotContain(LOG_IN);
+  }
+
+  private String write() throws IOException {
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    return stringWriter.toString();
+  }
+}
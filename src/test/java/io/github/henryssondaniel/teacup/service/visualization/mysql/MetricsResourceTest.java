@@ -0,0 +1,29 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.Test;
+
+class MetricsResourceTest {
+  @Test
+  void getMetrics() throws IOException {
+    var metrics = new Metrics();
+    metrics.recordResponse("logIn", 200);
+
+    var outputStream = new ByteArrayOutputStream();
+    ((StreamingOutput) new MetricsResource(metrics).getMetrics().getEntity()).write(outputStream);
+
+    assertThat(outputStream.toString(StandardCharsets.UTF_8))
+        .startsWith("# HELP teacup_visualization_requests_total")
+        .contains("teacup_visualization_requests_total{endpoint=\"logIn\"} 1\n");
+  }
+
+  @Test
+  void metricsResource() {
+    assertThat(new MetricsResource()).isNotNull();
+  }
+}
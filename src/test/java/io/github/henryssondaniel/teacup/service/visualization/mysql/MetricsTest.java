@@ -0,0 +1,151 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.CircuitBreakerDataSource.State;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics.Phase;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class MetricsTest {
+  private static final String LOG_IN = "logIn";
+  private static final String SQL = "SELECT 1";
+
+  private final Metrics metrics = new Metrics();
+
+  @Test
+  void getInstance() {
+    assertThat(Metrics.getInstance()).isSameAs(Metrics.getInstance());
+  }
+
+  @Test
+  void record() throws IOException {
+    metrics.record(LOG_IN, Phase.DATABASE, 2_000_000L);
+    metrics.record(LOG_IN, Phase.HASHING, 50_000_000L);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_database_seconds histogram\n")
+        .contains(
+            "teacup_visualization_database_seconds_bucket{endpoint=\"logIn\",le=\"0.001\"} 0\n")
+        .contains(
+            "teacup_visualization_database_seconds_bucket{endpoint=\"logIn\",le=\"0.0025\"} 1\n")
+        .contains("teacup_visualization_hashing_seconds_sum{endpoint=\"logIn\"} 0.05\n")
+        .contains("teacup_visualization_serialization_seconds_count{endpoint=\"logIn\"} 0\n");
+  }
+
+  @Test
+  void recordBulkheadRejection() throws IOException {
+    metrics.recordBulkheadRejection(LOG_IN);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_bulkhead_rejections_total counter\n")
+        .contains("teacup_visualization_bulkhead_rejections_total{endpoint=\"logIn\"} 1\n");
+  }
+
+  @Test
+  void recordCircuit() throws IOException {
+    assertThat(write()).doesNotContain("teacup_visualization_circuit_state{");
+
+    metrics.recordCircuit(State.OPEN);
+    metrics.recordCircuitRejection();
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_circuit_state gauge\n")
+        .contains("teacup_visualization_circuit_state{state=\"closed\"} 0\n")
+        .contains("teacup_visualization_circuit_state{state=\"half_open\"} 0\n")
+        .contains("teacup_visualization_circuit_state{state=\"open\"} 1\n")
+        .contains("teacup_visualization_circuit_rejections_total 1\n");
+  }
+
+  @Test
+  void recordConnection() throws IOException {
+    metrics.recordConnection(300_000L);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_connection_seconds histogram\n")
+        .contains("teacup_visualization_connection_seconds_bucket{le=\"0.00025\"} 0\n")
+        .contains("teacup_visualization_connection_seconds_bucket{le=\"0.0005\"} 1\n")
+        .contains("teacup_visualization_connection_seconds_count 1\n");
+  }
+
+  @Test
+  void recordFetch() throws IOException {
+    metrics.recordFetch(SQL, 1_000_000L, 2L);
+    metrics.recordFetch(SQL, 1_000_000L, 3L);
+
+    assertThat(write())
+        .contains("teacup_visualization_fetch_seconds_sum{sql=\"SELECT 1\"} 0.002\n")
+        .contains("teacup_visualization_fetch_seconds_count{sql=\"SELECT 1\"} 2\n")
+        .contains("teacup_visualization_rows_total{sql=\"SELECT 1\"} 5\n")
+        .contains("teacup_visualization_statement_seconds_count{sql=\"SELECT 1\"} 0\n");
+  }
+
+  @Test
+  void recordLimit() throws IOException {
+    metrics.recordLimit(LOG_IN, 20);
+    metrics.recordResponse("signUp", 200);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_concurrency_limit gauge\n")
+        .contains("teacup_visualization_concurrency_limit{endpoint=\"logIn\"} 20\n")
+        .doesNotContain("teacup_visualization_concurrency_limit{endpoint=\"signUp\"}");
+  }
+
+  @Test
+  void recordResponse() throws IOException {
+    metrics.recordResponse(LOG_IN, 200);
+    metrics.recordResponse(LOG_IN, 401);
+    metrics.recordResponse(LOG_IN, 406);
+    metrics.recordResponse(LOG_IN, 500);
+    metrics.recordResponse(LOG_IN, 503);
+    metrics.recordResponse("signUp", 409);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_requests_total counter\n")
+        .contains("teacup_visualization_requests_total{endpoint=\"logIn\"} 5\n")
+        .contains("teacup_visualization_requests_total{endpoint=\"signUp\"} 1\n")
+        .contains("teacup_visualization_errors_total{endpoint=\"logIn\",status=\"401\"} 1\n")
+        .contains("teacup_visualization_errors_total{endpoint=\"logIn\",status=\"406\"} 1\n")
+        .contains("teacup_visualization_errors_total{endpoint=\"logIn\",status=\"5xx\"} 2\n")
+        .contains("teacup_visualization_errors_total{endpoint=\"signUp\",status=\"409\"} 1\n")
+        .contains("teacup_visualization_errors_total{endpoint=\"signUp\",status=\"5xx\"} 0\n");
+  }
+
+  @Test
+  void recordShed() throws IOException {
+    metrics.recordShed(LOG_IN);
+    metrics.recordShed(LOG_IN);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_shed_total counter\n")
+        .contains("teacup_visualization_shed_total{endpoint=\"logIn\"} 2\n");
+  }
+
+  @Test
+  void recordStatement() throws IOException {
+    metrics.recordStatement(SQL, 5_000_000L);
+
+    assertThat(write())
+        .contains("# TYPE teacup_visualization_statement_seconds histogram\n")
+        .contains(
+            "teacup_visualization_statement_seconds_bucket{sql=\"SELECT 1\",le=\"0.005\"} 1\n")
+        .contains("teacup_visualization_statement_seconds_count{sql=\"SELECT 1\"} 1\n")
+        .contains("teacup_visualization_rows_total{sql=\"SELECT 1\"} 0\n");
+  }
+
+  @Test
+  void writeWhenEscaped() throws IOException {
+    metrics.recordResponse("a\"b\\c\n", 200);
+
+    assertThat(write())
+        .contains("teacup_visualization_requests_total{endpoint=\"a\\\"b\\\\c\\n\"} 1\n");
+  }
+
+  private String write() throws IOException {
+    var stringWriter = new StringWriter();
+    metrics.write(stringWriter);
+
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,29 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class MigrationTest {
+  private static final String DESCRIPTION = "description";
+  private static final String STATEMENT = "statement";
+
+  @Test
+  void getChecksum() {
+    var migration = new Migration(1, DESCRIPTION, STATEMENT);
+
+    assertThat(migration.getChecksum())
+        .isEqualTo(new Migration(2, "other", STATEMENT).getChecksum())
+        .isNotEqualTo(new Migration(1, DESCRIPTION, STATEMENT, STATEMENT).getChecksum())
+        .isNotEqualTo(new Migration(1, DESCRIPTION, "other").getChecksum());
+  }
+
+  @Test
+  void migration() {
+    var migration = new Migration(1, DESCRIPTION, STATEMENT);
+
+    assertThat(migration.getDescription()).isEqualTo(DESCRIPTION);
+    assertThat(migration.getStatements()).containsExactly(STATEMENT);
+    assertThat(migration.getVersion()).isOne();
+  }
+}
@@ -0,0 +1,83 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+  private static final String KEY = "127.0.0.1";
+
+  @Test
+  void acquire() {
+    var rateLimiter = new RateLimiter(10, 1.0, 3);
+
+    for (var index = 0; index < 3; index++) assertThat(rateLimiter.acquire(KEY)).isZero();
+
+    assertThat(rateLimiter.acquire(KEY))
+        .isPositive()
+        .isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1L));
+    assertThat(rateLimiter.acquire("other")).isZero();
+  }
+
+  @Test
+  void acquireWhenConcurrent() throws InterruptedException {
+    var rateLimiter = new RateLimiter(10, 0.001, 100);
+    var permitted = new AtomicInteger(0);
+    var executorService = Executors.newFixedThreadPool(4);
+
+    for (var index = 0; index < 1_000; index++)
+      executorService.execute(
+          () -> {
+            if (rateLimiter.acquire(KEY) == 0L) permitted.incrementAndGet();
+          });
+
+    executorService.shutdown();
+    assertThat(executorService.awaitTermination(1L, TimeUnit.MINUTES)).isTrue();
+
+    assertThat(permitted).hasValue(100);
+  }
+
+  @Test
+  void acquireWhenEvicted() {
+    var rateLimiter = new RateLimiter(16, 0.001, 1);
+
+    for (var index = 0; index < 1_000; index++) rateLimiter.acquire(index + KEY);
+
+    assertThat(rateLimiter.getSize()).isLessThanOrEqualTo(32);
+  }
+
+  @Test
+  void acquireWhenEvictedByRotation() {
+    var rateLimiter = new RateLimiter(128, 0.001, 3);
+
+    for (var index = 0; index < 3; index++) assertThat(rateLimiter.acquire(KEY)).isZero();
+    assertThat(rateLimiter.acquire(KEY)).isPositive();
+
+    for (var index = 0; index < 1_000; index++) rateLimiter.acquire(index + KEY);
+
+    assertThat(rateLimiter.acquire(KEY)).isPositive();
+    assertThat(rateLimiter.getSize()).isLessThanOrEqualTo(256);
+  }
+
+  @Test
+  void acquireWhenIdleEvicted() throws InterruptedException {
+    var rateLimiter = new RateLimiter(16, 1_000.0, 1);
+
+    for (var index = 0; index < 16; index++) rateLimiter.acquire(index + KEY);
+    Thread.sleep(10L);
+    for (var index = 16; index < 1_000; index++) rateLimiter.acquire(index + KEY);
+
+    assertThat(rateLimiter.getSize()).isLessThanOrEqualTo(32);
+  }
+
+  @Test
+  void acquireWhenNoLimit() {
+    var rateLimiter = new RateLimiter(10, 0.0, 1);
+
+    for (var index = 0; index < 100; index++) assertThat(rateLimiter.acquire(KEY)).isZero();
+    assertThat(rateLimiter.getSize()).isZero();
+  }
+}
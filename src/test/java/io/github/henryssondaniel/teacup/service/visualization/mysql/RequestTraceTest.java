@@ -0,0 +1,130 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+class RequestTraceTest {
+  private static final String LOG_IN = "logIn";
+  private static final String PHASE = "phase";
+  private static final String REQUEST = "request";
+  private static final String SQL = "sql";
+
+  @Test
+  void hashing() throws ExecutionException, InterruptedException, IOException {
+    try (var recording = new Recording()) {
+      recording.enable(PhaseEvent.class);
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      var requestTrace = RequestTrace.start(LOG_IN);
+      assertThat(requestTrace).isNotNull();
+
+      CompletableFuture.supplyAsync(
+              RequestTrace.hashing(
+                  () -> {
+                    RequestTrace.setAccount(1);
+                    return RequestTrace.current();
+                  }))
+          .thenAccept(current -> assertThat(current).isSameAs(requestTrace))
+          .get();
+
+      requestTrace.setStatus(200);
+      requestTrace.end();
+
+      assertThat(RequestTrace.current()).isNull();
+
+      var recordedEvents = stop(recording);
+      assertThat(recordedEvents).hasSize(2);
+
+      var phaseEvent = recordedEvents.get(0);
+      var requestEvent = recordedEvents.get(1);
+
+      assertThat(phaseEvent.getString("endpoint")).isEqualTo(LOG_IN);
+      assertThat(phaseEvent.getString(PHASE)).isEqualTo("hashing");
+      assertThat(phaseEvent.getLong(REQUEST)).isEqualTo(requestEvent.getLong(REQUEST));
+      assertThat(phaseEvent.getString(SQL)).isNull();
+
+      assertThat(requestEvent.getInt("account")).isOne();
+      assertThat(requestEvent.getString("endpoint")).isEqualTo(LOG_IN);
+      assertThat(requestEvent.getInt("status")).isEqualTo(200);
+    }
+  }
+
+  @Test
+  void hashingWhenDone() throws ExecutionException, InterruptedException {
+    var executorService = Executors.newSingleThreadExecutor();
+
+    try (var recording = new Recording()) {
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      var requestTrace = RequestTrace.start(LOG_IN);
+      executorService.submit(RequestTrace.hashing(() -> true)::get).get();
+      requestTrace.end();
+
+      assertThat(executorService.submit(RequestTrace::current).get()).isNull();
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  void hashingWhenNotStarted() throws ExecutionException, InterruptedException {
+    assertThat(RequestTrace.start(LOG_IN)).isNull();
+
+    RequestTrace.setAccount(1);
+
+    assertThat(CompletableFuture.supplyAsync(RequestTrace.hashing(RequestTrace::current)).get())
+        .isNull();
+  }
+
+  @Test
+  void statement() throws IOException {
+    try (var recording = new Recording()) {
+      recording.enable(PhaseEvent.class);
+      recording.enable(RequestEvent.class);
+      recording.start();
+
+      var requestTrace = RequestTrace.start(LOG_IN);
+      assertThat(requestTrace).isNotNull();
+
+      requestTrace.commit(requestTrace.begin(), "statement", "SELECT 1");
+      requestTrace.end();
+
+      var recordedEvents = stop(recording);
+      assertThat(recordedEvents).hasSize(2);
+      assertThat(recordedEvents.get(0).getString(SQL)).isEqualTo("SELECT 1");
+      assertThat(recordedEvents.get(1).getInt("account")).isZero();
+    }
+  }
+
+  private static List<RecordedEvent> stop(Recording recording) throws IOException {
+    recording.stop();
+
+    var path = Files.createTempFile("request", ".jfr");
+
+    try {
+      recording.dump(path);
+
+      List<RecordedEvent> recordedEvents = new ArrayList<>(RecordingFile.readAllEvents(path));
+      recordedEvents.sort(
+          Comparator.comparing(recordedEvent -> recordedEvent.getEventType().getName()));
+
+      return recordedEvents;
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
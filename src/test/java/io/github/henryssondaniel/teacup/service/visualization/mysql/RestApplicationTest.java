@@ -1,22 +1,39 @@
 package io.github.henryssondaniel.teacup.service.visualization.mysql;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.AccountResource;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.ProfileWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RateLimitFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0.RequestReader;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Collections;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
 
 class RestApplicationTest {
+  private static final long TIMEOUT = 5_000L;
+
   private final DataSource dataSource = mock(DataSource.class);
 
   @Test
-  void getClasses() throws SQLException {
+  void getSingletons() throws SQLException {
     var statement = mock(Statement.class);
 
     var connection = mock(Connection.class);
@@ -24,20 +41,49 @@ class RestApplicationTest {
       when(state).thenReturn(statement);
     }
 
+    var preparedStatement = mock(PreparedStatement.class);
+    try (var prepared = connection.prepareStatement(anyString())) {
+      when(prepared).thenReturn(preparedStatement);
+    }
+
+    var resultSet = mock(ResultSet.class);
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
+    }
+
+    when(resultSet.getInt(1)).thenReturn(1);
+    when(resultSet.next()).thenReturn(false, true, false, true);
+
     try (var connect = dataSource.getConnection()) {
       when(connect).thenReturn(connection);
     }
 
-    createRestApplication();
+    var restApplication = createRestApplication();
+    restApplication.getSingletons();
+
+    verify(preparedStatement, timeout(TIMEOUT).times(3)).setInt(eq(4), anyInt());
+    verify(dataSource, atLeastOnce()).getConnection();
+    verify(statement)
+        .execute(startsWith("CREATE PROCEDURE `teacup_visualization`.`select_log_in`"));
+    verify(statement).execute(startsWith("CREATE PROCEDURE `teacup_visualization`.`sign_up`"));
+    verify(statement).execute(startsWith("CREATE PROCEDURE `teacup_visualization`.`sign_up_v2`"));
+    verify(statement).execute(contains("OUT out_account INT UNSIGNED"));
+    verify(statement).execute("DROP PROCEDURE IF EXISTS `teacup_visualization`.`sign_up`");
+    verify(statement)
+        .execute(startsWith("CREATE PROCEDURE `teacup_visualization`.`update_log_ins`"));
+    verify(statement).execute("DROP PROCEDURE IF EXISTS `teacup_visualization`.`insert_log_in`");
+    verify(statement, never()).execute(endsWith("ALGORITHM=INPLACE, LOCK=NONE"));
   }
 
   @Test
-  void getClassesWhenException() throws SQLException {
+  void getSingletonsWhenException() throws SQLException {
     try (var connect = dataSource.getConnection()) {
       when(connect).thenThrow(new SQLException("test"));
     }
 
-    createRestApplication();
+    createRestApplication().getSingletons();
+
+    verify(dataSource, timeout(TIMEOUT)).getConnection();
   }
 
   @Test
@@ -45,8 +91,31 @@ class RestApplicationTest {
     assertThat(new RestApplication()).isNotNull();
   }
 
-  private void createRestApplication() {
-    assertThat(new RestApplication(dataSource).getClasses())
-        .containsOnlyElementsOf(Collections.singletonList(AccountResource.class));
+  @Test
+  void restApplicationWhenCloseable() throws Exception {
+    var closeable = mock(DataSource.class, withSettings().extraInterfaces(AutoCloseable.class));
+    new RestApplication(closeable);
+
+    ContextListener.close();
+
+    verify((AutoCloseable) closeable).close();
+  }
+
+  private RestApplication createRestApplication() {
+    var restApplication = new RestApplication(dataSource);
+
+    assertThat(restApplication.getSingletons())
+        .hasAtLeastOneElementOfType(AccountResource.class)
+        .hasAtLeastOneElementOfType(ConcurrencyLimitFilter.class)
+        .hasAtLeastOneElementOfType(DeadlineFilter.class)
+        .hasAtLeastOneElementOfType(EventFilter.class)
+        .hasAtLeastOneElementOfType(MetricsFilter.class)
+        .hasAtLeastOneElementOfType(ProfileWriter.class)
+        .hasAtLeastOneElementOfType(RateLimitFilter.class)
+        .hasAtLeastOneElementOfType(RequestReader.class)
+        .hasSize(8);
+    assertThat(restApplication.getClasses()).containsExactly(MetricsResource.class);
+
+    return restApplication;
   }
 }
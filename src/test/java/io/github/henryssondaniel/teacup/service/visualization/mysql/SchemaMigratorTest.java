@@ -0,0 +1,221 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SchemaMigratorTest {
+  private static final String CHECKSUM = "checksum";
+  private static final String DROP_INDEX = Schema.dropIndex("account", "id_UNIQUE");
+  private static final String FIRST = "first";
+  private static final String SECOND = "second";
+  private static final long TIMEOUT = 5L;
+  private static final String VERSION = "version";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final ResultSet indexResultSet = mock(ResultSet.class);
+  private final PreparedStatement indexStatement = mock(PreparedStatement.class);
+  private final PreparedStatement insertStatement = mock(PreparedStatement.class);
+  private final PreparedStatement lockStatement = mock(PreparedStatement.class);
+  private final ResultSet lockResultSet = mock(ResultSet.class);
+  private final Migration migration = new Migration(1, "description", FIRST, SECOND);
+  private final PreparedStatement releaseStatement = mock(PreparedStatement.class);
+  private final ResultSet releaseResultSet = mock(ResultSet.class);
+  private final SchemaMigrator schemaMigrator =
+      new SchemaMigrator(dataSource, List.of(migration), 1L, 1L);
+  private final Statement statement = mock(Statement.class);
+  private final ResultSet versionResultSet = mock(ResultSet.class);
+  private final PreparedStatement versionStatement = mock(PreparedStatement.class);
+
+  @AfterEach
+  void afterEach() throws InterruptedException {
+    schemaMigrator.close();
+  }
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+
+    try (var state = connection.createStatement()) {
+      when(state).thenReturn(statement);
+    }
+
+    prepare("INSERT", insertStatement, null);
+    prepare("SELECT 1 FROM information_schema", indexStatement, indexResultSet);
+    prepare("SELECT GET_LOCK", lockStatement, lockResultSet);
+    prepare("SELECT RELEASE_LOCK", releaseStatement, releaseResultSet);
+    prepare("SELECT checksum", versionStatement, versionResultSet);
+
+    when(lockResultSet.getInt(1)).thenReturn(1);
+    when(lockResultSet.next()).thenReturn(true);
+  }
+
+  @Test
+  void migrate() throws SQLException {
+    assertThat(schemaMigrator.migrate()).isTrue();
+
+    verify(statement).execute(startsWith("CREATE SCHEMA"));
+    verify(statement).execute(startsWith("CREATE TABLE IF NOT EXISTS"));
+    verify(statement).execute(FIRST);
+    verify(statement).execute(SECOND);
+
+    verify(insertStatement).setLong(1, migration.getChecksum());
+    verify(insertStatement).setInt(4, 1);
+    verify(insertStatement).execute();
+
+    verify(lockStatement).setLong(2, 1L);
+    verify(releaseStatement).executeQuery();
+  }
+
+  @Test
+  void migrateWhenChecksumDiffers() throws SQLException {
+    when(versionResultSet.getInt(VERSION)).thenReturn(1);
+    when(versionResultSet.getLong(CHECKSUM)).thenReturn(migration.getChecksum() + 1L);
+    when(versionResultSet.next()).thenReturn(true, false);
+
+    assertThat(schemaMigrator.migrate()).isFalse();
+
+    verifyNoInteractions(lockStatement);
+    verifyNoInteractions(statement);
+  }
+
+  @Test
+  void migrateWhenCurrent() throws SQLException {
+    when(versionResultSet.getInt(VERSION)).thenReturn(1, 2);
+    when(versionResultSet.getLong(CHECKSUM)).thenReturn(migration.getChecksum(), 0L);
+    when(versionResultSet.next()).thenReturn(true, true, false);
+
+    assertThat(schemaMigrator.migrate()).isTrue();
+
+    verify(connection).prepareStatement(anyString());
+    verify(connection, never()).createStatement();
+  }
+
+  @Test
+  void migrateWhenError() throws SQLException {
+    when(statement.execute(SECOND)).thenThrow(new SQLException("test"));
+
+    assertThat(schemaMigrator.migrate()).isFalse();
+
+    verifyNoInteractions(insertStatement);
+    verify(releaseStatement).executeQuery();
+  }
+
+  @Test
+  void migrateWhenDropError() throws SQLException {
+    when(statement.execute(FIRST)).thenThrow(new SQLException("test", "42000", 1091));
+
+    assertThat(schemaMigrator.migrate()).isFalse();
+
+    verify(statement, never()).execute(SECOND);
+    verifyNoInteractions(insertStatement);
+  }
+
+  @Test
+  void migrateWhenIndexExists() throws SQLException {
+    when(indexResultSet.next()).thenReturn(true);
+
+    assertThat(createDropIndexMigrator().migrate()).isTrue();
+
+    verify(indexStatement).setString(1, "account");
+    verify(indexStatement).setString(2, "id_UNIQUE");
+    verify(statement).execute(DROP_INDEX);
+  }
+
+  @Test
+  void migrateWhenIndexIsDropped() throws SQLException {
+    assertThat(createDropIndexMigrator().migrate()).isTrue();
+
+    verify(statement, never()).execute(DROP_INDEX);
+    verify(statement).execute(SECOND);
+    verify(insertStatement).execute();
+  }
+
+  @Test
+  void migrateWhenLocked() throws SQLException {
+    when(lockResultSet.getInt(1)).thenReturn(0);
+
+    assertThat(schemaMigrator.migrate()).isFalse();
+
+    verifyNoInteractions(statement);
+    verifyNoInteractions(releaseStatement);
+  }
+
+  @Test
+  void migrateWhenNoSchema() throws SQLException {
+    when(versionStatement.executeQuery())
+        .thenThrow(new SQLException("test", "42000", 1049))
+        .thenReturn(versionResultSet);
+
+    assertThat(schemaMigrator.migrate()).isTrue();
+
+    verify(statement).execute(FIRST);
+  }
+
+  @Test
+  void migrateWhenSelectError() throws SQLException {
+    when(versionStatement.executeQuery()).thenThrow(new SQLException("test"));
+
+    assertThat(schemaMigrator.migrate()).isFalse();
+
+    verifyNoInteractions(lockStatement);
+  }
+
+  @Test
+  void start() throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    schemaMigrator.start().toCompletableFuture().get(TIMEOUT, TimeUnit.SECONDS);
+    verify(insertStatement).execute();
+  }
+
+  @Test
+  void startWhenError()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLException("test")).thenReturn(connection);
+    }
+
+    schemaMigrator.start().toCompletableFuture().get(TIMEOUT, TimeUnit.SECONDS);
+
+    verify(dataSource, times(2)).getConnection();
+    verify(insertStatement).execute();
+  }
+
+  private SchemaMigrator createDropIndexMigrator() {
+    return new SchemaMigrator(
+        dataSource, List.of(new Migration(1, "description", DROP_INDEX, SECOND)), 1L, 1L);
+  }
+
+  private void prepare(String prefix, PreparedStatement preparedStatement, ResultSet resultSet)
+      throws SQLException {
+    try (var prepared = connection.prepareStatement(startsWith(prefix))) {
+      when(prepared).thenReturn(preparedStatement);
+    }
+
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
+    }
+  }
+}
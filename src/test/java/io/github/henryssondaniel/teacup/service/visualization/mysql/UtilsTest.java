@@ -3,11 +3,28 @@ package io.github.henryssondaniel.teacup.service.visualization.mysql;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
+import java.sql.SQLException;
 import org.junit.jupiter.api.Test;
 
 class UtilsTest {
   @Test
-  void createMySqlDataSource() {
-    assertThat(Utils.createMySqlDataSource()).isExactlyInstanceOf(MysqlDataSource.class);
+  void createMySqlDataSource() throws SQLException {
+    var dataSource = Utils.createMySqlDataSource();
+
+    assertThat(dataSource).isExactlyInstanceOf(CircuitBreakerDataSource.class);
+    assertThat(dataSource.unwrap(InstrumentedDataSource.class))
+        .isExactlyInstanceOf(InstrumentedDataSource.class);
+    assertThat(dataSource.unwrap(ConnectionPool.class)).isExactlyInstanceOf(ConnectionPool.class);
+
+    var mysqlDataSource = dataSource.unwrap(MysqlDataSource.class);
+    assertThat(mysqlDataSource).isExactlyInstanceOf(MysqlDataSource.class);
+    assertThat(mysqlDataSource.getConnectTimeout()).isEqualTo(5_000);
+    assertThat(mysqlDataSource.getRewriteBatchedStatements()).isTrue();
+    assertThat(mysqlDataSource.getSocketTimeout()).isEqualTo(60_000);
+  }
+
+  @Test
+  void getSet() {
+    assertThat(Utils.getSet("rate.limit.trusted.proxies")).isEmpty();
   }
 }
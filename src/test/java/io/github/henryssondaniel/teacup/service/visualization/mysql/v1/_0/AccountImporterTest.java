@@ -0,0 +1,220 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import javax.sql.DataSource;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AccountImporterTest {
+  private static final String ACCOUNT =
+      "{\"email\":\"%s\", \"firstName\":\"first\", \"lastName\":\"last\", \"password\":\"password\"}";
+  private static final String EMAIL = "email";
+  private static final String EMAIL_A = "a@teacup.com";
+  private static final String EMAIL_B = "b@teacup.com";
+  private static final String ID = "id";
+  private static final String IP = "ip";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final EmailFilter emailFilter =
+      new EmailFilter(mock(DataSource.class, RETURNS_DEEP_STUBS), 10, 0.01, 0L, 0L);
+  private final HashingExecutor hashingExecutor = new HashingExecutor(2, 10, 2);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  @AfterEach
+  void afterEach() throws InterruptedException {
+    emailFilter.close();
+    hashingExecutor.close();
+  }
+
+  @BeforeEach
+  void beforeEach() throws ExecutionException, InterruptedException, SQLException {
+    emailFilter.start().toCompletableFuture().get();
+
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
+    }
+
+    try (var statement = connection.prepareStatement(anyString())) {
+      when(statement).thenReturn(preparedStatement);
+    }
+
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenReturn(connection);
+    }
+  }
+
+  @Test
+  void importAccounts() throws IOException, SQLException {
+    when(resultSet.next()).thenReturn(false, true, true, false);
+    when(resultSet.getString(EMAIL)).thenReturn(EMAIL_A, EMAIL_B);
+    when(resultSet.getInt(ID)).thenReturn(1, 2);
+
+    assertResults(
+        importAccounts(accounts(EMAIL_A, EMAIL_B)),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":200},"
+            + "{\"index\":1,\"email\":\"b@teacup.com\",\"status\":200}]");
+
+    verify(dataSource).getConnection();
+    verify(connection).commit();
+    verify(preparedStatement, times(8)).addBatch();
+    verify(preparedStatement, times(4)).executeBatch();
+    verify(preparedStatement, times(2)).setString(2, IP);
+
+    assertThat(emailFilter.mightContain(EMAIL_A)).isTrue();
+    assertThat(emailFilter.mightContain(EMAIL_B)).isTrue();
+    assertThat(emailFilter.mightContain("c@teacup.com")).isFalse();
+  }
+
+  @Test
+  void importAccountsWhenAccountExists() throws IOException, SQLException {
+    when(resultSet.next()).thenReturn(true, false, true, false);
+    when(resultSet.getString(EMAIL)).thenReturn("A@teacup.com", EMAIL_B);
+    when(resultSet.getInt(ID)).thenReturn(1, 2);
+
+    assertResults(
+        importAccounts(accounts(EMAIL_A, EMAIL_B)),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":409},"
+            + "{\"index\":1,\"email\":\"b@teacup.com\",\"status\":200}]");
+
+    verify(connection).commit();
+    verify(preparedStatement, times(4)).addBatch();
+  }
+
+  @Test
+  void importAccountsWhenDuplicate() throws IOException, SQLException {
+    when(resultSet.next()).thenReturn(false, true, false);
+    when(resultSet.getString(EMAIL)).thenReturn(EMAIL_A);
+    when(resultSet.getInt(ID)).thenReturn(1);
+
+    assertResults(
+        importAccounts(accounts(EMAIL_A, EMAIL_A)),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":200},"
+            + "{\"index\":1,\"email\":\"a@teacup.com\",\"status\":409}]");
+  }
+
+  @Test
+  void importAccountsWhenEmpty() throws IOException {
+    assertThat(importAccounts(new StringReader(" [ ] "))).isEqualTo("[]");
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void importAccountsWhenError() throws IOException, SQLException {
+    when(preparedStatement.executeBatch()).thenThrow(new SQLException("test"));
+
+    assertResults(
+        importAccounts(accounts(EMAIL_A)),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":500}]");
+
+    verify(connection).rollback();
+    verify(connection).setAutoCommit(true);
+  }
+
+  @Test
+  void importAccountsWhenHashingQueueIsFull() throws InterruptedException, IOException {
+    hashingExecutor.close();
+
+    assertResults(
+        importAccounts(accounts(EMAIL_A)),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":503}]");
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void importAccountsWhenInvalidAccount() throws IOException {
+    assertResults(
+        importAccounts(new StringReader("[1, {\"email\":\"a@teacup.com\"}]")),
+        "[{\"index\":0,\"status\":400},{\"index\":1,\"email\":\"a@teacup.com\",\"status\":400}]");
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void importAccountsWhenMalformed() throws IOException, SQLException {
+    when(resultSet.next()).thenReturn(false, true, false);
+    when(resultSet.getString(EMAIL)).thenReturn(EMAIL_A);
+    when(resultSet.getInt(ID)).thenReturn(1);
+
+    assertResults(
+        importAccounts(new StringReader('[' + String.format(ACCOUNT, EMAIL_A) + " {")),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":200},"
+            + "{\"index\":1,\"status\":400}]");
+  }
+
+  @Test
+  void importAccountsWhenNotArray() {
+    var accountImporter =
+        new AccountImporter(dataSource, emailFilter, hashingExecutor, IP, new StringReader("{}"));
+
+    assertThatThrownBy(accountImporter::start).isInstanceOf(JSONException.class);
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void importAccountsWhenTooLong() throws IOException, SQLException {
+    var email = "a".repeat(35) + "@teacup.com";
+
+    when(resultSet.next()).thenReturn(false, true, false);
+    when(resultSet.getString(EMAIL)).thenReturn(EMAIL_A);
+    when(resultSet.getInt(ID)).thenReturn(1);
+
+    assertResults(
+        importAccounts(accounts(EMAIL_A, email)),
+        "[{\"index\":0,\"email\":\"a@teacup.com\",\"status\":200},"
+            + "{\"index\":1,\"email\":\""
+            + email
+            + "\",\"status\":400}]");
+
+    verify(connection).commit();
+    verify(preparedStatement, times(4)).addBatch();
+  }
+
+  private static void assertResults(String results, String expected) {
+    assertThat(new JSONArray(results).similar(new JSONArray(expected))).as(results).isTrue();
+  }
+
+  private static StringReader accounts(String... emails) {
+    var stringBuilder = new StringBuilder("[");
+
+    for (var email : emails) {
+      if (stringBuilder.length() > 1) stringBuilder.append(',');
+      stringBuilder.append(String.format(ACCOUNT, email));
+    }
+
+    return new StringReader(stringBuilder.append(']').toString());
+  }
+
+  private String importAccounts(Reader reader) throws IOException {
+    var accountImporter = new AccountImporter(dataSource, emailFilter, hashingExecutor, IP, reader);
+    accountImporter.start();
+
+    var stringWriter = new StringWriter();
+    accountImporter.importAccounts(stringWriter);
+
+    return stringWriter.toString();
+  }
+}
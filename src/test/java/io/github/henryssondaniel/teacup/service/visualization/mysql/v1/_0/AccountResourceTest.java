@@ -1,56 +1,105 @@
 package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AccountCache;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.AuditWriter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Bulkheads;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.EmailFilter;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.HashingExecutor;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.LockoutTable;
+import io.github.henryssondaniel.teacup.service.visualization.mysql.Metrics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.servlet.http.HttpServletRequest;
 import javax.sql.DataSource;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.json.JSONArray;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mindrot.jbcrypt.BCrypt;
+import org.mockito.ArgumentCaptor;
 
 class AccountResourceTest {
-  private static final String CHANGE_PASSWORD =
-      "{\"authorized\":\"true\", \"email\":\"admin@teacup.com\", \"password\":\"password\"}";
-  private static final String EMAIL = "{\"email\":\"admin@teacup.com\"}";
-  private static final String ID = "id";
-  private static final String LOG_IN =
-      "{\"email\":\"admin@teacup.com\", \"password\":\"password\"}";
+  private static final String ADMIN = "admin@teacup.com";
   private static final String PASSWORD = "password";
+  private static final ChangePasswordRequest CHANGE_PASSWORD =
+      new ChangePasswordRequest(true, ADMIN, PASSWORD);
+  private static final EmailRequest EMAIL = new EmailRequest(ADMIN);
+  private static final String EMAIL_COLUMN = "email";
+  private static final String ID = "id";
+  private static final LogInRequest LOG_IN = new LogInRequest(ADMIN, PASSWORD);
+  private static final String LOG_INS = "log_ins";
+  private static final String PERMITTED = "permitted";
   private static final String PASS_WORD = BCrypt.hashpw("PassWord", BCrypt.gensalt());
-  private static final String SIGN_UP =
-      "{\"email\":\"admin@teacup.com\", \"firstName\":\"first\", \"lastName\":\"last\", \"password\":\"password\"}";
+  private static final SignUpRequest SIGN_UP = new SignUpRequest(ADMIN, "first", "last", PASSWORD);
+  private static final long TIMEOUT = 5_000L;
   private static final String UNSUCCESSFUL = "unsuccessful";
 
+  private final AccountCache accountCache = new AccountCache(10, 60_000L, Metrics.getInstance());
+  private final AsyncResponse asyncResponse = mock(AsyncResponse.class);
+  private final DataSource auditDataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+  private final AuditWriter auditWriter = new AuditWriter(auditDataSource, 10, 10, 60_000L, 0L);
+  private final CallableStatement callableStatement = mock(CallableStatement.class);
+  private final Connection connection = mock(Connection.class);
   private final DataSource dataSource = mock(DataSource.class);
+  private final EmailFilter emailFilter =
+      new EmailFilter(mock(DataSource.class, RETURNS_DEEP_STUBS), 10, 0.01, 0L, 0L);
+  private final HashingExecutor hashingExecutor = new HashingExecutor(1, 1, 1);
   private final HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+  private final LockoutTable lockoutTable = new LockoutTable(60_000L);
+  private final Metrics metrics = Metrics.getInstance();
   private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
   private final ResultSet resultSet = mock(ResultSet.class);
 
+  @AfterEach
+  void afterEach() throws InterruptedException {
+    auditWriter.close();
+    emailFilter.close();
+    hashingExecutor.close();
+  }
+
   @Test
   void accountResource() {
-    assertThat(new AccountResource()).isNotNull();
+    assertThat(createAccountResource()).isNotNull();
   }
 
   @BeforeEach
   void beforeEach() throws SQLException {
     setupResultSet();
 
-    var connection = setupConnection(setupPreparedStatement());
+    setupConnection(setupPreparedStatement());
 
     try (var conn = dataSource.getConnection()) {
       when(conn).thenReturn(connection);
@@ -63,7 +112,7 @@ class AccountResourceTest {
   void changePassword() throws SQLException {
     assertThat(callChangePassword().getStatus()).isEqualTo(Status.OK.getStatusCode());
 
-    verify(dataSource).getConnection();
+    verify(dataSource, times(2)).getConnection();
     verifyNoMoreInteractions(dataSource);
 
     verify(httpServletRequest, times(5)).getHeader(anyString());
@@ -76,6 +125,21 @@ class AccountResourceTest {
     verifyNoMoreInteractions(resultSet);
   }
 
+  @Test
+  void changePasswordWhenCached() throws SQLException {
+    accountCache.put(ADMIN, 1);
+    lockoutTable.lock(1);
+
+    assertThat(callChangePassword().getStatus()).isEqualTo(Status.OK.getStatusCode());
+    assertThat(lockoutTable.isLocked(1)).isFalse();
+
+    verify(dataSource).getConnection();
+    verifyNoMoreInteractions(dataSource);
+
+    verify(preparedStatement).setInt(1, 1);
+    verifyNoInteractions(resultSet);
+  }
+
   @Test
   void changePasswordWhenConnectionError() throws SQLException {
     connectionError();
@@ -86,7 +150,7 @@ class AccountResourceTest {
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
     verifyNoInteractions(resultSet);
   }
 
@@ -99,7 +163,7 @@ class AccountResourceTest {
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
 
     verify(resultSet).close();
     verify(resultSet).next();
@@ -107,64 +171,177 @@ class AccountResourceTest {
   }
 
   @Test
-  void logIn() throws SQLException {
-    assertThat(callLogIn().getStatus()).isEqualTo(Status.OK.getStatusCode());
+  void exportAccounts() throws IOException, SQLException {
+    when(resultSet.getInt(ID)).thenReturn(1);
+    when(resultSet.getString(EMAIL_COLUMN)).thenReturn(ADMIN);
+    when(resultSet.getTimestamp("status_time")).thenReturn(new Timestamp(0L));
+    when(resultSet.next()).thenReturn(true, false);
+
+    var output = callExportAccounts();
+
+    assertThat(
+            new JSONArray(output)
+                .similar(
+                    new JSONArray(
+                        "[{\"email\":\"admin@teacup.com\", \"id\":1, "
+                            + "\"statusTime\":\"1970-01-01T00:00:00Z\"}]")))
+        .as(output)
+        .isTrue();
 
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verify(httpServletRequest, times(5)).getHeader(anyString());
-    verify(httpServletRequest).getRemoteAddr();
-    verifyNoMoreInteractions(httpServletRequest);
+    verify(preparedStatement).setInt(1, 0);
+    verify(preparedStatement).setInt(2, 1_000);
+    verify(resultSet).close();
+  }
 
-    verify(resultSet, times(2)).close();
-    verify(resultSet, times(2)).getInt(ID);
-    verify(resultSet).getInt(UNSUCCESSFUL);
-    verify(resultSet).getString("email");
-    verify(resultSet).getString("first_name");
-    verify(resultSet).getString("last_name");
-    verify(resultSet).getString(PASSWORD);
-    verify(resultSet, times(2)).next();
-    verifyNoMoreInteractions(resultSet);
+  @Test
+  void exportAccountsWhenConnectionError() throws SQLException {
+    connectionError();
+
+    assertThatThrownBy(this::callExportAccounts)
+        .isInstanceOf(IOException.class)
+        .hasCauseInstanceOf(SQLException.class);
   }
 
   @Test
-  void logInNoMatch() throws SQLException {
-    when(resultSet.getInt(UNSUCCESSFUL)).thenReturn(5);
+  void exportAccountsWhenEmpty() throws IOException, SQLException {
+    when(resultSet.next()).thenReturn(false);
+
+    assertThat(callExportAccounts()).isEqualTo("[]");
+  }
+
+  @Test
+  void exportAccountsWhenPages() throws IOException, SQLException {
+    var rows = new AtomicInteger(0);
+    when(resultSet.getInt(ID)).thenAnswer(invocation -> Math.min(rows.get(), 1_001));
+    when(resultSet.next())
+        .thenAnswer(
+            invocation -> {
+              var row = rows.incrementAndGet();
+              return row != 1_001 && row <= 1_002;
+            });
+
+    assertThat(new JSONArray(callExportAccounts()).length()).isEqualTo(1_001);
+
+    verify(connection, times(2)).close();
+    verify(dataSource, times(2)).getConnection();
+    verify(preparedStatement).setInt(1, 0);
+    verify(preparedStatement).setInt(1, 1_000);
+  }
+
+  @Test
+  void importAccounts() throws IOException {
+    var response =
+        createAccountResource()
+            .importAccounts(
+                new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)),
+                httpServletRequest);
+
+    assertThat(response.getStatus()).isEqualTo(Status.OK.getStatusCode());
+
+    var byteArrayOutputStream = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(byteArrayOutputStream);
+    assertThat(byteArrayOutputStream.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+
+    verifyIp();
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void importAccountsWhenInvalidData() {
+    var response =
+        createAccountResource()
+            .importAccounts(
+                new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)),
+                httpServletRequest);
+
+    assertThat(response.getStatus()).isEqualTo(Status.BAD_REQUEST.getStatusCode());
+    assertThat(response.getEntity()).isEqualTo("[]");
+
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void logIn() throws InterruptedException, SQLException {
+    when(resultSet.getBoolean(PERMITTED)).thenReturn(true);
+    when(resultSet.getInt(ID)).thenReturn(1);
+    when(resultSet.getString(EMAIL_COLUMN)).thenReturn(ADMIN);
+
+    var response = callLogIn();
+    assertThat(response.getStatus()).isEqualTo(Status.OK.getStatusCode());
+    assertThat(response.getEntity())
+        .isInstanceOfSatisfying(
+            Profile.class,
+            profile -> {
+              assertThat(profile.getEmail()).isEqualTo(ADMIN);
+              assertThat(profile.getId()).isOne();
+            });
+
+    verify(dataSource, times(2)).getConnection();
+    verifyNoMoreInteractions(dataSource);
+
+    verifyIp();
+    verify(resultSet).getInt(LOG_INS);
+    verifyLogIn();
+
+    verify(callableStatement).setBoolean(2, true);
+    verifyNoInteractions(preparedStatement);
+
+    verifyAudit();
+  }
+
+  @Test
+  void logInNoMatch() throws InterruptedException, SQLException {
+    when(resultSet.getBoolean(PERMITTED)).thenReturn(true);
     when(resultSet.getString(PASSWORD)).thenReturn(PASS_WORD);
 
-    assertThat(callLogIn().getStatus()).isEqualTo(Status.NOT_ACCEPTABLE.getStatusCode());
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.UNAUTHORIZED.getStatusCode());
 
-    verify(dataSource).getConnection();
+    verify(dataSource, times(2)).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
+    verify(resultSet).getInt(LOG_INS);
+    verifyLogIn();
 
-    verify(resultSet, times(2)).close();
-    verify(resultSet, times(2)).getInt(ID);
-    verify(resultSet).getInt(UNSUCCESSFUL);
-    verify(resultSet).getString(PASSWORD);
-    verify(resultSet, times(2)).next();
-    verifyNoMoreInteractions(resultSet);
+    verify(callableStatement).setBoolean(2, false);
+
+    verifyAudit();
+    assertThat(lockoutTable.isLocked(0)).isFalse();
   }
 
   @Test
-  void logInTooManyUnsuccessful() throws SQLException {
-    when(resultSet.getInt(UNSUCCESSFUL)).thenReturn(5);
+  void logInNoMatchWhenLastAttempt() throws InterruptedException, SQLException {
+    when(resultSet.getBoolean(PERMITTED)).thenReturn(true);
+    when(resultSet.getInt(UNSUCCESSFUL)).thenReturn(4);
+    when(resultSet.getString(EMAIL_COLUMN)).thenReturn(ADMIN);
+    when(resultSet.getString(PASSWORD)).thenReturn(PASS_WORD);
+
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.UNAUTHORIZED.getStatusCode());
+
+    verifyAudit();
+    assertThat(accountCache.getIfPresent(ADMIN)).hasValue(0);
+    assertThat(lockoutTable.isLocked(0)).isTrue();
+  }
+
+  @Test
+  void logInTooManyUnsuccessful() throws InterruptedException, SQLException {
+    when(resultSet.getString(EMAIL_COLUMN)).thenReturn(ADMIN);
 
     assertThat(callLogIn().getStatus()).isEqualTo(Status.NOT_ACCEPTABLE.getStatusCode());
 
-    verify(dataSource).getConnection();
+    verify(dataSource, times(2)).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
+    verifyLogIn();
 
-    verify(resultSet, times(2)).close();
-    verify(resultSet, times(2)).getInt(ID);
-    verify(resultSet).getInt(UNSUCCESSFUL);
-    verify(resultSet).getString(PASSWORD);
-    verify(resultSet, times(2)).next();
-    verifyNoMoreInteractions(resultSet);
+    auditWriter.close();
+    assertThat(auditWriter.getWritten()).isZero();
+
+    assertThat(lockoutTable.isLocked(0)).isTrue();
   }
 
   @Test
@@ -176,7 +353,7 @@ class AccountResourceTest {
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
 
     verify(resultSet).close();
     verify(resultSet).next();
@@ -192,52 +369,109 @@ class AccountResourceTest {
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
     verifyNoInteractions(resultSet);
   }
 
   @Test
-  void logInWhenNoLogIns() throws SQLException {
-    when(httpServletRequest.getHeader(anyString())).thenReturn("test");
-    when(resultSet.getString(PASSWORD)).thenReturn(PASS_WORD);
-    when(resultSet.next()).thenReturn(true, false, true);
+  void logInWhenConnectionUnavailable() throws SQLException {
+    try (var conn = dataSource.getConnection()) {
+      when(conn).thenThrow(new SQLTransientConnectionException("test"));
+    }
 
-    assertThat(callLogIn().getStatus()).isEqualTo(Status.UNAUTHORIZED.getStatusCode());
+    var response = callLogIn();
+
+    assertThat(response.getStatus()).isEqualTo(Status.SERVICE_UNAVAILABLE.getStatusCode());
+    assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
 
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
+  }
+
+  @Test
+  void logInWhenFilteredOut() throws ExecutionException, InterruptedException {
+    emailFilter.start().toCompletableFuture().get();
+
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.UNAUTHORIZED.getStatusCode());
+
+    verifyIp();
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void logInWhenHashingQueueIsFull() throws InterruptedException {
+    hashingExecutor.close();
+
+    var response = callLogIn();
+
+    assertThat(response.getStatus()).isEqualTo(Status.SERVICE_UNAVAILABLE.getStatusCode());
+    assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+  }
+
+  @Test
+  void logInWhenIpHeader() throws InterruptedException, SQLException {
+    when(httpServletRequest.getHeader(anyString())).thenReturn("test");
+    when(resultSet.getBoolean(PERMITTED)).thenReturn(true);
+
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.OK.getStatusCode());
 
     verify(httpServletRequest).getHeader(anyString());
     verifyNoMoreInteractions(httpServletRequest);
 
-    verify(resultSet, times(3)).close();
-    verify(resultSet).getInt(1);
-    verify(resultSet).getInt(ID);
-    verify(resultSet).getString(PASSWORD);
-    verify(resultSet, times(3)).next();
-    verifyNoMoreInteractions(resultSet);
+    auditWriter.close();
+    verify(auditDataSource.getConnection().prepareStatement(anyString())).setObject(1, "test");
   }
 
   @Test
-  void logInWhenNoLogInsError() throws SQLException {
-    when(resultSet.next()).thenReturn(true, false);
+  void logInWhenLocked() throws SQLException {
+    when(resultSet.getInt(UNSUCCESSFUL)).thenReturn(5);
+    when(resultSet.getString(EMAIL_COLUMN)).thenReturn(ADMIN);
 
-    assertThat(callLogIn().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.NOT_ACCEPTABLE.getStatusCode());
 
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
 
-    verify(resultSet, times(3)).close();
-    verify(resultSet).getInt(ID);
-    verify(resultSet).getString(PASSWORD);
-    verify(resultSet, times(3)).next();
-    verifyNoMoreInteractions(resultSet);
+    verify(callableStatement).executeQuery();
+    verify(callableStatement).setString(1, ADMIN);
+    verify(callableStatement).close();
+    verifyNoMoreInteractions(callableStatement);
+
+    assertThat(lockoutTable.isLocked(0)).isTrue();
+  }
+
+  @Test
+  void logInWhenLockedInMemory() {
+    accountCache.put(ADMIN, 1);
+    lockoutTable.lock(1);
+
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.NOT_ACCEPTABLE.getStatusCode());
+
+    verifyIp();
+    verifyNoInteractions(dataSource);
   }
 
   @Test
-  void recover() throws SQLException {
+  void logInWhenWriteError() throws SQLException {
+    try (var query = callableStatement.executeQuery()) {
+      when(query).thenReturn(resultSet).thenThrow(new SQLException("test"));
+    }
+
+    assertThat(callLogIn().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+
+    verify(dataSource, times(2)).getConnection();
+    verifyNoMoreInteractions(dataSource);
+
+    verifyIp();
+
+    verify(callableStatement, times(2)).close();
+    verify(connection, times(2)).close();
+  }
+
+  @Test
+  void recover() throws InterruptedException, SQLException {
     assertThat(callRecover().getStatus()).isEqualTo(Status.OK.getStatusCode());
 
     verify(dataSource).getConnection();
@@ -251,6 +485,8 @@ class AccountResourceTest {
     verify(resultSet).getInt(ID);
     verify(resultSet).next();
     verifyNoMoreInteractions(resultSet);
+
+    verifyAudit();
   }
 
   @Test
@@ -266,6 +502,15 @@ class AccountResourceTest {
     verifyNoInteractions(resultSet);
   }
 
+  @Test
+  void recoverWhenFilteredOut() throws ExecutionException, InterruptedException {
+    emailFilter.start().toCompletableFuture().get();
+
+    assertThat(callRecover().getStatus()).isEqualTo(Status.NO_CONTENT.getStatusCode());
+
+    verifyNoInteractions(dataSource, httpServletRequest);
+  }
+
   @Test
   void recoverWhenNoAccount() throws SQLException {
     when(resultSet.next()).thenReturn(false);
@@ -283,75 +528,94 @@ class AccountResourceTest {
   }
 
   @Test
-  void signUp() throws SQLException {
-    when(resultSet.next()).thenReturn(false, true);
+  void recoverWhenNoAccountCached() throws SQLException {
+    when(resultSet.next()).thenReturn(false);
 
-    assertThat(callSignUp().getStatus()).isEqualTo(Status.OK.getStatusCode());
+    assertThat(callRecover().getStatus()).isEqualTo(Status.NO_CONTENT.getStatusCode());
+    assertThat(callRecover().getStatus()).isEqualTo(Status.NO_CONTENT.getStatusCode());
 
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verify(httpServletRequest, times(5)).getHeader(anyString());
-    verify(httpServletRequest).getRemoteAddr();
-    verifyNoMoreInteractions(httpServletRequest);
-
-    verify(resultSet, times(2)).close();
-    verify(resultSet).getInt(1);
-    verify(resultSet, times(2)).next();
-    verifyNoMoreInteractions(resultSet);
+    verify(resultSet).next();
   }
 
   @Test
-  void signUpWhenAccountExists() throws SQLException {
-    assertThat(callSignUp().getStatus()).isEqualTo(Status.CONFLICT.getStatusCode());
+  void signUp() throws SQLException {
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.OK.getStatusCode());
 
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
 
-    verify(resultSet).close();
-    verify(resultSet).next();
-    verifyNoMoreInteractions(resultSet);
+    verify(callableStatement).setString(1, ADMIN);
+    verify(callableStatement).setString(2, "first");
+    verify(callableStatement).setString(3, "last");
+    verify(callableStatement).setString(4, null);
+    verify(callableStatement).setString(eq(5), startsWith("$2a$"));
+    verify(callableStatement).registerOutParameter(6, Types.INTEGER);
+    verify(callableStatement).execute();
+    verify(callableStatement).getInt(6);
+    verify(callableStatement).close();
+    verifyNoMoreInteractions(callableStatement);
+
+    verify(connection).close();
+    verifyNoInteractions(preparedStatement, resultSet);
   }
 
   @Test
-  void signUpWhenAccountHistoryError() throws SQLException {
-    when(resultSet.next()).thenReturn(false, true);
-    when(preparedStatement.execute())
-        .thenReturn(true, true, true)
-        .thenThrow(new SQLException("test"))
-        .thenReturn(true);
+  void signUpCachesAccount() throws InterruptedException, SQLException {
+    when(callableStatement.getInt(6)).thenReturn(1);
 
-    assertThat(callSignUp().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.OK.getStatusCode());
+    assertThat(callRecover().getStatus()).isEqualTo(Status.OK.getStatusCode());
 
     verify(dataSource).getConnection();
-    verifyNoMoreInteractions(dataSource);
+    verifyNoInteractions(preparedStatement, resultSet);
 
-    verify(httpServletRequest, times(5)).getHeader(anyString());
-    verify(httpServletRequest).getRemoteAddr();
-    verifyNoMoreInteractions(httpServletRequest);
+    verifyAudit();
+  }
 
-    verify(resultSet, times(2)).close();
-    verify(resultSet).getInt(1);
-    verify(resultSet, times(2)).next();
-    verifyNoMoreInteractions(resultSet);
+  @Test
+  void signUpAddsEmail() throws ExecutionException, InterruptedException {
+    emailFilter.start().toCompletableFuture().get();
+    assertThat(emailFilter.mightContain(ADMIN)).isFalse();
+
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.OK.getStatusCode());
+    assertThat(emailFilter.mightContain(ADMIN)).isTrue();
   }
 
   @Test
-  void signUpWhenAccountIdError() throws SQLException {
-    when(resultSet.next()).thenReturn(false);
+  void signUpWhenAccountExists() throws SQLException {
+    when(callableStatement.execute())
+        .thenThrow(
+            new SQLIntegrityConstraintViolationException(
+                "Duplicate entry '" + ADMIN + "' for key 'account.email_UNIQUE'", "23000", 1062));
 
-    assertThat(callSignUp().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.CONFLICT.getStatusCode());
 
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
+    verifyNoInteractions(resultSet);
+  }
 
-    verify(resultSet, times(2)).close();
-    verify(resultSet, times(2)).next();
-    verifyNoMoreInteractions(resultSet);
+  @Test
+  void signUpWhenConstraintViolation()
+      throws ExecutionException, InterruptedException, SQLException {
+    emailFilter.start().toCompletableFuture().get();
+    when(callableStatement.execute())
+        .thenThrow(
+            new SQLIntegrityConstraintViolationException(
+                "Duplicate entry '1' for key 'verification.PRIMARY'", "23000", 1062),
+            new SQLIntegrityConstraintViolationException(
+                "Column 'first_name' cannot be null", "23000", 1048));
+
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    assertThat(emailFilter.mightContain(ADMIN)).isFalse();
   }
 
   @Test
@@ -363,12 +627,27 @@ class AccountResourceTest {
     verify(dataSource).getConnection();
     verifyNoMoreInteractions(dataSource);
 
-    verifyNoInteractions(httpServletRequest);
+    verifyIp();
     verifyNoInteractions(resultSet);
   }
 
   @Test
-  void verifyNoError() throws SQLException {
+  void signUpWhenError() throws SQLException {
+    when(callableStatement.execute()).thenThrow(new SQLException("test"));
+
+    assertThat(callSignUp().getStatus()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+
+    verify(dataSource).getConnection();
+    verifyNoMoreInteractions(dataSource);
+
+    verifyIp();
+
+    verify(callableStatement).close();
+    verify(connection).close();
+  }
+
+  @Test
+  void verifyNoError() throws InterruptedException, SQLException {
     assertThat(callVerify().getStatus()).isEqualTo(Status.OK.getStatusCode());
 
     verify(dataSource).getConnection();
@@ -382,6 +661,8 @@ class AccountResourceTest {
     verify(resultSet).getInt(ID);
     verify(resultSet).next();
     verifyNoMoreInteractions(resultSet);
+
+    verifyAudit();
   }
 
   @Test
@@ -414,23 +695,36 @@ class AccountResourceTest {
   }
 
   private Response callChangePassword() {
-    return new AccountResource(dataSource).changePassword(CHANGE_PASSWORD, httpServletRequest);
+    createAccountResource().changePassword(CHANGE_PASSWORD, httpServletRequest, asyncResponse);
+    return getResponse();
+  }
+
+  private String callExportAccounts() throws IOException {
+    var response = createAccountResource().exportAccounts();
+    assertThat(response.getStatus()).isEqualTo(Status.OK.getStatusCode());
+
+    var byteArrayOutputStream = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(byteArrayOutputStream);
+
+    return byteArrayOutputStream.toString(StandardCharsets.UTF_8);
   }
 
   private Response callLogIn() {
-    return new AccountResource(dataSource).logIn(LOG_IN, httpServletRequest);
+    createAccountResource().logIn(LOG_IN, httpServletRequest, asyncResponse);
+    return getResponse();
   }
 
   private Response callRecover() {
-    return new AccountResource(dataSource).recover(EMAIL, httpServletRequest);
+    return createAccountResource().recover(EMAIL, httpServletRequest);
   }
 
   private Response callSignUp() {
-    return new AccountResource(dataSource).signUp(SIGN_UP, httpServletRequest);
+    createAccountResource().signUp(SIGN_UP, httpServletRequest, asyncResponse);
+    return getResponse();
   }
 
   private Response callVerify() {
-    return new AccountResource(dataSource).verify(EMAIL, httpServletRequest);
+    return createAccountResource().verify(EMAIL, httpServletRequest);
   }
 
   private void connectionError() throws SQLException {
@@ -439,28 +733,47 @@ class AccountResourceTest {
     }
   }
 
-  private static Connection setupConnection(PreparedStatement preparedStatement)
-      throws SQLException {
-    var connection = mock(Connection.class);
+  private AccountResource createAccountResource() {
+    return new AccountResource(
+        accountCache,
+        auditWriter,
+        new Bulkheads(dataSource, 5, metrics),
+        dataSource,
+        emailFilter,
+        hashingExecutor,
+        hashingExecutor,
+        lockoutTable,
+        metrics);
+  }
+
+  private Response getResponse() {
+    var argumentCaptor = ArgumentCaptor.forClass(Response.class);
+    verify(asyncResponse, timeout(TIMEOUT)).resume(argumentCaptor.capture());
+
+    return argumentCaptor.getValue();
+  }
+
+  private void setupConnection(PreparedStatement preparedStatement) throws SQLException {
+    try (var statement = connection.prepareCall(anyString())) {
+      when(statement).thenReturn(callableStatement);
+    }
 
     try (var statement = connection.prepareStatement(anyString())) {
       when(statement).thenReturn(preparedStatement);
     }
 
-    try (var statement =
-        connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))) {
+    try (var statement = connection.prepareStatement(anyString(), anyInt(), anyInt())) {
       when(statement).thenReturn(preparedStatement);
     }
-    return connection;
   }
 
   private PreparedStatement setupPreparedStatement() throws SQLException {
-    try (var query = preparedStatement.executeQuery()) {
+    try (var query = callableStatement.executeQuery()) {
       when(query).thenReturn(resultSet);
     }
 
-    try (var generatedKeys = preparedStatement.getGeneratedKeys()) {
-      when(generatedKeys).thenReturn(resultSet);
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
     }
     return preparedStatement;
   }
@@ -469,4 +782,30 @@ class AccountResourceTest {
     when(resultSet.getString(PASSWORD)).thenReturn(BCrypt.hashpw(PASSWORD, BCrypt.gensalt()));
     when(resultSet.next()).thenReturn(true);
   }
+
+  private void verifyLogIn() throws SQLException {
+    verify(resultSet, times(2)).close();
+    verify(resultSet).getBoolean(PERMITTED);
+    verify(resultSet).getInt(ID);
+    verify(resultSet).getInt(UNSUCCESSFUL);
+    verify(resultSet).getString(EMAIL_COLUMN);
+    verify(resultSet).getString("first_name");
+    verify(resultSet).getString("last_name");
+    verify(resultSet).getString(PASSWORD);
+    verify(resultSet, times(2)).next();
+    verifyNoMoreInteractions(resultSet);
+  }
+
+  private void verifyAudit() throws InterruptedException {
+    auditWriter.close();
+
+    assertThat(auditWriter.getLost()).isZero();
+    assertThat(auditWriter.getWritten()).isOne();
+  }
+
+  private void verifyIp() {
+    verify(httpServletRequest, times(5)).getHeader(anyString());
+    verify(httpServletRequest).getRemoteAddr();
+    verifyNoMoreInteractions(httpServletRequest);
+  }
 }
@@ -0,0 +1,67 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.core.MediaType;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+class ProfileWriterTest {
+  private final ProfileWriter profileWriter = new ProfileWriter();
+
+  @Test
+  void isWriteable() {
+    assertThat(isWriteable(Profile.class)).isTrue();
+  }
+
+  @Test
+  void isWriteableWhenString() {
+    assertThat(isWriteable(String.class)).isFalse();
+  }
+
+  @Test
+  void writeTo() throws IOException {
+    assertThat(write(new Profile("admin@teacup.com", "first", 1, "last")))
+        .isEqualTo(
+            "{\"email\":\"admin@teacup.com\",\"firstName\":\"first\",\"id\":\"1\",\"lastName\":\"last\"}");
+  }
+
+  @Test
+  void writeToWhenEscaped() throws IOException {
+    var firstName = "\"quoted\" \\ \b\f\n\r\t\u0001 \u00e5\u20ac\ud83d\ude00 \ud800";
+    var jsonObject = new JSONObject(write(new Profile(null, firstName, 1, "last")));
+
+    assertThat(jsonObject.isNull("email")).isTrue();
+    assertThat(jsonObject.getString("firstName")).isEqualTo(firstName);
+  }
+
+  @Test
+  void writeToWhenLarge() throws IOException {
+    var lastName = "\u00e5".repeat(10_000);
+
+    assertThat(new JSONObject(write(new Profile("", "", 1, lastName))).getString("lastName"))
+        .isEqualTo(lastName);
+    assertThat(write(new Profile("", "", 2, ""))).contains("\"id\":\"2\"");
+  }
+
+  private boolean isWriteable(Class<?> type) {
+    return profileWriter.isWriteable(type, type, null, MediaType.APPLICATION_JSON_TYPE);
+  }
+
+  private String write(Profile profile) throws IOException {
+    var byteArrayOutputStream = new ByteArrayOutputStream();
+    profileWriter.writeTo(
+        profile,
+        Profile.class,
+        Profile.class,
+        null,
+        MediaType.APPLICATION_JSON_TYPE,
+        null,
+        byteArrayOutputStream);
+
+    return byteArrayOutputStream.toString(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.service.visualization.mysql.RateLimiter;
+import java.io.IOException;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class RateLimitFilterTest {
+  private static final String EMAIL = "admin@teacup.com";
+  private static final String PROXY = "10.0.0.1";
+  private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+  private final ContainerRequestContext containerRequestContext =
+      mock(ContainerRequestContext.class);
+  private final HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+  private final RateLimitFilter rateLimitFilter =
+      new RateLimitFilter(
+          new RateLimiter(10, 0.001, 1),
+          httpServletRequest,
+          new RateLimiter(10, 0.001, 1),
+          Set.of(PROXY));
+  private final ReaderInterceptorContext readerInterceptorContext =
+      mock(ReaderInterceptorContext.class);
+
+  @Test
+  void aroundReadFrom() throws IOException {
+    var emailRequest = new EmailRequest(EMAIL);
+    when(readerInterceptorContext.proceed()).thenReturn(emailRequest);
+
+    assertThat(rateLimitFilter.aroundReadFrom(readerInterceptorContext)).isSameAs(emailRequest);
+  }
+
+  @Test
+  void aroundReadFromWhenNoEmail() throws IOException {
+    when(readerInterceptorContext.proceed()).thenReturn("body");
+
+    assertThat(rateLimitFilter.aroundReadFrom(readerInterceptorContext)).isEqualTo("body");
+    assertThat(rateLimitFilter.aroundReadFrom(readerInterceptorContext)).isEqualTo("body");
+  }
+
+  @Test
+  void aroundReadFromWhenTooManyRequests() throws IOException {
+    when(readerInterceptorContext.proceed())
+        .thenReturn(new EmailRequest(EMAIL), new LogInRequest("Admin@Teacup.com", "password"));
+
+    rateLimitFilter.aroundReadFrom(readerInterceptorContext);
+
+    assertThatThrownBy(() -> rateLimitFilter.aroundReadFrom(readerInterceptorContext))
+        .isInstanceOfSatisfying(
+            WebApplicationException.class,
+            exception -> verifyTooManyRequests(exception.getResponse()));
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    when(httpServletRequest.getRemoteAddr()).thenReturn("127.0.0.1");
+  }
+
+  @Test
+  void filter() {
+    rateLimitFilter.filter(containerRequestContext);
+
+    verify(containerRequestContext, never()).abortWith(any());
+  }
+
+  @Test
+  void filterWhenForwardedByUntrusted() {
+    when(httpServletRequest.getHeader(X_FORWARDED_FOR)).thenReturn("1.1.1.1", "2.2.2.2");
+
+    rateLimitFilter.filter(containerRequestContext);
+    rateLimitFilter.filter(containerRequestContext);
+
+    verify(containerRequestContext).abortWith(any());
+    verify(httpServletRequest, never()).getHeader(X_FORWARDED_FOR);
+  }
+
+  @Test
+  void filterWhenForwardedByTrustedProxy() {
+    when(httpServletRequest.getRemoteAddr()).thenReturn(PROXY);
+    when(httpServletRequest.getHeader(X_FORWARDED_FOR))
+        .thenReturn("1.1.1.1, 3.3.3.3, " + PROXY, "2.2.2.2, 3.3.3.3", "4.4.4.4");
+
+    rateLimitFilter.filter(containerRequestContext);
+    rateLimitFilter.filter(containerRequestContext);
+    verify(containerRequestContext).abortWith(any());
+
+    rateLimitFilter.filter(containerRequestContext);
+    verify(containerRequestContext).abortWith(any());
+  }
+
+  @Test
+  void filterWhenOnlyTrustedProxies() {
+    when(httpServletRequest.getRemoteAddr()).thenReturn(PROXY);
+    when(httpServletRequest.getHeader(X_FORWARDED_FOR)).thenReturn(" , " + PROXY, PROXY);
+
+    rateLimitFilter.filter(containerRequestContext);
+    rateLimitFilter.filter(containerRequestContext);
+
+    verify(containerRequestContext).abortWith(any());
+  }
+
+  @Test
+  void filterWhenTooManyRequests() {
+    rateLimitFilter.filter(containerRequestContext);
+    rateLimitFilter.filter(containerRequestContext);
+
+    var argumentCaptor = ArgumentCaptor.forClass(Response.class);
+    verify(containerRequestContext).abortWith(argumentCaptor.capture());
+
+    verifyTooManyRequests(argumentCaptor.getValue());
+  }
+
+  @Test
+  void rateLimitFilter() {
+    assertThat(
+            new RateLimitFilter(new RateLimiter(10, 1.0, 1), new RateLimiter(10, 1.0, 1), Set.of()))
+        .isNotNull();
+  }
+
+  private static void verifyTooManyRequests(Response response) {
+    assertThat(response.getStatus()).isEqualTo(Status.TOO_MANY_REQUESTS.getStatusCode());
+    assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo("1000");
+  }
+}
@@ -0,0 +1,164 @@
+package io.github.henryssondaniel.teacup.service.visualization.mysql.v1._0;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response.Status;
+import org.junit.jupiter.api.Test;
+
+class RequestReaderTest {
+  private static final String EMAIL = "admin@teacup.com";
+  private static final int MAXIMUM_SIZE = 128;
+  private static final String PASSWORD = "password";
+
+  private final MultivaluedMap<String, String> httpHeaders = new MultivaluedHashMap<>();
+  private final RequestReader requestReader = new RequestReader(MAXIMUM_SIZE);
+
+  @Test
+  void isReadable() {
+    assertThat(isReadable(ChangePasswordRequest.class)).isTrue();
+    assertThat(isReadable(EmailRequest.class)).isTrue();
+    assertThat(isReadable(LogInRequest.class)).isTrue();
+    assertThat(isReadable(SignUpRequest.class)).isTrue();
+  }
+
+  @Test
+  void isReadableWhenString() {
+    assertThat(isReadable(String.class)).isFalse();
+  }
+
+  @Test
+  void readFromChangePasswordRequest() {
+    var changePasswordRequest =
+        (ChangePasswordRequest)
+            readFrom(
+                ChangePasswordRequest.class,
+                "{\"authorized\":\"true\", \"email\":\"admin@teacup.com\", \"password\":\"password\"}");
+
+    assertThat(changePasswordRequest.isAuthorized()).isTrue();
+    assertThat(changePasswordRequest.getEmail()).isEqualTo(EMAIL);
+    assertThat(changePasswordRequest.getPassword()).isEqualTo(PASSWORD);
+  }
+
+  @Test
+  void readFromEmailRequest() {
+    var emailRequest =
+        (EmailRequest)
+            readFrom(EmailRequest.class, "{\"email\":\"admin@teacup.com\", \"other\":[1, {}]}");
+
+    assertThat(emailRequest.getEmail()).isEqualTo(EMAIL);
+  }
+
+  @Test
+  void readFromLogInRequest() {
+    var logInRequest =
+        (LogInRequest)
+            readFrom(
+                LogInRequest.class,
+                "{\"email\":\"admin@teacup.com\", \"password\":\"pass\\\"word\\u00e5\"}");
+
+    assertThat(logInRequest.getEmail()).isEqualTo(EMAIL);
+    assertThat(logInRequest.getPassword()).isEqualTo("pass\"word\u00e5");
+  }
+
+  @Test
+  void readFromSignUpRequest() {
+    var signUpRequest =
+        (SignUpRequest)
+            readFrom(
+                SignUpRequest.class,
+                "{\"email\":\"admin@teacup.com\", \"firstName\":\"first\", \"lastName\":\"last\", \"password\":\"password\"}");
+
+    assertThat(signUpRequest.getEmail()).isEqualTo(EMAIL);
+    assertThat(signUpRequest.getFirstName()).isEqualTo("first");
+    assertThat(signUpRequest.getLastName()).isEqualTo("last");
+    assertThat(signUpRequest.getPassword()).isEqualTo(PASSWORD);
+  }
+
+  @Test
+  void readFromWhenContentLengthIsTooLarge() {
+    httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, String.valueOf(MAXIMUM_SIZE + 1));
+
+    assertTooLarge(() -> readFrom(EmailRequest.class, "{\"email\":\"admin@teacup.com\"}"));
+  }
+
+  @Test
+  void readFromWhenInvalidContentLength() {
+    httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, "invalid");
+
+    assertThat(readFrom(EmailRequest.class, "{\"email\":\"admin@teacup.com\"}"))
+        .isInstanceOf(EmailRequest.class);
+  }
+
+  @Test
+  void readFromWhenInvalidType() {
+    assertThatThrownBy(
+            () ->
+                readFrom(
+                    ChangePasswordRequest.class,
+                    "{\"authorized\":1, \"email\":\"admin@teacup.com\", \"password\":\"password\"}"))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("authorized");
+  }
+
+  @Test
+  void readFromWhenMalformed() {
+    assertThatThrownBy(() -> readFrom(EmailRequest.class, "{\"email\" \"admin@teacup.com\"}"))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  void readFromWhenMissing() {
+    assertThatThrownBy(() -> readFrom(LogInRequest.class, "{\"email\":\"admin@teacup.com\"}"))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining(PASSWORD);
+  }
+
+  @Test
+  void readFromWhenNotObject() {
+    assertThatThrownBy(() -> readFrom(EmailRequest.class, "[]"))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  void readFromWhenTooLarge() {
+    var data = "{\"email\":\"" + "a".repeat(MAXIMUM_SIZE) + "\"}";
+
+    assertTooLarge(() -> readFrom(EmailRequest.class, data));
+  }
+
+  private static void assertTooLarge(Runnable runnable) {
+    assertThatThrownBy(runnable::run)
+        .isInstanceOfSatisfying(
+            WebApplicationException.class,
+            e ->
+                assertThat(e.getResponse().getStatus())
+                    .isEqualTo(Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode()));
+  }
+
+  private boolean isReadable(Class<?> type) {
+    return requestReader.isReadable(type, type, null, MediaType.APPLICATION_JSON_TYPE);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object readFrom(Class<?> type, String data) {
+    InputStream inputStream = new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+
+    return requestReader.readFrom(
+        (Class<Object>) type,
+        type,
+        null,
+        MediaType.APPLICATION_JSON_TYPE,
+        httpHeaders,
+        inputStream);
+  }
+}